@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+
+/**
+ * Builds and runs several independent simulations at the same time, as a
+ * batch run does. Each simulation gets a thread of its own: with no global
+ * contention, the time per batch should stay flat as the number of
+ * simulations grows, up to the number of available cores.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ConcurrentSimulationsBenchmark {
+
+    /**
+     * Number of simulations running at the same time.
+     */
+    @Param({ "1", "2", "4", "8", "16" })
+    private int simulations;
+
+    /**
+     * Number of nodes of each simulation.
+     */
+    @Param({ "1000" })
+    private int nodes;
+
+    /**
+     * Average number of neighbors.
+     */
+    @Param({ "10" })
+    private int density;
+
+    /**
+     * Reactions installed on each node.
+     */
+    @Param({ "EXPONENTIAL" })
+    private Scenarios.ReactionMix mix;
+
+    /**
+     * Steps executed by each simulation.
+     */
+    @Param({ "100000" })
+    private long steps;
+
+    private ExecutorService executor;
+
+    /**
+     * Prepares a thread per simulation.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(simulations);
+    }
+
+    /**
+     * Releases the threads.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return the total number of steps, to prevent dead code elimination
+     * @throws InterruptedException
+     *             if interrupted while waiting for the simulations
+     * @throws ExecutionException
+     *             if a simulation fails
+     */
+    @Benchmark
+    public long run() throws InterruptedException, ExecutionException {
+        final List<Future<Long>> results = new ArrayList<>(simulations);
+        for (int i = 0; i < simulations; i++) {
+            final long seed = i;
+            results.add(executor.submit(() -> {
+                /*
+                 * The scenario is built within the measurement, as node and
+                 * reaction creation were among the contention points
+                 */
+                final Environment<Integer> env = Scenarios.build(nodes, density, mix, Scenarios.Linking.EUCLIDEAN, seed);
+                final Engine<Integer> engine = new Engine<>(env, steps, DoubleTime.INFINITE_TIME, null);
+                engine.setHeadless();
+                engine.run();
+                return engine.getStep();
+            }));
+        }
+        long total = 0;
+        for (final Future<Long> result : results) {
+            total += result.get();
+        }
+        return total;
+    }
+
+}
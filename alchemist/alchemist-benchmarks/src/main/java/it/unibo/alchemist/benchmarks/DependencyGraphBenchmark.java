@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unibo.alchemist.core.implementations.DependencyHandlerImpl;
+import it.unibo.alchemist.core.interfaces.DependencyGraph;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Neighborhood;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+
+/**
+ * Measures the construction and the maintenance of the
+ * {@link DependencyGraph}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DependencyGraphBenchmark {
+
+    /**
+     * Number of nodes.
+     */
+    @Param({ "1000", "10000" })
+    private int nodes;
+
+    /**
+     * Average number of neighbors.
+     */
+    @Param({ "10", "50" })
+    private int density;
+
+    /**
+     * Reactions installed on each node.
+     */
+    @Param({ "EXPONENTIAL", "NEIGHBORHOOD", "MIXED" })
+    private Scenarios.ReactionMix mix;
+
+    /**
+     * The implementation under test.
+     */
+    @Param({ "MAP", "INDEXED" })
+    private Scenarios.Graph implementation;
+
+    private Environment<Integer> env;
+    private List<Reaction<Integer>> reactions;
+    private List<Node<Integer>> nodeList;
+    private DependencyGraph<Integer> graph;
+    private RandomGenerator rng;
+
+    /**
+     * Builds the scenario and a full dependency graph.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        rng = new MersenneTwister(0);
+        env = Scenarios.build(nodes, density, mix, Scenarios.Linking.EUCLIDEAN, 0);
+        nodeList = new ArrayList<>(env.getNodes());
+        reactions = new ArrayList<>();
+        for (final Node<Integer> n : nodeList) {
+            reactions.addAll(n.getReactions());
+        }
+        graph = createDependencies();
+    }
+
+    /**
+     * @return a dependency graph built from scratch for the whole environment
+     */
+    @Benchmark
+    public DependencyGraph<Integer> createDependencies() {
+        final Map<Reaction<Integer>, DependencyHandler<Integer>> handlers = new LinkedHashMap<>();
+        final DependencyGraph<Integer> result = implementation.build(env, handlers);
+        for (final Reaction<Integer> r : reactions) {
+            final DependencyHandler<Integer> handler = new DependencyHandlerImpl<>(r);
+            result.createDependencies(handler);
+            handlers.put(r, handler);
+        }
+        return result;
+    }
+
+    /**
+     * Notifies the graph that a random node discovered one of its actual
+     * neighbors, as it happens when the neighborhoods are recomputed.
+     *
+     * @return the graph
+     */
+    @Benchmark
+    public DependencyGraph<Integer> addNeighbor() {
+        final Neighborhood<Integer> neighborhood = env.getNeighborhood(nodeList.get(rng.nextInt(nodeList.size())));
+        if (!neighborhood.isEmpty()) {
+            graph.addNeighbor(neighborhood.getCenter(), neighborhood.getNeighborByNumber(rng.nextInt(neighborhood.size())));
+        }
+        return graph;
+    }
+
+    /**
+     * Notifies the graph that a random couple of far nodes got connected and
+     * then disconnected.
+     *
+     * @return the graph
+     */
+    @Benchmark
+    public DependencyGraph<Integer> addAndRemoveNeighbor() {
+        final Node<Integer> n1 = nodeList.get(rng.nextInt(nodeList.size()));
+        final Node<Integer> n2 = nodeList.get(rng.nextInt(nodeList.size()));
+        if (!n1.equals(n2)) {
+            graph.addNeighbor(n1, n2);
+            graph.removeNeighbor(n1, n2);
+        }
+        return graph;
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.benchmarks;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.core.interfaces.DependencyGraph;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+
+/**
+ * Measures the cost of a single {@link Engine} step. The engine is driven
+ * step by step through the protected {@link Engine#doStep()} hook, without
+ * the command queue and the status machinery of {@link Engine#run()}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EngineBenchmark {
+
+    /**
+     * Number of nodes.
+     */
+    @Param({ "1000", "10000", "100000" })
+    private int nodes;
+
+    /**
+     * Average number of neighbors.
+     */
+    @Param({ "10" })
+    private int density;
+
+    /**
+     * Reactions installed on each node.
+     */
+    @Param({ "DIRAC", "EXPONENTIAL", "NEIGHBORHOOD", "MIXED", "MOBILE" })
+    private Scenarios.ReactionMix mix;
+
+    /**
+     * The {@link it.unibo.alchemist.core.interfaces.ReactionManager} to use.
+     */
+    @Param({ "ARRAY", "PRIMITIVE", "BUCKET" })
+    private Scenarios.Scheduler scheduler;
+
+    /**
+     * The {@link it.unibo.alchemist.core.interfaces.DependencyGraph} to use.
+     */
+    @Param({ "MAP", "INDEXED" })
+    private Scenarios.Graph graph;
+
+    /**
+     * Whether dependency updates are coalesced at the end of each step.
+     */
+    @Param({ "false", "true" })
+    private boolean coalescing;
+
+    private Environment<Integer> env;
+    private SteppingEngine<Integer> engine;
+
+    /**
+     * Builds the scenario and schedules all its reactions.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        env = Scenarios.build(nodes, density, mix, Scenarios.Linking.EUCLIDEAN, 0);
+        engine = new SteppingEngine<>(env, scheduler.<Integer>build(), graph == Scenarios.Graph.MAP ? null : graph.build(env, null));
+        engine.setUpdateCoalescing(coalescing);
+        synchronized (env) {
+            engine.start();
+        }
+    }
+
+    /**
+     * @return the engine, to prevent dead code elimination
+     * @throws InterruptedException
+     *             if interrupted
+     * @throws ExecutionException
+     *             if the step fails
+     */
+    @Benchmark
+    public Engine<Integer> doStep() throws InterruptedException, ExecutionException {
+        synchronized (env) {
+            engine.step();
+        }
+        return engine;
+    }
+
+    /*
+     * Exposes the stepping hooks of the engine
+     */
+    private static final class SteppingEngine<T> extends Engine<T> {
+        SteppingEngine(final Environment<T> env, final ReactionManager<T> scheduler, final DependencyGraph<T> graph) {
+            super(env, Long.MAX_VALUE, DoubleTime.INFINITE_TIME, scheduler, graph);
+        }
+
+        void start() {
+            finalizeConstructor();
+        }
+
+        void step() throws InterruptedException, ExecutionException {
+            doStep();
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Measures a whole {@link Engine#run()}, including the command queue, the
+ * status machinery and the output monitors, against the headless mode (see
+ * {@link Engine#setHeadless()}). Cheap reactions make the per step
+ * bookkeeping stand out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EngineRunBenchmark {
+
+    /**
+     * Number of nodes.
+     */
+    @Param({ "1000", "10000" })
+    private int nodes;
+
+    /**
+     * Average number of neighbors.
+     */
+    @Param({ "10" })
+    private int density;
+
+    /**
+     * Reactions installed on each node.
+     */
+    @Param({ "DIRAC", "EXPONENTIAL" })
+    private Scenarios.ReactionMix mix;
+
+    /**
+     * Steps executed by each run.
+     */
+    @Param({ "100000" })
+    private long steps;
+
+    /**
+     * Number of output monitors attached.
+     */
+    @Param({ "0", "2" })
+    private int monitors;
+
+    /**
+     * Whether the run is headless.
+     */
+    @Param({ "false", "true" })
+    private boolean headless;
+
+    private Engine<Integer> engine;
+    private long notified;
+
+    /**
+     * Builds a fresh scenario for each run.
+     */
+    @Setup(Level.Invocation)
+    public void setUp() {
+        final Environment<Integer> env = Scenarios.build(nodes, density, mix, Scenarios.Linking.EUCLIDEAN, 0);
+        engine = new Engine<>(env, steps, DoubleTime.INFINITE_TIME, null);
+        for (int i = 0; i < monitors; i++) {
+            engine.addOutputMonitor(new OutputMonitor<Integer>() {
+                private static final long serialVersionUID = 1L;
+                @Override
+                public void finished(final Environment<Integer> env, final Time time, final long step) {
+                }
+                @Override
+                public void initialized(final Environment<Integer> env) {
+                }
+                @Override
+                public void stepDone(final Environment<Integer> env, final Reaction<Integer> r, final Time time, final long step) {
+                    notified++;
+                }
+            });
+        }
+        if (headless) {
+            engine.setHeadless();
+        } else {
+            engine.play();
+        }
+    }
+
+    /**
+     * @return the number of notified steps, to prevent dead code elimination
+     */
+    @Benchmark
+    public long run() {
+        engine.run();
+        return notified + engine.getStep();
+    }
+
+}
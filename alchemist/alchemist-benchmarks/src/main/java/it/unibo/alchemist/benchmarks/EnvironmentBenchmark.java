@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.danilopianini.util.ListSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Position;
+
+/**
+ * Measures the neighborhood maintenance of the environment, which is
+ * triggered by each node movement, and the range queries, with each
+ * available spatial index. No simulation is attached, so that only the cost
+ * of the environment is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class EnvironmentBenchmark {
+
+    /**
+     * Number of nodes.
+     */
+    @Param({ "1000", "10000", "100000" })
+    private int nodes;
+
+    /**
+     * Average number of neighbors.
+     */
+    @Param({ "10", "50" })
+    private int density;
+
+    /**
+     * Linking rule, to compare locally consistent and non locally consistent
+     * rules, and plain and Verlet list based euclidean distances.
+     */
+    @Param({ "EUCLIDEAN", "CLOSEST_N", "VERLET" })
+    private Scenarios.Linking linking;
+
+    /**
+     * Spatial index of the environment.
+     */
+    @Param({ "QUADTREE", "CELL_LIST" })
+    private Scenarios.Index index;
+
+    /**
+     * Maximum displacement per movement, as a fraction of the linking radius.
+     */
+    @Param({ "0.1" })
+    private double step;
+
+    private Environment<Integer> env;
+    private List<Node<Integer>> nodeList;
+    private RandomGenerator rng;
+    private double side;
+
+    /**
+     * Builds the scenario.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        rng = new MersenneTwister(0);
+        env = Scenarios.build(nodes, density, Scenarios.ReactionMix.DIRAC, linking, index, 0);
+        nodeList = new ArrayList<>(env.getNodes());
+        side = Scenarios.side(nodes, density);
+    }
+
+    private double move(final double coordinate) {
+        final double result = coordinate + (rng.nextDouble() - 0.5) * 2 * step * Scenarios.RADIUS;
+        return Math.max(0, Math.min(side, result));
+    }
+
+    /**
+     * Moves a random node by a small amount, forcing the recomputation of its
+     * neighborhood.
+     *
+     * @return the environment
+     */
+    @Benchmark
+    public Environment<Integer> updateNeighborhood() {
+        final Node<Integer> node = nodeList.get(rng.nextInt(nodeList.size()));
+        final Position current = env.getPosition(node);
+        env.moveNodeToPosition(node, env.makePosition(move(current.getCoordinate(0)), move(current.getCoordinate(1))));
+        return env;
+    }
+
+    /**
+     * Retrieves the nodes within the linking radius of a random point. Points
+     * are not reused, so that the query cache of the environment does not
+     * hide the cost of the index.
+     *
+     * @return the nodes found
+     */
+    @Benchmark
+    public ListSet<Node<Integer>> queryRange() {
+        final Position center = env.makePosition(rng.nextDouble() * side, rng.nextDouble() * side);
+        return env.getNodesWithinRange(center, Scenarios.RADIUS);
+    }
+
+    /**
+     * Moves every node by a small amount, one at a time, as a synchronous
+     * crowd model would do without batching.
+     *
+     * @return the environment
+     */
+    @Benchmark
+    public Environment<Integer> moveAllSequentially() {
+        for (final Map.Entry<Node<Integer>, Position> move : nextPositions().entrySet()) {
+            env.moveNodeToPosition(move.getKey(), move.getValue());
+        }
+        return env;
+    }
+
+    /**
+     * Moves every node by a small amount in a single batch (see
+     * {@link Environment#moveNodes(Map)}).
+     *
+     * @return the environment
+     */
+    @Benchmark
+    public Environment<Integer> moveAllBatched() {
+        env.moveNodes(nextPositions());
+        return env;
+    }
+
+    private Map<Node<Integer>, Position> nextPositions() {
+        final Map<Node<Integer>, Position> positions = new LinkedHashMap<>(nodeList.size() * 2);
+        for (final Node<Integer> node : nodeList) {
+            final Position current = env.getPosition(node);
+            positions.put(node, env.makePosition(move(current.getCoordinate(0)), move(current.getCoordinate(1))));
+        }
+        return positions;
+    }
+
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.benchmarks;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import it.unibo.alchemist.core.implementations.DependencyHandlerImpl;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Measures the basic operations of the {@link ReactionManager}
+ * implementations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ReactionManagerBenchmark {
+
+    /**
+     * Number of nodes.
+     */
+    @Param({ "1000", "100000" })
+    private int nodes;
+
+    /**
+     * Reactions installed on each node.
+     */
+    @Param({ "DIRAC", "EXPONENTIAL", "MIXED" })
+    private Scenarios.ReactionMix mix;
+
+    /**
+     * The implementation under test.
+     */
+    @Param({ "ARRAY", "PRIMITIVE", "BUCKET" })
+    private Scenarios.Scheduler scheduler;
+
+    private Environment<Integer> env;
+    private List<DependencyHandler<Integer>> reactions;
+    private List<DependencyHandler<Integer>> spare;
+    private Map<Reaction<Integer>, DependencyHandler<Integer>> byReaction;
+    private ReactionManager<Integer> manager;
+    private RandomGenerator rng;
+    private Time now = DoubleTime.ZERO_TIME;
+
+    /**
+     * Builds the scenario and fills the queue.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        rng = new MersenneTwister(0);
+        env = Scenarios.build(nodes, 0, mix, Scenarios.Linking.EUCLIDEAN, 0);
+        reactions = new ArrayList<>();
+        spare = new ArrayList<>();
+        byReaction = new LinkedHashMap<>();
+        for (final Node<Integer> n : env) {
+            for (final Reaction<Integer> r : n) {
+                r.initializationComplete(now, env);
+                r.update(now, true, env);
+                final DependencyHandler<Integer> rh = new DependencyHandlerImpl<>(r);
+                reactions.add(rh);
+                spare.add(new DependencyHandlerImpl<>(r));
+                byReaction.put(r, rh);
+            }
+        }
+        manager = fill(reactions);
+    }
+
+    private ReactionManager<Integer> fill(final List<DependencyHandler<Integer>> handlers) {
+        final ReactionManager<Integer> result = scheduler.build();
+        for (final DependencyHandler<Integer> rh : handlers) {
+            rh.setQueueIndex(-1);
+            result.addReaction(rh);
+        }
+        return result;
+    }
+
+    private DependencyHandler<Integer> randomReaction() {
+        return reactions.get(rng.nextInt(reactions.size()));
+    }
+
+    /**
+     * @return a freshly built queue containing all the reactions
+     */
+    @Benchmark
+    public ReactionManager<Integer> addAll() {
+        return fill(spare);
+    }
+
+    /**
+     * Simulates what the engine does after the execution of the next
+     * reaction.
+     *
+     * @return the queue
+     */
+    @Benchmark
+    public ReactionManager<Integer> updateNext() {
+        final Reaction<Integer> next = manager.getNext();
+        now = next.getTau();
+        next.update(now, true, env);
+        manager.updateReaction(byReaction.get(next));
+        return manager;
+    }
+
+    /**
+     * Simulates a dependency-driven update of a random reaction.
+     *
+     * @return the queue
+     */
+    @Benchmark
+    public ReactionManager<Integer> updateRandom() {
+        final DependencyHandler<Integer> rh = randomReaction();
+        rh.getReaction().update(now, true, env);
+        manager.updateReaction(rh);
+        return manager;
+    }
+
+    /**
+     * Removes and re-inserts a random reaction.
+     *
+     * @return the queue
+     */
+    @Benchmark
+    public ReactionManager<Integer> removeAndAdd() {
+        final DependencyHandler<Integer> rh = randomReaction();
+        manager.removeReaction(rh);
+        manager.addReaction(rh);
+        return manager;
+    }
+
+}
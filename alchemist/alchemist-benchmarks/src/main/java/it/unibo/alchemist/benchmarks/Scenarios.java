@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.benchmarks;
+
+import java.util.Collections;
+import java.util.Map;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.util.FastMath;
+import org.danilopianini.util.FlexibleQuadTree;
+import org.danilopianini.util.SpatialIndex;
+
+import it.unibo.alchemist.core.implementations.ArrayIndexedPriorityQueue;
+import it.unibo.alchemist.core.implementations.IntIndexedDependencyGraph;
+import it.unibo.alchemist.core.implementations.MapBasedDependencyGraph;
+import it.unibo.alchemist.core.implementations.PrimitiveIndexedPriorityQueue;
+import it.unibo.alchemist.core.implementations.TimeBucketQueue;
+import it.unibo.alchemist.core.interfaces.DependencyGraph;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.implementations.actions.BrownianMove;
+import it.unibo.alchemist.model.implementations.actions.SetLocalMoleculeConcentration;
+import it.unibo.alchemist.model.implementations.conditions.AbstractCondition;
+import it.unibo.alchemist.model.implementations.conditions.MoleculeHasConcentration;
+import it.unibo.alchemist.model.implementations.environments.CellListIndex;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.ClosestN;
+import it.unibo.alchemist.model.implementations.linkingrules.EuclideanDistance;
+import it.unibo.alchemist.model.implementations.linkingrules.VerletEuclideanDistance;
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+import it.unibo.alchemist.model.implementations.nodes.IntNode;
+import it.unibo.alchemist.model.implementations.reactions.ChemicalReaction;
+import it.unibo.alchemist.model.implementations.reactions.Event;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.implementations.timedistributions.ExponentialTime;
+import it.unibo.alchemist.model.interfaces.Action;
+import it.unibo.alchemist.model.interfaces.Condition;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.LinkingRule;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.TimeDistribution;
+
+/**
+ * Utility class that builds synthetic, reproducible scenarios for the
+ * benchmarks. Nodes are uniformly scattered in a square whose side is chosen
+ * so that, with a connection radius of {@link #RADIUS}, each node has on
+ * average the requested number of neighbors.
+ */
+public final class Scenarios {
+
+    /**
+     * Connection radius used by the linking rules.
+     */
+    public static final double RADIUS = 1;
+    /**
+     * The molecule written by the "producer" reactions.
+     */
+    public static final Molecule SOURCE = new SimpleMolecule("source");
+    /**
+     * The molecule written by the "consumer" reactions.
+     */
+    public static final Molecule RESULT = new SimpleMolecule("result");
+    private static final double DIRAC_RATE = 1;
+    private static final double MARKOVIAN_RATE = 1;
+    private static final double STEP = RADIUS / 10;
+
+    private Scenarios() {
+    }
+
+    /**
+     * The linking rules that can be used in a scenario.
+     */
+    public enum Linking {
+        /**
+         * {@link EuclideanDistance}, which is locally consistent.
+         */
+        EUCLIDEAN,
+        /**
+         * {@link ClosestN}, which is not locally consistent.
+         */
+        CLOSEST_N,
+        /**
+         * {@link VerletEuclideanDistance}, with a skin of half the radius.
+         */
+        VERLET;
+
+        private LinkingRule<Integer> build(final int nodes, final int density) {
+            switch (this) {
+            case EUCLIDEAN:
+                return new EuclideanDistance<>(RADIUS);
+            case CLOSEST_N:
+                return new ClosestN<>(density, nodes);
+            default:
+                return new VerletEuclideanDistance<>(RADIUS, RADIUS / 2);
+            }
+        }
+    }
+
+    /**
+     * The available {@link ReactionManager} implementations.
+     */
+    public enum Scheduler {
+        /**
+         * {@link ArrayIndexedPriorityQueue}.
+         */
+        ARRAY,
+        /**
+         * {@link PrimitiveIndexedPriorityQueue}.
+         */
+        PRIMITIVE,
+        /**
+         * {@link TimeBucketQueue}.
+         */
+        BUCKET;
+
+        /**
+         * @param <T>
+         *            concentration type
+         * @return a new, empty {@link ReactionManager}
+         */
+        public <T> ReactionManager<T> build() {
+            switch (this) {
+            case ARRAY:
+                return new ArrayIndexedPriorityQueue<>();
+            case PRIMITIVE:
+                return new PrimitiveIndexedPriorityQueue<>();
+            default:
+                return new TimeBucketQueue<>();
+            }
+        }
+    }
+
+    /**
+     * The {@link SpatialIndex} implementations under test.
+     */
+    public enum Index {
+        /**
+         * {@link FlexibleQuadTree}, the default.
+         */
+        QUADTREE,
+        /**
+         * {@link CellListIndex}, with cells as large as the linking radius.
+         */
+        CELL_LIST;
+
+        private SpatialIndex<Node<Integer>> build() {
+            return this == QUADTREE ? new FlexibleQuadTree<>() : new CellListIndex<>(RADIUS);
+        }
+    }
+
+    /**
+     * The {@link DependencyGraph} implementations under test.
+     */
+    public enum Graph {
+        /**
+         * {@link MapBasedDependencyGraph}.
+         */
+        MAP,
+        /**
+         * {@link IntIndexedDependencyGraph}.
+         */
+        INDEXED;
+
+        /**
+         * @param env
+         *            the environment
+         * @param handlers
+         *            the map of the handlers, shared with the caller. Only
+         *            used by {@link MapBasedDependencyGraph}
+         * @param <T>
+         *            concentration type
+         * @return a new, empty {@link DependencyGraph}
+         */
+        public <T> DependencyGraph<T> build(final Environment<T> env, final Map<Reaction<T>, DependencyHandler<T>> handlers) {
+            return this == MAP ? new MapBasedDependencyGraph<>(env, handlers) : new IntIndexedDependencyGraph<>(env);
+        }
+    }
+
+    /**
+     * The reactions that are installed on every node.
+     */
+    public enum ReactionMix {
+        /**
+         * A single {@link DiracComb}-driven local reaction per node.
+         */
+        DIRAC,
+        /**
+         * A local producer and a local consumer per node, both Markovian.
+         */
+        EXPONENTIAL,
+        /**
+         * A {@link DiracComb}-driven producer and a consumer reading the
+         * neighborhood.
+         */
+        NEIGHBORHOOD,
+        /**
+         * All of the above.
+         */
+        MIXED,
+        /**
+         * Same as {@link #NEIGHBORHOOD}, plus a Markovian random walk on
+         * each node, which keeps the neighborhoods changing.
+         */
+        MOBILE;
+
+        private void install(final Environment<Integer> env, final Node<Integer> node, final RandomGenerator rng) {
+            if (this == DIRAC || this == NEIGHBORHOOD || this == MIXED) {
+                node.addReaction(producer(node, new DiracComb<>(DIRAC_RATE)));
+            }
+            if (this == EXPONENTIAL || this == MIXED) {
+                node.addReaction(producer(node, new ExponentialTime<>(MARKOVIAN_RATE, rng)));
+                node.addReaction(consumer(node, new ExponentialTime<>(MARKOVIAN_RATE, rng),
+                        new MoleculeHasConcentration<>(node, SOURCE, 1)));
+            }
+            if (this == NEIGHBORHOOD || this == MIXED || this == MOBILE) {
+                node.addReaction(consumer(node, new DiracComb<>(DIRAC_RATE), new NeighborHasMolecule(env, node, SOURCE)));
+            }
+            if (this == MOBILE) {
+                node.addReaction(producer(node, new DiracComb<>(DIRAC_RATE)));
+                final Reaction<Integer> move = new ChemicalReaction<>(node, new ExponentialTime<>(MARKOVIAN_RATE, rng));
+                move.setConditions(Collections.<Condition<Integer>>emptyList());
+                move.setActions(Collections.<Action<Integer>>singletonList(new BrownianMove<>(env, node, rng, STEP)));
+                node.addReaction(move);
+            }
+        }
+    }
+
+    /**
+     * Builds a new scenario. No simulation is attached to the returned
+     * environment.
+     *
+     * @param nodes
+     *            the number of nodes
+     * @param density
+     *            the average number of neighbors per node
+     * @param mix
+     *            the reactions to install on each node
+     * @param linking
+     *            the linking rule
+     * @param seed
+     *            the seed for the random generator
+     * @return the environment, indexed with a {@link FlexibleQuadTree}
+     */
+    public static Environment<Integer> build(
+            final int nodes,
+            final int density,
+            final ReactionMix mix,
+            final Linking linking,
+            final long seed) {
+        return build(nodes, density, mix, linking, Index.QUADTREE, seed);
+    }
+
+    /**
+     * Builds a new scenario. No simulation is attached to the returned
+     * environment.
+     *
+     * @param nodes
+     *            the number of nodes
+     * @param density
+     *            the average number of neighbors per node
+     * @param mix
+     *            the reactions to install on each node
+     * @param linking
+     *            the linking rule
+     * @param index
+     *            the spatial index of the environment
+     * @param seed
+     *            the seed for the random generator
+     * @return the environment
+     */
+    public static Environment<Integer> build(
+            final int nodes,
+            final int density,
+            final ReactionMix mix,
+            final Linking linking,
+            final Index index,
+            final long seed) {
+        final RandomGenerator rng = new MersenneTwister(seed);
+        final Environment<Integer> env = new Continuous2DEnvironment<>(index.build());
+        env.setLinkingRule(linking.build(nodes, density));
+        final double side = side(nodes, density);
+        for (int i = 0; i < nodes; i++) {
+            final Node<Integer> node = new IntNode(env);
+            mix.install(env, node, rng);
+            env.addNode(node, env.makePosition(rng.nextDouble() * side, rng.nextDouble() * side));
+        }
+        return env;
+    }
+
+    /**
+     * @param nodes
+     *            the number of nodes
+     * @param density
+     *            the average number of neighbors per node
+     * @return the side of the square in which the nodes are deployed
+     */
+    public static double side(final int nodes, final int density) {
+        return FastMath.sqrt(nodes * FastMath.PI * RADIUS * RADIUS / Math.max(1, density));
+    }
+
+    private static Reaction<Integer> producer(final Node<Integer> node, final TimeDistribution<Integer> td) {
+        final Reaction<Integer> r = td instanceof DiracComb ? new Event<>(node, td) : new ChemicalReaction<>(node, td);
+        r.setConditions(Collections.<Condition<Integer>>emptyList());
+        r.setActions(Collections.<Action<Integer>>singletonList(new SetLocalMoleculeConcentration<>(node, SOURCE, 1)));
+        return r;
+    }
+
+    private static Reaction<Integer> consumer(final Node<Integer> node, final TimeDistribution<Integer> td, final Condition<Integer> c) {
+        final Reaction<Integer> r = new ChemicalReaction<>(node, td);
+        r.setConditions(Collections.singletonList(c));
+        r.setActions(Collections.<Action<Integer>>singletonList(new SetLocalMoleculeConcentration<>(node, RESULT, 1)));
+        return r;
+    }
+
+    /**
+     * A condition which is valid if at least one neighbor contains a molecule.
+     */
+    private static final class NeighborHasMolecule extends AbstractCondition<Integer> {
+
+        private static final long serialVersionUID = 1L;
+        private final Environment<Integer> env;
+        private final Molecule mol;
+
+        NeighborHasMolecule(final Environment<Integer> env, final Node<Integer> node, final Molecule mol) {
+            super(node);
+            this.env = env;
+            this.mol = mol;
+            addReadMolecule(mol);
+        }
+
+        @Override
+        public Context getContext() {
+            return Context.NEIGHBORHOOD;
+        }
+
+        @Override
+        public double getPropensityConditioning() {
+            return isValid() ? 1 : 0;
+        }
+
+        @Override
+        public boolean isPositionDependent() {
+            return false;
+        }
+
+        @Override
+        public boolean isValid() {
+            for (final Node<Integer> n : env.getNeighborhood(getNode())) {
+                if (n.contains(mol)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+}
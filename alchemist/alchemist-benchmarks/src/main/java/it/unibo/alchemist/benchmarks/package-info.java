@@ -0,0 +1,5 @@
+/**
+ * JMH benchmarks for the hot paths of the simulation engine and of the
+ * environments, along with the synthetic scenarios they run on.
+ */
+package it.unibo.alchemist.benchmarks;
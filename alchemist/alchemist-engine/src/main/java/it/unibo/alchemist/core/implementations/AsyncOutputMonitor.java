@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.boundary.interfaces.Sampling;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Runs an {@link OutputMonitor} on a thread of its own. At each sampling
+ * point of the wrapped monitor (see {@link OutputMonitor#getSampling()}), an
+ * {@link EnvironmentSnapshot} is taken on the simulation thread and queued;
+ * the simulation then proceeds while the monitor consumes the snapshot. The
+ * queue is bounded: if the monitor falls behind, the simulation blocks until
+ * there is room again. {@link #finished(Environment, Time, long)} waits for
+ * the monitor to process every pending snapshot, so e.g. exports are complete
+ * when the simulation terminates.
+ *
+ * Only fit for monitors that access the simulation through the
+ * {@link Environment} they receive, and do not rely on wall clock time nor on
+ * environment specific interfaces. The executed reaction is not passed on,
+ * since it keeps changing while the monitor runs: the wrapped monitor
+ * receives null instead. If the wrapped monitor throws, the
+ * exception is rethrown on the simulation thread at the next sampling point,
+ * and the following snapshots are discarded.
+ *
+ * @param <T>
+ */
+public final class AsyncOutputMonitor<T> implements OutputMonitor<T> {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger L = LoggerFactory.getLogger(AsyncOutputMonitor.class);
+    private static final Runnable STOP = () -> { };
+    private final OutputMonitor<T> monitor;
+    private final int capacity;
+    private transient BlockingQueue<Runnable> queue;
+    private transient Thread worker;
+    private transient volatile RuntimeException failure;
+
+    /**
+     * @param monitor
+     *            the monitor to run asynchronously
+     * @param capacity
+     *            the maximum number of snapshots waiting to be processed
+     */
+    public AsyncOutputMonitor(final OutputMonitor<T> monitor, final int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be positive, " + capacity + " was provided.");
+        }
+        this.monitor = Objects.requireNonNull(monitor);
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void initialized(final Environment<T> env) {
+        final Environment<T> snapshot = new EnvironmentSnapshot<>(env);
+        enqueue(() -> monitor.initialized(snapshot));
+    }
+
+    @Override
+    public void stepDone(final Environment<T> env, final Reaction<T> r, final Time time, final long step) {
+        final Environment<T> snapshot = new EnvironmentSnapshot<>(env);
+        enqueue(() -> monitor.stepDone(snapshot, null, time, step));
+    }
+
+    /**
+     * Waits for every pending snapshot to be processed. Failures of the
+     * wrapped monitor are logged rather than rethrown, so that the other
+     * monitors get notified anyway.
+     */
+    @Override
+    public void finished(final Environment<T> env, final Time time, final long step) {
+        if (failure == null) {
+            final Environment<T> snapshot = new EnvironmentSnapshot<>(env);
+            enqueue(() -> monitor.finished(snapshot, time, step));
+        }
+        if (worker != null) {
+            put(STOP);
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                L.warn("Interrupted while waiting for {} to finish", monitor);
+                Thread.currentThread().interrupt();
+            }
+            worker = null;
+        }
+        if (failure != null) {
+            L.error("{} did not complete", monitor, failure);
+        }
+    }
+
+    @Override
+    public Sampling getSampling() {
+        return monitor.getSampling();
+    }
+
+    /**
+     * @return the wrapped monitor
+     */
+    public OutputMonitor<T> getMonitor() {
+        return monitor;
+    }
+
+    private void consume() {
+        while (true) {
+            final Runnable task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (task == STOP) {
+                return;
+            }
+            /*
+             * After a failure, keep draining, so that the simulation thread
+             * never blocks
+             */
+            if (failure == null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) { // NOPMD: the error must be reported to the simulation thread
+                    L.error("{} failed", monitor, e);
+                    failure = e;
+                }
+            }
+        }
+    }
+
+    private void enqueue(final Runnable task) {
+        final RuntimeException e = failure;
+        if (e != null) {
+            throw new IllegalStateException(monitor + " failed", e);
+        }
+        if (worker == null) {
+            /*
+             * Started lazily, the monitor might be added to a running simulation
+             */
+            queue = new ArrayBlockingQueue<>(capacity);
+            worker = new Thread(this::consume, "Async " + monitor);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        put(task);
+    }
+
+    private void put(final Runnable task) {
+        try {
+            queue.put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + monitor, e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Async(" + monitor + ")";
+    }
+
+}
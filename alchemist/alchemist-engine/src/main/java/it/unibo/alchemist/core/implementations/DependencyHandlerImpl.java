@@ -13,7 +13,6 @@ import it.unibo.alchemist.model.interfaces.Reaction;
 
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -25,11 +24,11 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class DependencyHandlerImpl<T> implements DependencyHandler<T> {
 
     private static final long serialVersionUID = 3442635555170492280L;
-    private static final AtomicInteger SINGLETON = new AtomicInteger();
-    private final int id = SINGLETON.getAndIncrement();
     private final Reaction<T> reaction;
     private List<DependencyHandler<T>> indeps = new LinkedList<>();
     private List<DependencyHandler<T>> outdeps = new LinkedList<>();
+    private int graphIndex = -1;
+    private int queueIndex = -1;
 
     /**
      * Builds a new ReactionHandler<T> given a reaction. This ReactionHandler<T>
@@ -63,6 +62,16 @@ public class DependencyHandlerImpl<T> implements DependencyHandler<T> {
         return indeps;
     }
 
+    @Override
+    public int getGraphIndex() {
+        return graphIndex;
+    }
+
+    @Override
+    public int getQueueIndex() {
+        return queueIndex;
+    }
+
     @Override
     public Reaction<T> getReaction() {
         return reaction;
@@ -98,6 +107,16 @@ public class DependencyHandlerImpl<T> implements DependencyHandler<T> {
         outdeps = dep;
     }
 
+    @Override
+    public void setGraphIndex(final int index) {
+        graphIndex = index;
+    }
+
+    @Override
+    public void setQueueIndex(final int index) {
+        queueIndex = index;
+    }
+
     @Override
     public String toString() {
         return "Handling: " + reaction.toString();
@@ -105,15 +124,16 @@ public class DependencyHandlerImpl<T> implements DependencyHandler<T> {
 
     @Override
     public boolean equals(final Object o) {
-        if (o instanceof DependencyHandlerImpl<?>) {
-            return id == o.hashCode();
-        }
-        return false;
+        return this == o;
     }
 
+    /**
+     * Delegates to the handled reaction, rather than to a global counter, so
+     * that simulations running in parallel do not contend on it.
+     */
     @Override
     public int hashCode() {
-        return id;
+        return reaction.hashCode();
     }
 
 }
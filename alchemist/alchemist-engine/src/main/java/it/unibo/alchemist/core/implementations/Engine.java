@@ -9,15 +9,19 @@
 package it.unibo.alchemist.core.implementations;
 
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -28,6 +32,7 @@ import org.jooq.lambda.fi.lang.CheckedRunnable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
 import it.unibo.alchemist.core.interfaces.DependencyGraph;
 import it.unibo.alchemist.core.interfaces.DependencyHandler;
@@ -35,6 +40,7 @@ import it.unibo.alchemist.core.interfaces.ReactionManager;
 import it.unibo.alchemist.core.interfaces.Simulation;
 import it.unibo.alchemist.core.interfaces.Status;
 import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.ConcurrentRandomGenerator;
 import it.unibo.alchemist.model.interfaces.Context;
 import it.unibo.alchemist.model.interfaces.Environment;
 import it.unibo.alchemist.model.interfaces.Neighborhood;
@@ -63,18 +69,31 @@ public class Engine<T> implements Simulation<T> {
     private final Time finalTime;
     private final FastReadWriteLock monitorLock = new FastReadWriteLock();
     private final List<OutputMonitor<T>> monitors = new LinkedList<OutputMonitor<T>>();
+    private final MonitorSchedule<T> monitorSchedule = new MonitorSchedule<>();
     private final long steps;
     private Optional<Throwable> error = Optional.empty();
     private Time currentTime = DoubleTime.ZERO_TIME;
     private Reaction<T> mu;
     private long curStep;
+    private boolean coalescing;
+    private boolean collecting;
+    private final Set<DependencyHandler<T>> dirty = new LinkedHashSet<>();
+    private final Set<DependencyHandler<T>> globalInput = new LinkedHashSet<>();
+    private ConcurrentRandomGenerator rng;
+    private boolean headless;
+    private boolean stopped;
+    /*
+     * Negative if condition memoization is disabled
+     */
+    private final AtomicLong version = new AtomicLong(-1);
 
 
     /**
      * Builds a simulation for a given environment. By default it uses a
-     * DependencyGraph and an IndexedPriorityQueue internally. If you want to
-     * use your own implementations of {@link DependencyGraph} and
-     * {@link ReactionManager} interfaces, don't use this constructor.
+     * {@link MapBasedDependencyGraph} and an {@link ArrayIndexedPriorityQueue}
+     * internally. If you want to use your own implementations of
+     * {@link DependencyGraph} and {@link ReactionManager} interfaces, don't
+     * use this constructor.
      * 
      * @param e
      *            the environment at the initial time
@@ -87,9 +106,10 @@ public class Engine<T> implements Simulation<T> {
 
     /**
      * Builds a simulation for a given environment. By default it uses a
-     * DependencyGraph and an IndexedPriorityQueue internally. If you want to
-     * use your own implementations of {@link DependencyGraph} and
-     * {@link ReactionManager} interfaces, don't use this constructor.
+     * {@link MapBasedDependencyGraph} and an {@link ArrayIndexedPriorityQueue}
+     * internally. If you want to use your own implementations of
+     * {@link DependencyGraph} and {@link ReactionManager} interfaces, don't
+     * use this constructor.
      * 
      * @param e
      *            the environment at the initial time
@@ -99,20 +119,67 @@ public class Engine<T> implements Simulation<T> {
      *            the maximum time to reach
      */
     public Engine(final Environment<T> e, final long maxSteps, final Time t) {
+        this(e, maxSteps, t, null);
+    }
+
+    /**
+     * Builds a simulation for a given environment, using the provided
+     * {@link ReactionManager} for scheduling the reactions. For large
+     * simulations, consider using a {@link PrimitiveIndexedPriorityQueue},
+     * or a {@link TimeBucketQueue} if most of the reactions are periodic.
+     * Reactions scheduled at the same time may be executed in a different
+     * order than with the default {@link ArrayIndexedPriorityQueue}, so
+     * seeded runs follow different trajectories.
+     * 
+     * @param e
+     *            the environment at the initial time
+     * @param maxSteps
+     *            the maximum number of steps to do
+     * @param t
+     *            the maximum time to reach
+     * @param scheduler
+     *            the {@link ReactionManager} to use. It must be empty. If
+     *            null, an {@link ArrayIndexedPriorityQueue} will be used.
+     */
+    public Engine(final Environment<T> e, final long maxSteps, final Time t, final ReactionManager<T> scheduler) {
+        this(e, maxSteps, t, scheduler, null);
+    }
+
+    /**
+     * Builds a simulation for a given environment, using the provided
+     * {@link ReactionManager} and {@link DependencyGraph}. For large
+     * simulations, consider using an {@link IntIndexedDependencyGraph}.
+     * 
+     * @param e
+     *            the environment at the initial time
+     * @param maxSteps
+     *            the maximum number of steps to do
+     * @param t
+     *            the maximum time to reach
+     * @param scheduler
+     *            the {@link ReactionManager} to use. It must be empty. If
+     *            null, an {@link ArrayIndexedPriorityQueue} will be used.
+     * @param graph
+     *            the {@link DependencyGraph} to use. It must be empty and
+     *            built on the same environment. If null, a
+     *            {@link MapBasedDependencyGraph} will be used.
+     */
+    public Engine(final Environment<T> e, final long maxSteps, final Time t, final ReactionManager<T> scheduler, final DependencyGraph<T> graph) {
         L.trace("Engine created");
         env = e;
         env.setSimulation(this);
-        dg = new MapBasedDependencyGraph<T>(env, handlers);
-        ipq = new ArrayIndexedPriorityQueue<>();
+        dg = graph == null ? new MapBasedDependencyGraph<T>(env, handlers) : graph;
+        ipq = scheduler == null ? new ArrayIndexedPriorityQueue<>() : scheduler;
         this.steps = maxSteps;
         this.finalTime = t;
     }
 
     /**
      * Builds a simulation for a given environment. By default it uses a
-     * DependencyGraph and an IndexedPriorityQueue internally. If you want to
-     * use your own implementations of {@link DependencyGraph} and
-     * {@link ReactionManager} interfaces, don't use this constructor.
+     * {@link MapBasedDependencyGraph} and an {@link ArrayIndexedPriorityQueue}
+     * internally. If you want to use your own implementations of
+     * {@link DependencyGraph} and {@link ReactionManager} interfaces, don't
+     * use this constructor.
      * 
      * @param e
      *            the environment at the initial time
@@ -127,11 +194,12 @@ public class Engine<T> implements Simulation<T> {
     public void addOutputMonitor(final OutputMonitor<T> op) {
             monitorLock.write();
             monitors.add(op);
+            monitorSchedule.add(op, curStep, currentTime);
             monitorLock.release();
     }
 
     private void checkCaller() {
-        if (!Thread.holdsLock(env)) {
+        if (!headless && !Thread.holdsLock(env)) {
             throw new IllegalMonitorStateException("This method must get called from the simulation thread.");
         }
     }
@@ -144,46 +212,186 @@ public class Engine<T> implements Simulation<T> {
         }
     }
 
-    private void doStep() throws InterruptedException, ExecutionException {
+    /**
+     * Executes a single simulation step. This is the hook subclasses override
+     * to change how the reactions get executed; they may also call it to
+     * drive the engine step by step, without the command queue and the status
+     * machinery of {@link #run()}, after {@link #finalizeConstructor()}. Must
+     * be called while holding the environment lock.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     * @throws ExecutionException
+     *             if the step fails
+     */
+    protected void doStep() throws InterruptedException, ExecutionException {
+        executeNext();
+    }
+
+    private void executeNext() {
         final Reaction<T> root = ipq.getNext();
         if (root == null) {
-            this.newStatus(Status.TERMINATED);
+            stop();
             L.info("No more reactions.");
         } else {
-            mu = root;
-            final Time t = mu.getTau();
-            if (t.compareTo(currentTime) < 0) {
-                throw new IllegalStateException(mu + "\nis scheduled in the past at time " + t + ", current time is " + currentTime
-                        + "\nProblem occurred at step " + curStep);
-            }
-            currentTime = t;
+            advanceTo(root);
+            final DependencyHandler<T> muHandler = handlers.get(mu);
             if (mu.canExecute()) {
                 /*
                  * This must be taken before execution, because the reaction
                  * might remove itself (or its node) from the environment.
                  */
-                final List<DependencyHandler<T>> deps = handlers.get(mu).influences();
-                mu.execute();
-                for (final DependencyHandler<T> r : deps) {
-                    updateReaction(r);
+                if (!mu.getOutputContext().equals(Context.LOCAL)) {
+                    env.refreshNeighborhoods();
                 }
+                final List<DependencyHandler<T>> deps = muHandler.influences();
+                collecting = coalescing;
+                try {
+                    mu.execute();
+                    environmentChanged();
+                    refreshNeighborhoods(mu, deps);
+                    for (final DependencyHandler<T> r : deps) {
+                        updateReaction(r);
+                    }
+                } finally {
+                    collecting = false;
+                }
+                for (final DependencyHandler<T> r : dirty) {
+                    doUpdateReaction(r);
+                }
+                dirty.clear();
             }
             mu.update(currentTime, true, env);
-            ipq.updateReaction(root);
-            monitorLock.read();
-            for (final OutputMonitor<T> m : monitors) {
-                m.stepDone(env, mu, currentTime, curStep);
+            ipq.updateReaction(muHandler);
+            stepDone();
+        }
+        checkTermination();
+        curStep++;
+    }
+
+    /**
+     * Wraps a task executing reactions concurrently, making it draw from the
+     * shared stream of the random generator set with
+     * {@link #setRandomGenerator(ConcurrentRandomGenerator)}, under a lock.
+     *
+     * @param task
+     *            the task
+     * @param <R>
+     *            the result type
+     * @return the wrapped task, or the task itself if no generator was set
+     */
+    protected final <R> Callable<R> sharingRandomGenerators(final Callable<R> task) {
+        final ConcurrentRandomGenerator shared = rng;
+        if (shared == null) {
+            return task;
+        }
+        return () -> {
+            shared.use(ConcurrentRandomGenerator.SHARED);
+            try {
+                return task.call();
+            } finally {
+                shared.release();
             }
-            monitorLock.release();
+        };
+    }
+
+    private void stop() {
+        if (headless) {
+            stopped = true;
+        } else {
+            newStatus(Status.TERMINATED);
         }
+    }
+
+    private void stepDone() {
+        monitorLock.read();
+        monitorSchedule.stepDone(env, mu, currentTime, curStep);
+        monitorLock.release();
+    }
+
+    private void checkTermination() {
         if (env.isTerminated()) {
-            newStatus(Status.TERMINATED);
+            stop();
             L.info("Termination condition reached.");
         }
-        curStep++;
     }
 
-    private void finalizeConstructor() {
+    /**
+     * Accounts for steps executed outside {@link #doStep()}, e.g. by
+     * subclasses executing reactions concurrently, without notifying the
+     * output monitors.
+     *
+     * @param count
+     *            the number of executed steps
+     */
+    protected final void stepsDone(final long count) {
+        curStep += count;
+    }
+
+    /**
+     * Completes a step: notifies the output monitors of the current reaction
+     * and time, checks the termination conditions, and accounts for the
+     * executed steps.
+     *
+     * @param count
+     *            the number of reactions the step was made of
+     */
+    protected final void commitStep(final long count) {
+        stepDone();
+        checkTermination();
+        curStep += count;
+    }
+
+    /**
+     * Makes the provided reaction the current one, and advances the
+     * simulation time to its putative time.
+     *
+     * @param next
+     *            the reaction being executed or committed
+     * @throws IllegalStateException
+     *             if the reaction is scheduled before the current time
+     */
+    protected final void advanceTo(final Reaction<T> next) {
+        final double t = next.getTauAsDouble();
+        if (t < currentTime.toDouble()) {
+            throw new IllegalStateException(next + "\nis scheduled in the past at time " + t + ", current time is " + currentTime
+                    + "\nProblem occurred at step " + curStep);
+        }
+        mu = next;
+        currentTime = next.getTau();
+    }
+
+    /**
+     * @param r
+     *            a reaction of the simulation
+     * @return its dependency handler, or null if the reaction is not
+     *         scheduled
+     */
+    protected final DependencyHandler<T> getHandler(final Reaction<T> r) {
+        return handlers.get(r);
+    }
+
+    /**
+     * Puts back in the {@link ReactionManager} a reaction that was taken out
+     * of it to get executed, after updating it as executed at the current
+     * time. Any pending update of the reaction is discarded.
+     *
+     * @param rh
+     *            the executed reaction
+     */
+    protected final void reschedule(final DependencyHandler<T> rh) {
+        rh.getReaction().update(currentTime, true, env);
+        dirty.remove(rh);
+        ipq.addReaction(rh);
+    }
+
+    /**
+     * Schedules all the reactions of the environment. Called by
+     * {@link #run()}: subclasses driving the engine through
+     * {@link #doStep()} must call it once, before the first step, while
+     * holding the environment lock.
+     */
+    protected void finalizeConstructor() {
         for (final Node<T> n : env.getNodes()) {
             for (final Reaction<T> r : n.getReactions()) {
                 scheduleReaction(r);
@@ -267,6 +475,7 @@ public class Engine<T> implements Simulation<T> {
     @Override
     public void neighborAdded(final Node<T> node, final Node<T> n) {
         checkCaller();
+        environmentChanged();
         dg.addNeighbor(node, n);
         updateNeighborhood(node);
         /*
@@ -278,6 +487,7 @@ public class Engine<T> implements Simulation<T> {
     @Override
     public void neighborRemoved(final Node<T> node, final Node<T> n) {
         checkCaller();
+        environmentChanged();
         dg.removeNeighbor(node, n);
         updateNeighborhood(node);
         updateNeighborhood(n);
@@ -287,21 +497,24 @@ public class Engine<T> implements Simulation<T> {
         if (this.compareStatuses(s) > 0) {
             L.error("Attempt to enter in an illegal status: " + s);
         } else {
-            schedule(() -> {
-                statusLock.lock(); 
-                try {
-                    this.status = s;
-                    statusCondition.signalAll();
-                } finally {
-                    statusLock.unlock();
-                }
-            });
+            schedule(() -> setStatus(s));
+        }
+    }
+
+    private void setStatus(final Status s) {
+        statusLock.lock();
+        try {
+            this.status = s;
+            statusCondition.signalAll();
+        } finally {
+            statusLock.unlock();
         }
     }
 
     @Override
     public void nodeAdded(final Node<T> node) {
         checkCaller();
+        environmentChanged();
         if (status != Status.INIT) {
             for (final Reaction<T> r : node.getReactions()) {
                 scheduleReaction(r);
@@ -313,8 +526,11 @@ public class Engine<T> implements Simulation<T> {
     @Override
     public void nodeMoved(final Node<T> node) {
         checkCaller();
+        environmentChanged();
         for (final Reaction<T> r : node.getReactions()) {
-            updateReaction(handlers.get(r));
+            if (r.isPositionDependent()) {
+                updateReaction(handlers.get(r));
+            }
         }
     }
 
@@ -341,19 +557,40 @@ public class Engine<T> implements Simulation<T> {
         new Thread(() -> {
             monitorLock.write();
             monitors.remove(op);
+            monitorSchedule.remove(op);
             monitorLock.release();
         }).start();
     }
 
     private void removeReaction(final Reaction<T> r) {
         final DependencyHandler<T> rh = Objects.requireNonNull(handlers.get(r), "The reaction was not part of the simulation: " + r);
+        if (collecting) {
+            dirty.remove(rh);
+        }
         dg.removeDependencies(rh);
-        ipq.removeReaction(r);
+        unschedule(rh);
         handlers.remove(r);
+        globalInput.remove(rh);
+    }
+
+    /**
+     * Removes from the {@link ReactionManager} a reaction removed from the
+     * environment. Subclasses taking reactions out of the manager while
+     * executing them must override it, since those reactions are not there.
+     *
+     * @param rh
+     *            the removed reaction
+     */
+    protected void unschedule(final DependencyHandler<T> rh) {
+        ipq.removeReaction(rh);
     }
 
     @Override
     public void run() {
+        if (headless) {
+            runHeadless();
+            return;
+        }
         synchronized (env) {
             finalizeConstructor();
             status = Status.READY;
@@ -396,6 +633,36 @@ public class Engine<T> implements Simulation<T> {
         }
     }
 
+    private void runHeadless() {
+        synchronized (env) {
+            finalizeConstructor();
+            setStatus(Status.RUNNING);
+            final long startExecutionTime = System.nanoTime();
+            monitorLock.read();
+            for (final OutputMonitor<T> m : monitors) {
+                m.initialized(env);
+            }
+            monitorLock.release();
+            try {
+                while (!stopped && curStep < steps && currentTime.compareTo(finalTime) < 0) {
+                    doStep();
+                }
+            } catch (Throwable e) { // NOPMD: the error must be reported, whatever it is
+                error = Optional.of(e);
+                L.error("The simulation engine crashed.", e);
+            } finally {
+                L.trace("Headless execution time: {}", (System.nanoTime() - startExecutionTime) / NANOS_TO_SEC);
+                commands.clear();
+                monitorLock.read();
+                for (final OutputMonitor<T> m : monitors) {
+                    m.finished(env, currentTime, curStep);
+                }
+                monitorLock.release();
+                setStatus(Status.TERMINATED);
+            }
+        }
+    }
+
     private void runUntil(final BooleanSupplier condition) {
         play();
         schedule(() -> {
@@ -423,8 +690,11 @@ public class Engine<T> implements Simulation<T> {
         final DependencyHandler<T> rh = new DependencyHandlerImpl<>(r);
         dg.createDependencies(rh);
         r.initializationComplete(currentTime, env);
-        ipq.addReaction(r);
+        ipq.addReaction(rh);
         handlers.put(r, rh);
+        if (r.getInputContext().equals(Context.GLOBAL)) {
+            globalInput.add(rh);
+        }
     }
 
     @Override
@@ -453,11 +723,27 @@ public class Engine<T> implements Simulation<T> {
          * It is possible that some global reaction is changed due to the
          * creation of a new node. Checking.
          */
-        for (final Node<T> n : env) {
-            for (final Reaction<T> r : n.getReactions()) {
-                if (r.getInputContext().equals(Context.GLOBAL)) {
-                    updateReaction(handlers.get(r));
-                }
+        for (final DependencyHandler<T> rh : globalInput) {
+            updateReaction(rh);
+        }
+    }
+
+    /*
+     * Environments may update the neighborhoods lazily, when they are read,
+     * notifying the topology changes to the engine: if the dependencies are
+     * going to read them, they get updated before the iteration starts, as
+     * it would not survive changes of the dependency graph. Reactions that
+     * only read locally do not trigger the update.
+     */
+    private void refreshNeighborhoods(final Reaction<T> executed, final List<DependencyHandler<T>> deps) {
+        if (!executed.getOutputContext().equals(Context.LOCAL)) {
+            env.refreshNeighborhoods();
+            return;
+        }
+        for (final DependencyHandler<T> dep : deps) {
+            if (!dep.getReaction().getInputContext().equals(Context.LOCAL)) {
+                env.refreshNeighborhoods();
+                return;
             }
         }
     }
@@ -470,13 +756,156 @@ public class Engine<T> implements Simulation<T> {
         }
     }
 
-    private void updateReaction(final DependencyHandler<T> rh) {
+    /**
+     * Updates a reaction whose dependencies changed, rescheduling it if
+     * needed. While the updates are being collected, the update is postponed
+     * to {@link #applyUpdates()}.
+     *
+     * @param rh
+     *            the reaction to update
+     */
+    protected final void updateReaction(final DependencyHandler<T> rh) {
+        if (collecting) {
+            dirty.add(rh);
+        } else {
+            doUpdateReaction(rh);
+        }
+    }
+
+    /**
+     * Starts collecting the updates of the reactions (see
+     * {@link #updateReaction(DependencyHandler)}), until
+     * {@link #applyUpdates()} is called.
+     */
+    protected final void collectUpdates() {
+        collecting = true;
+    }
+
+    /**
+     * Stops collecting the updates of the reactions, and applies the
+     * collected ones, each once, in the order they were first requested.
+     */
+    protected final void applyUpdates() {
+        collecting = false;
+        for (final DependencyHandler<T> rh : dirty) {
+            doUpdateReaction(rh);
+        }
+        dirty.clear();
+    }
+
+    @SuppressFBWarnings(value = "FE_FLOATING_POINT_EQUALITY", justification = "Any change must trigger a rescheduling")
+    private void doUpdateReaction(final DependencyHandler<T> rh) {
         final Reaction<T> r = rh.getReaction();
-        final Time t = r.getTau();
+        final double t = r.getTauAsDouble();
         r.update(currentTime, false, env);
-        if (!r.getTau().equals(t)) {
-            ipq.updateReaction(rh.getReaction());
+        if (r.getTauAsDouble() != t) {
+            ipq.updateReaction(rh);
+        }
+    }
+
+    /**
+     * Enables or disables the coalescing of the dependency updates. When
+     * enabled, the reactions that need an update during the execution of a
+     * step (because they depend on the executed reaction, or because of
+     * movements and neighborhood changes) are collected, and each of them is
+     * updated and rescheduled once, at the end of the step, in the order they
+     * were first marked. This is much faster when a single step triggers many
+     * neighborhood changes.
+     * 
+     * The results are identical as long as updating a reaction more than once
+     * at the same time does not change its putative time further. This is
+     * the case for periodic distributions and for any reaction whose rate is
+     * computed on the final state of the step. Markovian reactions whose
+     * propensity changes several times within a step are rescheduled with
+     * the same distribution, but not necessarily at the very same time.
+     * 
+     * Disabled by default.
+     * 
+     * @param enabled
+     *            true to enable coalescing
+     */
+    public void setUpdateCoalescing(final boolean enabled) {
+        coalescing = enabled;
+    }
+
+    /**
+     * Enables or disables the memoization of the conditions: the reactions of
+     * a node evaluate the equivalent conditions they share (see
+     * {@link it.unibo.alchemist.model.interfaces.Condition#getMemoizationKey()})
+     * once per change of the environment, rather than once each. Changes are
+     * tracked by bumping the version returned by
+     * {@link #getEnvironmentVersion()} after each execution and each topology
+     * change notification, which assumes that the environment is only changed
+     * by the reactions. Disabled by default.
+     * 
+     * Must be called before the simulation starts.
+     * 
+     * @param enabled
+     *            true to enable the memoization
+     */
+    public void setConditionMemoization(final boolean enabled) {
+        if (status != Status.INIT) {
+            throw new IllegalStateException("The condition memoization must be set before the simulation starts.");
+        }
+        version.set(enabled ? 0 : -1);
+    }
+
+    @Override
+    public long getEnvironmentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Invalidates whatever was memoized, to be called after each change of
+     * the environment. Thread safe.
+     */
+    protected final void environmentChanged() {
+        if (version.get() >= 0) {
+            version.incrementAndGet();
+        }
+    }
+
+    /**
+     * Enables the headless mode, meant for batch runs where nobody interacts
+     * with the simulation. In headless mode, {@link #run()} starts
+     * immediately, without waiting for {@link #play()}, and executes the
+     * steps in a bare loop: the commands sent with {@link #schedule(CheckedRunnable)},
+     * {@link #play()}, {@link #pause()}, {@link #terminate()},
+     * {@link #goToStep(long)} and {@link #goToTime(Time)} are ignored, the
+     * status is only updated when the simulation starts and ends, and the
+     * callers of the topology change notifications are not checked. The
+     * output monitors are notified as usual, each according to its own
+     * {@link OutputMonitor#getSampling()}.
+     * 
+     * Must be called before the simulation starts.
+     */
+    public void setHeadless() {
+        if (status != Status.INIT) {
+            throw new IllegalStateException("The headless mode must be set before the simulation starts.");
         }
+        headless = true;
+    }
+
+    /**
+     * Sets the random generator shared by the reactions of the environment,
+     * if any. The engines executing reactions concurrently assign its
+     * streams to their threads: any other generator used by the reactions
+     * must be thread safe on its own. Must be called before the simulation
+     * starts.
+     *
+     * @param generator
+     *            the generator shared by the reactions
+     */
+    public void setRandomGenerator(final ConcurrentRandomGenerator generator) {
+        rng = Objects.requireNonNull(generator);
+    }
+
+    /**
+     * @return the random generator shared by the reactions, if it has been
+     *         set
+     */
+    protected final Optional<ConcurrentRandomGenerator> getRandomGenerator() {
+        return Optional.ofNullable(rng);
     }
 
     @Override
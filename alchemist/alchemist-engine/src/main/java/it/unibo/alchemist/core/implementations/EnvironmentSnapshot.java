@@ -0,0 +1,476 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.danilopianini.util.ArrayListSet;
+import org.danilopianini.util.ListSet;
+import org.danilopianini.util.ListSets;
+
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import it.unibo.alchemist.core.interfaces.Simulation;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Incarnation;
+import it.unibo.alchemist.model.interfaces.Layer;
+import it.unibo.alchemist.model.interfaces.LinkingRule;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Neighborhood;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Position;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * A read only copy of an {@link Environment}, which can be inspected from a
+ * thread other than the one running the simulation while the original keeps
+ * changing. Nodes, their contents, positions and neighborhoods are copied;
+ * the concentrations themselves, the reactions, the layers and the other
+ * configuration (linking rule, incarnation, simulation) are shared, so they
+ * must not be modified nor relied upon to be stable. Nodes are identified by
+ * id: any node of the original environment can be used to query a snapshot.
+ *
+ * Taking a snapshot costs time and memory linear in the number of nodes and
+ * links, hence it should be done at sampling points only. Every method that
+ * would change the environment throws {@link UnsupportedOperationException}.
+ *
+ * @param <T>
+ */
+public final class EnvironmentSnapshot<T> implements Environment<T> {
+
+    private static final long serialVersionUID = 1L;
+    private final Environment<T> origin;
+    private final ListSet<Node<T>> nodes;
+    private final TIntObjectMap<SnapshotNode<T>> byId;
+    private final TIntObjectMap<Position> positions;
+    private final TIntObjectMap<int[]> links;
+    private final double[] offset;
+    private final double[] size;
+    private final double[] sizeInDistanceUnits;
+    private final boolean terminated;
+
+    /**
+     * Copies the current state of the provided environment. Must be called
+     * by the thread running the simulation, or with the simulation paused.
+     *
+     * @param env
+     *            the environment to copy
+     */
+    public EnvironmentSnapshot(final Environment<T> env) {
+        origin = env;
+        final ListSet<Node<T>> original = env.getNodes();
+        final int n = original.size();
+        final ListSet<Node<T>> copies = new ArrayListSet<>(n);
+        byId = new TIntObjectHashMap<>(n);
+        positions = new TIntObjectHashMap<>(n);
+        links = new TIntObjectHashMap<>(n);
+        for (final Node<T> node : original) {
+            final SnapshotNode<T> copy = new SnapshotNode<>(node);
+            copies.add(copy);
+            byId.put(copy.id, copy);
+            positions.put(copy.id, env.getPosition(node));
+            final Neighborhood<T> neigh = env.getNeighborhood(node);
+            final int[] ids = new int[neigh.size()];
+            int i = 0;
+            for (final Node<T> neighbor : neigh) {
+                ids[i++] = neighbor.getId();
+            }
+            links.put(copy.id, ids);
+        }
+        nodes = ListSets.unmodifiableListSet(copies);
+        offset = env.getOffset().clone();
+        size = env.getSize().clone();
+        sizeInDistanceUnits = env.getSizeInDistanceUnits().clone();
+        terminated = env.isTerminated();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Environment snapshots are read only.");
+    }
+
+    @Override
+    public void addLayer(final Molecule m, final Layer<T> l) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addNode(final Node<T> node, final Position p) {
+        throw readOnly();
+    }
+
+    @Override
+    public void addTerminator(final Predicate<Environment<T>> terminator) {
+        throw readOnly();
+    }
+
+    @Override
+    public int getDimensions() {
+        return origin.getDimensions();
+    }
+
+    @Override
+    public double getDistanceBetweenNodes(final Node<T> n1, final Node<T> n2) {
+        return getPosition(n1).getDistanceTo(getPosition(n2));
+    }
+
+    @Override
+    public Optional<Incarnation<T>> getIncarnation() {
+        return origin.getIncarnation();
+    }
+
+    @Override
+    public Optional<Layer<T>> getLayer(final Molecule m) {
+        return origin.getLayer(m);
+    }
+
+    @Override
+    public ListSet<Layer<T>> getLayers() {
+        return origin.getLayers();
+    }
+
+    @Override
+    public LinkingRule<T> getLinkingRule() {
+        return origin.getLinkingRule();
+    }
+
+    @Override
+    public Neighborhood<T> getNeighborhood(final Node<T> center) {
+        final int[] ids = links.get(center.getId());
+        if (ids == null) {
+            throw new IllegalArgumentException(center + " was not in the environment when the snapshot was taken.");
+        }
+        final ListSet<Node<T>> neighbors = new ArrayListSet<>(ids.length);
+        for (final int id : ids) {
+            neighbors.add(byId.get(id));
+        }
+        return new SnapshotNeighborhood<>(this, byId.get(center.getId()), ListSets.unmodifiableListSet(neighbors));
+    }
+
+    @Override
+    public Node<T> getNodeByID(final int id) {
+        return byId.get(id);
+    }
+
+    @Override
+    public ListSet<Node<T>> getNodes() {
+        return nodes;
+    }
+
+    @Override
+    public int getNodesNumber() {
+        return nodes.size();
+    }
+
+    @Override
+    public ListSet<Node<T>> getNodesWithinRange(final Node<T> center, final double range) {
+        final Position centerPosition = getPosition(center);
+        if (centerPosition == null) {
+            throw new IllegalArgumentException(center + " was not in the environment when the snapshot was taken.");
+        }
+        final ListSet<Node<T>> result = getNodesWithinRange(centerPosition, range);
+        result.remove(byId.get(center.getId()));
+        return result;
+    }
+
+    @Override
+    public ListSet<Node<T>> getNodesWithinRange(final Position center, final double range) {
+        final ListSet<Node<T>> result = new ArrayListSet<>();
+        for (final Node<T> node : nodes) {
+            if (positions.get(node.getId()).getDistanceTo(center) <= range) {
+                result.add(node);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public double[] getOffset() {
+        return offset.clone();
+    }
+
+    @Override
+    public Position getPosition(final Node<T> node) {
+        return positions.get(node.getId());
+    }
+
+    @Override
+    public Simulation<T> getSimulation() {
+        return origin.getSimulation();
+    }
+
+    @Override
+    public double[] getSize() {
+        return size.clone();
+    }
+
+    @Override
+    public double[] getSizeInDistanceUnits() {
+        return sizeInDistanceUnits.clone();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    @Override
+    public Iterator<Node<T>> iterator() {
+        return nodes.iterator();
+    }
+
+    @Override
+    public Position makePosition(final Number... coordinates) {
+        return origin.makePosition(coordinates);
+    }
+
+    @Override
+    public void moveNode(final Node<T> node, final Position direction) {
+        throw readOnly();
+    }
+
+    @Override
+    public void moveNodeToPosition(final Node<T> node, final Position position) {
+        throw readOnly();
+    }
+
+    @Override
+    public void removeNode(final Node<T> node) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setIncarnation(final Incarnation<T> incarnation) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setLinkingRule(final LinkingRule<T> rule) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setSimulation(final Simulation<T> s) {
+        throw readOnly();
+    }
+
+    @Override
+    public String toString() {
+        return "Snapshot of " + origin;
+    }
+
+    private static final class SnapshotNode<T> implements Node<T> {
+
+        private static final long serialVersionUID = 1L;
+        private final int id;
+        private final Map<Molecule, T> contents;
+        private final List<Reaction<T>> reactions;
+
+        private SnapshotNode(final Node<T> node) {
+            id = node.getId();
+            contents = Collections.unmodifiableMap(new LinkedHashMap<>(node.getContents()));
+            reactions = Collections.unmodifiableList(new ArrayList<>(node.getReactions()));
+        }
+
+        @Override
+        public void addReaction(final Reaction<T> r) {
+            throw readOnly();
+        }
+
+        @Override
+        public Node<T> cloneNode(final Time currentTime) {
+            throw readOnly();
+        }
+
+        @Override
+        public int compareTo(final Node<T> o) {
+            return Integer.compare(id, o.getId());
+        }
+
+        @Override
+        public boolean contains(final Molecule mol) {
+            return contents.containsKey(mol);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return o instanceof SnapshotNode && ((SnapshotNode<?>) o).id == id;
+        }
+
+        @Override
+        public int getChemicalSpecies() {
+            return contents.size();
+        }
+
+        @Override
+        public T getConcentration(final Molecule mol) {
+            return contents.get(mol);
+        }
+
+        @Override
+        public Map<Molecule, T> getContents() {
+            return contents;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public List<Reaction<T>> getReactions() {
+            return reactions;
+        }
+
+        @Override
+        public int hashCode() {
+            return id;
+        }
+
+        @Override
+        public Iterator<Reaction<T>> iterator() {
+            return reactions.iterator();
+        }
+
+        @Override
+        public void removeConcentration(final Molecule mol) {
+            throw readOnly();
+        }
+
+        @Override
+        public void removeReaction(final Reaction<T> r) {
+            throw readOnly();
+        }
+
+        @Override
+        public void setConcentration(final Molecule mol, final T c) {
+            throw readOnly();
+        }
+
+        @Override
+        public String toString() {
+            return "Node" + id + contents;
+        }
+
+    }
+
+    private static final class SnapshotNeighborhood<T> implements Neighborhood<T> {
+
+        private static final long serialVersionUID = 1L;
+        private final EnvironmentSnapshot<T> env;
+        private final Node<T> center;
+        private final ListSet<Node<T>> neighbors;
+
+        private SnapshotNeighborhood(final EnvironmentSnapshot<T> env, final Node<T> center, final ListSet<Node<T>> neighbors) {
+            this.env = env;
+            this.center = center;
+            this.neighbors = neighbors;
+        }
+
+        @Override
+        public void addNeighbor(final Node<T> neigh) {
+            throw readOnly();
+        }
+
+        @Override
+        public Neighborhood<T> clone() {
+            /*
+             * Immutable
+             */
+            return this;
+        }
+
+        @Override
+        public boolean contains(final Node<T> n) {
+            return contains(n.getId());
+        }
+
+        @Override
+        public boolean contains(final int n) {
+            for (final Node<T> neighbor : neighbors) {
+                if (neighbor.getId() == n) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public ListSet<? extends Node<T>> getBetweenRange(final double min, final double max) {
+            final Position cpos = env.getPosition(center);
+            final ListSet<Node<T>> result = new ArrayListSet<>();
+            for (final Node<T> neighbor : neighbors) {
+                final double d = cpos.getDistanceTo(env.getPosition(neighbor));
+                if (d >= min && d <= max) {
+                    result.add(neighbor);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public Node<T> getCenter() {
+            return center;
+        }
+
+        @Override
+        public Node<T> getNeighborById(final int id) {
+            for (final Node<T> neighbor : neighbors) {
+                if (neighbor.getId() == id) {
+                    return neighbor;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public Node<T> getNeighborByNumber(final int num) {
+            return neighbors.get(num);
+        }
+
+        @Override
+        public ListSet<Node<T>> getNeighbors() {
+            return neighbors;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return neighbors.isEmpty();
+        }
+
+        @Override
+        public Iterator<Node<T>> iterator() {
+            return neighbors.iterator();
+        }
+
+        @Override
+        public void removeNeighbor(final Node<T> neighbor) {
+            throw readOnly();
+        }
+
+        @Override
+        public int size() {
+            return neighbors.size();
+        }
+
+        @Override
+        public String toString() {
+            return center + " links: " + neighbors;
+        }
+
+    }
+
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+
+/**
+ * A list of {@link DependencyHandler}s without duplicates, indexed by
+ * {@link DependencyHandler#getGraphIndex()}. Membership tests and removals
+ * take constant time: the removed element is replaced by the last one, so the
+ * order of the elements is not preserved across removals.
+ *
+ * @param <T>
+ */
+final class IndexedDependencyList<T> extends AbstractList<DependencyHandler<T>> implements RandomAccess, Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int ABSENT = -1;
+    private static final int DEFAULT_CAPACITY = 4;
+    private final TIntIntMap positions = new TIntIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, ABSENT, ABSENT);
+    @SuppressWarnings("unchecked")
+    private DependencyHandler<T>[] elements = (DependencyHandler<T>[]) new DependencyHandler<?>[DEFAULT_CAPACITY];
+    private int size;
+
+    @Override
+    public boolean add(final DependencyHandler<T> rh) {
+        final int index = rh.getGraphIndex();
+        if (index < 0) {
+            throw new IllegalArgumentException(rh + " is not part of an indexed dependency graph.");
+        }
+        if (positions.containsKey(index)) {
+            return false;
+        }
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size] = rh;
+        positions.put(index, size);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(elements, 0, size, null);
+        positions.clear();
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    public boolean contains(final Object o) {
+        return indexOf(o) != ABSENT;
+    }
+
+    @Override
+    public DependencyHandler<T> get(final int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+        return elements[index];
+    }
+
+    @Override
+    public int indexOf(final Object o) {
+        if (o instanceof DependencyHandler) {
+            final int position = positions.get(((DependencyHandler<?>) o).getGraphIndex());
+            if (position != ABSENT && elements[position] == o) {
+                return position;
+            }
+        }
+        return ABSENT;
+    }
+
+    @Override
+    public int lastIndexOf(final Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public DependencyHandler<T> remove(final int index) {
+        final DependencyHandler<T> removed = get(index);
+        positions.remove(removed.getGraphIndex());
+        size--;
+        if (index != size) {
+            final DependencyHandler<T> moved = elements[size];
+            elements[index] = moved;
+            positions.put(moved.getGraphIndex(), index);
+        }
+        elements[size] = null;
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    public boolean remove(final Object o) {
+        final int index = indexOf(o);
+        if (index == ABSENT) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+}
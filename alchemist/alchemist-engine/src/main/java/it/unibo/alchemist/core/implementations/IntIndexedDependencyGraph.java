@@ -0,0 +1,263 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import static it.unibo.alchemist.core.implementations.MapBasedDependencyGraph.influences;
+import static it.unibo.alchemist.core.implementations.MapBasedDependencyGraph.mayInfluence;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import gnu.trove.list.TIntList;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import it.unibo.alchemist.core.interfaces.DependencyGraph;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+
+/**
+ * A dependency graph where each reaction is identified by a dense integer
+ * index, stored in its {@link DependencyHandler} (see
+ * {@link DependencyHandler#setGraphIndex(int)}). The reactions of each node
+ * are tracked by node id and indexed by the molecules they read and write,
+ * so no lookup by {@link Reaction} is ever needed,
+ * and the dependencies are kept in {@link IndexedDependencyList}s, which
+ * support constant time membership tests and removals.
+ *
+ * Contrary to {@link MapBasedDependencyGraph}, this graph does not need to
+ * share the map of handlers with the simulation, and it replaces the
+ * dependency lists of the handlers it receives.
+ *
+ * @param <T>
+ */
+public class IntIndexedDependencyGraph<T> implements DependencyGraph<T> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int NO_INDEX = -1;
+    private final Environment<T> env;
+    private final List<DependencyHandler<T>> handlers = new ArrayList<>();
+    private final TIntList free = new TIntArrayList();
+    private final TIntObjectMap<MoleculeIndex<DependencyHandler<T>>> byNode = new TIntObjectHashMap<>();
+    /*
+     * Reactions reading and writing globally, which are candidate
+     * dependencies of any other reaction
+     */
+    private final TIntList globalInput = new TIntArrayList();
+    private final TIntList globalOutput = new TIntArrayList();
+    /*
+     * Reused by the candidate search
+     */
+    private final TIntList candidates = new TIntArrayList();
+    private final TIntSet visited = new TIntHashSet();
+
+    /**
+     * Builds a new, empty dependency graph.
+     *
+     * @param environment
+     *            the environment
+     */
+    public IntIndexedDependencyGraph(final Environment<T> environment) {
+        env = environment;
+    }
+
+    @Override
+    public void addNeighbor(final Node<T> n1, final Node<T> n2) {
+        final MoleculeIndex<DependencyHandler<T>> i1 = byNode.get(n1.getId());
+        final MoleculeIndex<DependencyHandler<T>> i2 = byNode.get(n2.getId());
+        if (i1 != null && i2 != null) {
+            i1.forEach(rh1 -> {
+                final Reaction<T> r1 = rh1.getReaction();
+                i2.forEachWriter(r1.getInfluencingMolecules(), rh2 -> {
+                    final Reaction<T> r2 = rh2.getReaction();
+                    if (mayInfluence(env, r2, r1) && influences(r2, r1.getInfluencingMolecules())) {
+                        rh1.addInDependency(rh2);
+                        rh2.addOutDependency(rh1);
+                    }
+                });
+                i2.forEachReader(r1.getInfluencedMolecules(), rh2 -> {
+                    final Reaction<T> r2 = rh2.getReaction();
+                    if (mayInfluence(env, r1, r2) && influences(r1, r2.getInfluencingMolecules())) {
+                        rh2.addInDependency(rh1);
+                        rh1.addOutDependency(rh2);
+                    }
+                });
+            });
+        }
+    }
+
+    private void addCandidate(final DependencyHandler<T> rh) {
+        final int index = rh.getGraphIndex();
+        if (visited.add(index)) {
+            candidates.add(index);
+        }
+    }
+
+    /*
+     * Adds the reactions of the node which may write what r reads (input
+     * side) or read what r writes (output side)
+     */
+    private void addNodeReactions(final Node<T> node, final Reaction<T> r, final boolean input) {
+        final MoleculeIndex<DependencyHandler<T>> reactions = byNode.get(node.getId());
+        if (reactions != null) {
+            if (input) {
+                reactions.forEachWriter(r.getInfluencingMolecules(), this::addCandidate);
+            } else {
+                reactions.forEachReader(r.getInfluencedMolecules(), this::addCandidate);
+            }
+        }
+    }
+
+    /*
+     * Fills the candidates list with the indexes of the reactions in this
+     * graph that may be related to r, given the context, without duplicates
+     */
+    private void collectCandidates(final Reaction<T> r, final int self, final boolean input) {
+        final Context c = input ? r.getInputContext() : r.getOutputContext();
+        final TIntList globals = input ? globalOutput : globalInput;
+        candidates.resetQuick();
+        visited.clear();
+        if (c.equals(Context.GLOBAL)) {
+            for (int index = 0; index < handlers.size(); index++) {
+                if (index != self && handlers.get(index) != null) {
+                    candidates.add(index);
+                }
+            }
+        } else {
+            for (int i = 0; i < globals.size(); i++) {
+                final int index = globals.get(i);
+                if (visited.add(index)) {
+                    candidates.add(index);
+                }
+            }
+            final Iterable<Node<T>> neighborhood = env.getNeighborhood(r.getNode());
+            for (final Node<T> n : neighborhood) {
+                addNodeReactions(n, r, input);
+            }
+            if (c.equals(Context.LOCAL)) {
+                addNodeReactions(r.getNode(), r, input);
+            } else {
+                for (final Node<T> n : neighborhood) {
+                    for (final Node<T> neigh : env.getNeighborhood(n)) {
+                        addNodeReactions(neigh, r, input);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void createDependencies(final DependencyHandler<T> rh) {
+        if (rh.getGraphIndex() != NO_INDEX) {
+            throw new IllegalArgumentException(rh.getReaction() + " is already part of a dependency graph.");
+        }
+        final Reaction<T> newReaction = rh.getReaction();
+        final int index;
+        if (free.isEmpty()) {
+            index = handlers.size();
+            handlers.add(rh);
+        } else {
+            index = free.removeAt(free.size() - 1);
+            handlers.set(index, rh);
+        }
+        rh.setGraphIndex(index);
+        rh.setInDependencies(new IndexedDependencyList<>());
+        rh.setOutDependencies(new IndexedDependencyList<>());
+        collectCandidates(newReaction, index, true);
+        for (int i = 0; i < candidates.size(); i++) {
+            final DependencyHandler<T> dep = handlers.get(candidates.get(i));
+            final Reaction<T> r = dep.getReaction();
+            if (mayInfluence(env, r, newReaction) && influences(r, newReaction.getInfluencingMolecules())) {
+                dep.addOutDependency(rh);
+                rh.addInDependency(dep);
+            }
+        }
+        collectCandidates(newReaction, index, false);
+        for (int i = 0; i < candidates.size(); i++) {
+            final DependencyHandler<T> dep = handlers.get(candidates.get(i));
+            final Reaction<T> r = dep.getReaction();
+            if (mayInfluence(env, newReaction, r) && influences(newReaction, r.getInfluencingMolecules())) {
+                rh.addOutDependency(dep);
+                dep.addInDependency(rh);
+            }
+        }
+        final int nodeId = newReaction.getNode().getId();
+        MoleculeIndex<DependencyHandler<T>> nodeReactions = byNode.get(nodeId);
+        if (nodeReactions == null) {
+            nodeReactions = new MoleculeIndex<>();
+            byNode.put(nodeId, nodeReactions);
+        }
+        nodeReactions.add(rh, newReaction);
+        if (newReaction.getInputContext().equals(Context.GLOBAL)) {
+            globalInput.add(index);
+        }
+        if (newReaction.getOutputContext().equals(Context.GLOBAL)) {
+            globalOutput.add(index);
+        }
+    }
+
+    @Override
+    public void removeDependencies(final DependencyHandler<T> rh) {
+        final int index = rh.getGraphIndex();
+        if (index < 0 || index >= handlers.size() || handlers.get(index) != rh) {
+            throw new IllegalArgumentException(rh.getReaction() + " is not part of this dependency graph.");
+        }
+        final List<DependencyHandler<T>> indeps = rh.isInfluenced();
+        for (final DependencyHandler<T> dep : indeps) {
+            dep.removeOutDependency(rh);
+        }
+        indeps.clear();
+        /*
+         * The out dependencies are left in place: the simulation may still
+         * need to update them after the execution of the removed reaction.
+         */
+        for (final DependencyHandler<T> dep : rh.influences()) {
+            dep.removeInDependency(rh);
+        }
+        final int nodeId = rh.getReaction().getNode().getId();
+        final MoleculeIndex<DependencyHandler<T>> nodeReactions = byNode.get(nodeId);
+        nodeReactions.remove(rh);
+        if (nodeReactions.isEmpty()) {
+            byNode.remove(nodeId);
+        }
+        globalInput.remove(index);
+        globalOutput.remove(index);
+        handlers.set(index, null);
+        free.add(index);
+        rh.setGraphIndex(NO_INDEX);
+    }
+
+    @Override
+    public void removeNeighbor(final Node<T> n1, final Node<T> n2) {
+        final MoleculeIndex<DependencyHandler<T>> i1 = byNode.get(n1.getId());
+        final MoleculeIndex<DependencyHandler<T>> i2 = byNode.get(n2.getId());
+        if (i1 != null && i2 != null) {
+            i1.forEach(rh1 -> {
+                final Reaction<T> r1 = rh1.getReaction();
+                i2.forEach(rh2 -> {
+                    final Reaction<T> r2 = rh2.getReaction();
+                    if (!mayInfluence(env, r2, r1)) {
+                        rh1.removeInDependency(rh2);
+                        rh2.removeOutDependency(rh1);
+                    }
+                    if (!mayInfluence(env, r1, r2)) {
+                        rh2.removeInDependency(rh1);
+                        rh1.removeOutDependency(rh2);
+                    }
+                });
+            });
+        }
+    }
+
+}
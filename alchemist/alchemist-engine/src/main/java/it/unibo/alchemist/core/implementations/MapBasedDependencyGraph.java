@@ -11,6 +11,8 @@
  */
 package it.unibo.alchemist.core.implementations;
 
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
 import it.unibo.alchemist.core.interfaces.DependencyGraph;
 import it.unibo.alchemist.core.interfaces.DependencyHandler;
 import it.unibo.alchemist.model.interfaces.Context;
@@ -39,6 +41,16 @@ public class MapBasedDependencyGraph<T> implements DependencyGraph<T> {
     private static final long serialVersionUID = 4118923665670988775L;
     private final Environment<T> env;
     private final Map<Reaction<T>, DependencyHandler<T>> hndlrs;
+    /*
+     * Reactions reading and writing globally, which are candidate
+     * dependencies of any other reaction
+     */
+    private final Set<Reaction<T>> globalInput = new LinkedHashSet<>();
+    private final Set<Reaction<T>> globalOutput = new LinkedHashSet<>();
+    /*
+     * The reactions of each node in this graph, by node id
+     */
+    private final TIntObjectMap<MoleculeIndex<Reaction<T>>> byNode = new TIntObjectHashMap<>();
 
     /**
      * This constructor builds a new, empty dependency graph. It relies on a map
@@ -60,58 +72,52 @@ public class MapBasedDependencyGraph<T> implements DependencyGraph<T> {
         createDependencies(rh, rh.getReaction());
     }
 
-    private void addLocalReactions(final Set<Reaction<T>> list, final Reaction<T> r) {
-        for (final Reaction<T> or : r.getNode()) {
-            /*
-             * If the reaction is not the current and it is already in this
-             * graph
-             */
-            if (or != r && hndlrs.containsKey(or)) { // NOPMD by danysk on 8/20/13 2:37 PM
-                list.add(or);
+    /*
+     * Adds the reactions of the node which may write what r reads (input
+     * side) or read what r writes (output side)
+     */
+    private void addNodeReactions(final Set<Reaction<T>> list, final Node<T> node, final Reaction<T> r, final boolean input) {
+        final MoleculeIndex<Reaction<T>> index = byNode.get(node.getId());
+        if (index != null) {
+            if (input) {
+                index.forEachWriter(r.getInfluencingMolecules(), list::add);
+            } else {
+                index.forEachReader(r.getInfluencedMolecules(), list::add);
             }
         }
     }
 
-    private void addNeighborhoodReactions(final Set<Reaction<T>> list, final Reaction<T> r) {
+    private void addNeighborhoodReactions(final Set<Reaction<T>> list, final Reaction<T> r, final boolean input) {
         for (final Node<T> n : env.getNeighborhood(r.getNode())) {
-            for (final Reaction<T> or : n) {
-                /*
-                 * If the reaction is already in this graph
-                 */
-                if (hndlrs.containsKey(or)) {
-                    list.add(or);
-                }
-            }
+            addNodeReactions(list, n, r, input);
         }
     }
 
-    private void addExtendedNeighborhoodReactions(final Set<Reaction<T>> list, final Reaction<T> r) {
+    private void addExtendedNeighborhoodReactions(final Set<Reaction<T>> list, final Reaction<T> r, final boolean input) {
         for (final Node<T> n : env.getNeighborhood(r.getNode())) {
             for (final Node<T> neigh : env.getNeighborhood(n)) {
-                for (final Reaction<T> or : neigh) {
-                    /*
-                     * If the reaction is not the current and it is already in this
-                     * graph
-                     */
-                    if (or != r && hndlrs.containsKey(or)) { // NOPMD by danysk on 8/20/13 2:37 PM
-                        list.add(or);
-                    }
-                }
+                addNodeReactions(list, neigh, r, input);
             }
         }
     }
 
-    private Set<Reaction<T>> initCandidates(final Reaction<T> newReaction, final Context c) {
+    private Set<Reaction<T>> initCandidates(final Reaction<T> newReaction, final boolean input) {
+        final Context c = input ? newReaction.getInputContext() : newReaction.getOutputContext();
         if (c.equals(Context.GLOBAL)) {
             return hndlrs.keySet();
         }
         final Set<Reaction<T>> list = new LinkedHashSet<>();
-        addNeighborhoodReactions(list, newReaction);
+        addNeighborhoodReactions(list, newReaction, input);
         if (c.equals(Context.LOCAL)) {
-            addLocalReactions(list, newReaction);
+            addNodeReactions(list, newReaction.getNode(), newReaction, input);
         } else {
-            addExtendedNeighborhoodReactions(list, newReaction);
+            addExtendedNeighborhoodReactions(list, newReaction, input);
         }
+        /*
+         * Last, so that the reactions found by scanning the neighborhood keep
+         * their order
+         */
+        list.addAll(input ? globalOutput : globalInput);
         return list;
     }
 
@@ -119,30 +125,43 @@ public class MapBasedDependencyGraph<T> implements DependencyGraph<T> {
         /*
          * Will contain the reactions potentially influencing the new one
          */
-        final Iterable<Reaction<T>> inputCandidates = initCandidates(newReaction, newReaction.getInputContext());
+        final Iterable<Reaction<T>> inputCandidates = initCandidates(newReaction, true);
         /*
          * Will contain the reactions possibly influenced by the new one
          */
-        final Iterable<Reaction<T>> outputCandidates = initCandidates(newReaction, newReaction.getOutputContext());
+        final Iterable<Reaction<T>> outputCandidates = initCandidates(newReaction, false);
         /*
          * keySet() is not guaranteed to preserve the ordering. This can lead to
          * bad behaviors, since may change the order by which the reactions are
          * updated, and consequently ruin the predictability
          */
         for (final Reaction<T> r : inputCandidates) {
-            if (mayInfluence(r, newReaction) && influences(r, newReaction.getInfluencingMolecules())) {
+            if (mayInfluence(env, r, newReaction) && influences(r, newReaction.getInfluencingMolecules())) {
                 final DependencyHandler<T> dep = hndlrs.get(r);
                 dep.addOutDependency(newHandler);
                 newHandler.addInDependency(dep);
             }
         }
         for (final Reaction<T> r : outputCandidates) {
-            if (mayInfluence(newReaction, r) && influences(newReaction, r.getInfluencingMolecules())) {
+            if (mayInfluence(env, newReaction, r) && influences(newReaction, r.getInfluencingMolecules())) {
                 final DependencyHandler<T> dep = hndlrs.get(r);
                 newHandler.addOutDependency(dep);
                 dep.addInDependency(newHandler);
             }
         }
+        final int nodeId = newReaction.getNode().getId();
+        MoleculeIndex<Reaction<T>> index = byNode.get(nodeId);
+        if (index == null) {
+            index = new MoleculeIndex<>();
+            byNode.put(nodeId, index);
+        }
+        index.add(newReaction, newReaction);
+        if (newReaction.getInputContext().equals(Context.GLOBAL)) {
+            globalInput.add(newReaction);
+        }
+        if (newReaction.getOutputContext().equals(Context.GLOBAL)) {
+            globalOutput.add(newReaction);
+        }
     }
 
     @Override
@@ -156,9 +175,27 @@ public class MapBasedDependencyGraph<T> implements DependencyGraph<T> {
         for (final DependencyHandler<T> toChange : outdeps) {
             toChange.removeInDependency(rh);
         }
+        final Reaction<T> r = rh.getReaction();
+        final int nodeId = r.getNode().getId();
+        final MoleculeIndex<Reaction<T>> index = byNode.get(nodeId);
+        if (index != null) {
+            index.remove(r);
+            if (index.isEmpty()) {
+                byNode.remove(nodeId);
+            }
+        }
+        globalInput.remove(r);
+        globalOutput.remove(r);
     }
 
-    private static boolean influences(final Reaction<?> source, final List<? extends Molecule> target) {
+    /**
+     * @param source
+     *            the reaction which may write
+     * @param target
+     *            the molecules read by the other reaction
+     * @return true if source writes any of the target molecules
+     */
+    static boolean influences(final Reaction<?> source, final List<? extends Molecule> target) {
         final List<? extends Molecule> sl = source.getInfluencedMolecules();
         if (sl == null || target == null) {
             return true;
@@ -173,7 +210,19 @@ public class MapBasedDependencyGraph<T> implements DependencyGraph<T> {
         return false;
     }
 
-    private boolean mayInfluence(final Reaction<T> source, final Reaction<T> target) {
+    /**
+     * @param env
+     *            the environment
+     * @param source
+     *            the reaction which may write
+     * @param target
+     *            the reaction which may read
+     * @param <T>
+     *            concentration type
+     * @return true if the contexts and the positions of the two reactions
+     *         allow source to influence target
+     */
+    static <T> boolean mayInfluence(final Environment<T> env, final Reaction<T> source, final Reaction<T> target) {
         final Context in = target.getInputContext();
         final Context out = source.getOutputContext();
         if (// Same node
@@ -221,30 +270,34 @@ public class MapBasedDependencyGraph<T> implements DependencyGraph<T> {
 
     @Override
     public void addNeighbor(final Node<T> n1, final Node<T> n2) {
-        DependencyHandler<T> rh1, rh2;
-        for (final Reaction<T> r1 : n1.getReactions()) {
-            rh1 = hndlrs.get(r1);
-            for (int j = 0; j < n2.getReactions().size(); j++) {
-                final Reaction<T> r2 = n2.getReactions().get(j);
-                if (mayInfluence(r2, r1) && influences(r2, r1.getInfluencingMolecules())) {
-                    rh2 = hndlrs.get(r2);
-                    if (!rh1.isInfluenced().contains(rh2)) {
-                        rh1.addInDependency(rh2);
+        final MoleculeIndex<Reaction<T>> i1 = byNode.get(n1.getId());
+        final MoleculeIndex<Reaction<T>> i2 = byNode.get(n2.getId());
+        if (i1 != null && i2 != null) {
+            i1.forEach(r1 -> {
+                final DependencyHandler<T> rh1 = hndlrs.get(r1);
+                i2.forEachWriter(r1.getInfluencingMolecules(), r2 -> {
+                    if (mayInfluence(env, r2, r1) && influences(r2, r1.getInfluencingMolecules())) {
+                        final DependencyHandler<T> rh2 = hndlrs.get(r2);
+                        if (!rh1.isInfluenced().contains(rh2)) {
+                            rh1.addInDependency(rh2);
+                        }
+                        if (!rh2.influences().contains(rh1)) {
+                            rh2.addOutDependency(rh1);
+                        }
                     }
-                    if (!rh2.influences().contains(rh1)) {
-                        rh2.addOutDependency(rh1);
-                    }
-                }
-                if (mayInfluence(r1, r2) && influences(r1, r2.getInfluencingMolecules())) {
-                    rh2 = hndlrs.get(r2);
-                    if (!rh2.isInfluenced().contains(rh1)) {
-                        rh2.addInDependency(rh1);
+                });
+                i2.forEachReader(r1.getInfluencedMolecules(), r2 -> {
+                    if (mayInfluence(env, r1, r2) && influences(r1, r2.getInfluencingMolecules())) {
+                        final DependencyHandler<T> rh2 = hndlrs.get(r2);
+                        if (!rh2.isInfluenced().contains(rh1)) {
+                            rh2.addInDependency(rh1);
+                        }
+                        if (!rh1.influences().contains(rh2)) {
+                            rh1.addOutDependency(rh2);
+                        }
                     }
-                    if (!rh1.influences().contains(rh2)) {
-                        rh1.addOutDependency(rh2);
-                    }
-                }
-            }
+                });
+            });
         }
     }
 
@@ -255,7 +308,7 @@ public class MapBasedDependencyGraph<T> implements DependencyGraph<T> {
             rh1 = hndlrs.get(r1);
             for (final Reaction<T> r2 : n2.getReactions()) {
                 rh2 = hndlrs.get(r2);
-                if (!mayInfluence(r2, r1)) {
+                if (!mayInfluence(env, r2, r1)) {
                     rh1.removeInDependency(rh2);
                     rh2.removeOutDependency(rh1);
                     /*
@@ -263,7 +316,7 @@ public class MapBasedDependencyGraph<T> implements DependencyGraph<T> {
                      * next scheduled execution time.
                      */
                 }
-                if (!mayInfluence(r1, r2)) {
+                if (!mayInfluence(env, r1, r2)) {
                     rh2.removeInDependency(rh1);
                     rh1.removeOutDependency(rh2);
                     /*
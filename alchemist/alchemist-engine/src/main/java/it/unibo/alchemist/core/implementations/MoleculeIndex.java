@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import gnu.trove.map.TObjectLongMap;
+import gnu.trove.map.hash.TObjectLongHashMap;
+
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Reaction;
+
+/**
+ * Indexes the reactions of a single node by the
+ * {@link Molecule#getDependencyKey()} of the molecules they read and write,
+ * so that the dependency graphs can find the reactions which may be related
+ * to another one without testing all of them. Lookups may return false
+ * positives, but never miss a reaction that
+ * {@link MapBasedDependencyGraph#influences(Reaction, List)} would accept.
+ * Lookups visit each element once, in insertion order, as a scan of the
+ * reactions of the node would: the order in which the dependencies get
+ * created, and hence updated, does not change.
+ *
+ * @param <E>
+ *            the type of the indexed elements, which wrap a reaction
+ */
+final class MoleculeIndex<E> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final Side<E> readers = new Side<>();
+    private final Side<E> writers = new Side<>();
+    private long added;
+
+    /**
+     * @param element
+     *            the element to index
+     * @param r
+     *            the reaction wrapped by the element
+     */
+    void add(final E element, final Reaction<?> r) {
+        readers.add(element, r.getInfluencingMolecules(), added);
+        writers.add(element, r.getInfluencedMolecules(), added);
+        added++;
+    }
+
+    /**
+     * @param action
+     *            executed on each indexed element, in insertion order
+     */
+    void forEach(final Consumer<? super E> action) {
+        readers.all.forEach(action);
+    }
+
+    /**
+     * @param written
+     *            the molecules written by some reaction
+     * @param action
+     *            executed on each element which may read any of them, in
+     *            insertion order
+     */
+    void forEachReader(final List<? extends Molecule> written, final Consumer<? super E> action) {
+        readers.forEachCandidate(written, action);
+    }
+
+    /**
+     * @param read
+     *            the molecules read by some reaction
+     * @param action
+     *            executed on each element which may write any of them, in
+     *            insertion order
+     */
+    void forEachWriter(final List<? extends Molecule> read, final Consumer<? super E> action) {
+        writers.forEachCandidate(read, action);
+    }
+
+    /**
+     * @return true if no element is indexed
+     */
+    boolean isEmpty() {
+        return readers.all.isEmpty();
+    }
+
+    /**
+     * @param element
+     *            the element to remove
+     */
+    void remove(final E element) {
+        readers.remove(element);
+        writers.remove(element);
+    }
+
+    private static final class Side<E> implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Set<E> all = new LinkedHashSet<>();
+        /*
+         * Elements which may be related to any molecule
+         */
+        private final Set<E> wildcards = new LinkedHashSet<>();
+        private final Map<Object, Set<E>> byKey = new LinkedHashMap<>();
+        private final Map<E, Set<Object>> keys = new LinkedHashMap<>();
+        private final TObjectLongMap<E> order = new TObjectLongHashMap<>();
+
+        private void add(final E element, final List<? extends Molecule> molecules, final long position) {
+            if (!all.add(element)) {
+                return;
+            }
+            order.put(element, position);
+            if (molecules == null) {
+                wildcards.add(element);
+                return;
+            }
+            final Set<Object> elementKeys = new LinkedHashSet<>();
+            for (final Molecule m : molecules) {
+                final Object key = m == null ? null : m.getDependencyKey();
+                if (key == null) {
+                    wildcards.add(element);
+                    return;
+                }
+                elementKeys.add(key);
+            }
+            for (final Object key : elementKeys) {
+                byKey.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(element);
+            }
+            keys.put(element, elementKeys);
+        }
+
+        private void forEachCandidate(final List<? extends Molecule> query, final Consumer<? super E> action) {
+            if (query == null) {
+                all.forEach(action);
+                return;
+            }
+            if (query.isEmpty()) {
+                return;
+            }
+            for (final Molecule m : query) {
+                if (m == null || m.getDependencyKey() == null) {
+                    all.forEach(action);
+                    return;
+                }
+            }
+            if (wildcards.isEmpty() && query.size() == 1) {
+                final Set<E> matching = byKey.get(query.get(0).getDependencyKey());
+                if (matching != null) {
+                    matching.forEach(action);
+                }
+                return;
+            }
+            /*
+             * An element may match several keys, and the sets of different
+             * keys interleave
+             */
+            final SortedMap<Long, E> found = new TreeMap<>();
+            wildcards.forEach(e -> found.put(order.get(e), e));
+            for (final Molecule m : query) {
+                final Set<E> matching = byKey.get(m.getDependencyKey());
+                if (matching != null) {
+                    matching.forEach(e -> found.put(order.get(e), e));
+                }
+            }
+            found.values().forEach(action);
+        }
+
+        private void remove(final E element) {
+            if (all.remove(element)) {
+                order.remove(element);
+                wildcards.remove(element);
+                final Set<Object> elementKeys = keys.remove(element);
+                if (elementKeys != null) {
+                    for (final Object key : elementKeys) {
+                        final Set<E> matching = byKey.get(key);
+                        matching.remove(element);
+                        if (matching.isEmpty()) {
+                            byKey.remove(key);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.boundary.interfaces.Sampling;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Dispatches the steps to the {@link OutputMonitor}s according to their
+ * {@link Sampling}. The monitors interested in every step are called
+ * directly; for the others, the schedule tracks the earliest step and time at
+ * which any of them is due, so that most steps cost two comparisons.
+ *
+ * Not thread safe.
+ *
+ * @param <T>
+ */
+final class MonitorSchedule<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final List<OutputMonitor<T>> everyStep = new ArrayList<>();
+    private final List<Entry<T>> sampled = new ArrayList<>();
+    private long nextStep = Long.MAX_VALUE;
+    private double nextTime = Double.POSITIVE_INFINITY;
+
+    /**
+     * @param monitor
+     *            the monitor to add
+     * @param step
+     *            the current step
+     * @param time
+     *            the current time
+     */
+    void add(final OutputMonitor<T> monitor, final long step, final Time time) {
+        final Sampling sampling = monitor.getSampling();
+        if (sampling.isEveryStep()) {
+            everyStep.add(monitor);
+        } else {
+            /*
+             * The current step and time are due, if they match the sampling
+             */
+            final Entry<T> entry = new Entry<>(monitor, sampling,
+                    sampling.nextStep(step - 1),
+                    sampling.nextTime(Math.nextDown(time.toDouble())));
+            sampled.add(entry);
+            nextStep = Math.min(nextStep, entry.nextStep);
+            nextTime = Math.min(nextTime, entry.nextTime);
+        }
+    }
+
+    /**
+     * @param monitor
+     *            the monitor to remove
+     */
+    void remove(final OutputMonitor<T> monitor) {
+        if (!everyStep.remove(monitor)) {
+            for (int i = 0; i < sampled.size(); i++) {
+                if (sampled.get(i).monitor.equals(monitor)) {
+                    sampled.remove(i);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Notifies the monitors that are due.
+     *
+     * @param env
+     *            the environment
+     * @param r
+     *            the last executed reaction
+     * @param time
+     *            the current time
+     * @param step
+     *            the current step
+     */
+    void stepDone(final Environment<T> env, final Reaction<T> r, final Time time, final long step) {
+        for (final OutputMonitor<T> m : everyStep) {
+            m.stepDone(env, r, time, step);
+        }
+        final double t = time.toDouble();
+        if (step >= nextStep || t >= nextTime) {
+            nextStep = Long.MAX_VALUE;
+            nextTime = Double.POSITIVE_INFINITY;
+            for (final Entry<T> entry : sampled) {
+                if (step >= entry.nextStep || t >= entry.nextTime) {
+                    entry.monitor.stepDone(env, r, time, step);
+                    entry.nextStep = entry.sampling.nextStep(step);
+                    entry.nextTime = entry.sampling.nextTime(t);
+                }
+                nextStep = Math.min(nextStep, entry.nextStep);
+                nextTime = Math.min(nextTime, entry.nextTime);
+            }
+        }
+    }
+
+    private static final class Entry<T> implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final OutputMonitor<T> monitor;
+        private final Sampling sampling;
+        private long nextStep;
+        private double nextTime;
+
+        private Entry(final OutputMonitor<T> monitor, final Sampling sampling, final long nextStep, final double nextTime) {
+            this.monitor = monitor;
+            this.sampling = sampling;
+            this.nextStep = nextStep;
+            this.nextTime = nextTime;
+        }
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Neighborhood;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * An {@link Engine} which partitions the environment in regions, and executes
+ * the reactions confined to each region concurrently, following a
+ * conservative approach: no reaction is ever executed before a reaction it
+ * may depend on.
+ *
+ * Locality is derived from the linking rule and the dependency graph: the
+ * reactions whose node and neighbors all lie in one region, and which can
+ * only influence reactions of the same region (or periodic ones), are
+ * executed concurrently up to the next reaction that must be executed
+ * sequentially, or at most for a window of simulated time. Reactions that
+ * may change the environment (see {@link it.unibo.alchemist.model.interfaces.Reaction#mayChangeEnvironment()})
+ * or have global contexts are always executed sequentially, as in
+ * {@link Engine}. See {@link RegionScheduler} for the details.
+ *
+ * Within each region the order of the events is preserved; events of
+ * different regions are independent by construction, so the results are
+ * statistically equivalent to those of {@link Engine}. They are not
+ * identical, since each region draws from its own random stream, provided
+ * that the random generator shared by the reactions is passed to
+ * {@link #setRandomGenerator(it.unibo.alchemist.model.interfaces.ConcurrentRandomGenerator)}:
+ * this way, seeded runs are reproducible. The output
+ * monitors are only notified of the sequential steps, hence at least once per
+ * window; the step limit may be exceeded by the reactions of the last
+ * window.
+ *
+ * @param <T>
+ */
+public class PartitionedEngine<T> extends Engine<T> {
+
+    private final RegionScheduler<T> scheduler;
+    private final double window;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param e
+     *            the environment at the initial time
+     * @param maxSteps
+     *            the maximum number of steps to do
+     * @param t
+     *            the maximum time to reach
+     * @param regions
+     *            the number of regions, which is also the number of threads
+     * @param window
+     *            the maximum amount of simulated time executed concurrently
+     *            without a sequential step. Must be positive and finite
+     */
+    public PartitionedEngine(final Environment<T> e, final long maxSteps, final Time t, final int regions, final double window) {
+        this(e, maxSteps, t, new RegionScheduler<>(e, regions), regions, window);
+    }
+
+    private PartitionedEngine(final Environment<T> e, final long maxSteps, final Time t, final RegionScheduler<T> scheduler,
+            final int regions, final double window) {
+        super(e, maxSteps, t, scheduler);
+        if (!(window > 0) || Double.isInfinite(window)) {
+            throw new IllegalArgumentException("The window must be positive and finite, " + window + " was provided.");
+        }
+        this.scheduler = scheduler;
+        this.window = window;
+        pool = new ForkJoinPool(regions);
+    }
+
+    @Override
+    protected void doStep() throws InterruptedException, ExecutionException {
+        /*
+         * The regions must not trigger any lazy update of the neighborhoods
+         */
+        getEnvironment().refreshNeighborhoods();
+        scheduler.reclassify();
+        final double limit = Math.min(
+                Math.min(scheduler.getSequentialTime(), getTime().toDouble() + window),
+                getFinalTime().toDouble());
+        stepsDone(scheduler.runConcurrently(pool, limit, this::environmentChanged, getRandomGenerator().orElse(null)));
+        super.doStep();
+    }
+
+    /*
+     * For testing purposes
+     */
+    RegionScheduler<T> getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public void neighborAdded(final Node<T> node, final Node<T> n) {
+        super.neighborAdded(node, n);
+        scheduler.nodeChanged(node);
+        scheduler.nodeChanged(n);
+    }
+
+    @Override
+    public void neighborRemoved(final Node<T> node, final Node<T> n) {
+        super.neighborRemoved(node, n);
+        scheduler.nodeChanged(node);
+        scheduler.nodeChanged(n);
+    }
+
+    @Override
+    public void nodeAdded(final Node<T> node) {
+        super.nodeAdded(node);
+        scheduler.nodeAdded(node);
+    }
+
+    @Override
+    public void nodeMoved(final Node<T> node) {
+        super.nodeMoved(node);
+        scheduler.nodeMoved(node);
+    }
+
+    @Override
+    public void nodeRemoved(final Node<T> node, final Neighborhood<T> oldNeighborhood) {
+        super.nodeRemoved(node, oldNeighborhood);
+        scheduler.nodeRemoved(node, oldNeighborhood);
+    }
+
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
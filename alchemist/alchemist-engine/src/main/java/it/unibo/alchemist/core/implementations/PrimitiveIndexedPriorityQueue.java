@@ -0,0 +1,321 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.util.Arrays;
+
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.interfaces.Reaction;
+
+/**
+ * An indexed priority queue implemented as a 4-ary heap over primitive
+ * arrays. Each scheduled reaction owns a dense integer slot, which is stored
+ * in its {@link DependencyHandler} (see
+ * {@link DependencyHandler#setQueueIndex(int)}): the handler-based operations
+ * require no lookup structure, and sifting only moves doubles and ints.
+ *
+ * Reactions whose putative time is infinite are dormant: they keep their slot,
+ * but they are not part of the heap, and cost nothing to the operations on the
+ * other reactions. They get back in the heap as soon as an update gives them
+ * a finite time.
+ *
+ * The {@link Reaction}-based operations are supported for compatibility, but
+ * removals and updates need a linear scan to find the reaction. Use the
+ * handler-based methods whenever possible, as {@link Engine} does.
+ *
+ * @param <T>
+ */
+public class PrimitiveIndexedPriorityQueue<T> implements ReactionManager<T> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int ARITY = 4;
+    private static final int LOG_ARITY = 2;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int NO_SLOT = -1;
+    private static final int DORMANT = -1;
+
+    /*
+     * Heap order: the slot and the putative time of the reaction at each heap
+     * position. Only the first heapSize positions are used.
+     */
+    private double[] times;
+    private int[] heap;
+    private int heapSize;
+    /*
+     * Slot order: the heap position (or DORMANT) and the handler of each slot.
+     */
+    private int[] positions;
+    private DependencyHandler<T>[] handlers;
+    private int size;
+
+    /**
+     * Builds an empty queue.
+     */
+    public PrimitiveIndexedPriorityQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Builds an empty queue.
+     *
+     * @param initialCapacity
+     *            the number of reactions this queue can contain before
+     *            growing its internal arrays
+     */
+    @SuppressWarnings("unchecked")
+    public PrimitiveIndexedPriorityQueue(final int initialCapacity) {
+        final int capacity = Math.max(1, initialCapacity);
+        times = new double[capacity];
+        heap = new int[capacity];
+        positions = new int[capacity];
+        handlers = (DependencyHandler<T>[]) new DependencyHandler<?>[capacity];
+    }
+
+    @Override
+    public void addReaction(final Reaction<T> r) {
+        addReaction(new DependencyHandlerImpl<>(r));
+    }
+
+    @Override
+    public void addReaction(final DependencyHandler<T> rh) {
+        if (rh.getQueueIndex() != NO_SLOT) {
+            throw new IllegalArgumentException(rh.getReaction() + " is already scheduled.");
+        }
+        if (size == heap.length) {
+            grow();
+        }
+        final int slot = size;
+        size++;
+        handlers[slot] = rh;
+        rh.setQueueIndex(slot);
+        enter(slot, rh.getReaction().getTauAsDouble());
+    }
+
+    private void grow() {
+        final int capacity = heap.length * 2;
+        times = Arrays.copyOf(times, capacity);
+        heap = Arrays.copyOf(heap, capacity);
+        positions = Arrays.copyOf(positions, capacity);
+        handlers = Arrays.copyOf(handlers, capacity);
+    }
+
+    /*
+     * Puts the slot in the heap, or makes it dormant if its time is infinite
+     */
+    private void enter(final int slot, final double time) {
+        if (time == Double.POSITIVE_INFINITY) {
+            positions[slot] = DORMANT;
+        } else {
+            final int position = heapSize;
+            heapSize++;
+            place(slot, time, position);
+            up(position);
+        }
+    }
+
+    private void down(final int start) {
+        final int slot = heap[start];
+        final double time = times[start];
+        int index = start;
+        while (true) {
+            final int first = (index << LOG_ARITY) + 1;
+            if (first >= heapSize) {
+                break;
+            }
+            final int last = Math.min(first + ARITY, heapSize);
+            int min = first;
+            double minTime = times[first];
+            for (int child = first + 1; child < last; child++) {
+                if (times[child] < minTime) {
+                    min = child;
+                    minTime = times[child];
+                }
+            }
+            if (time <= minTime) {
+                break;
+            }
+            moveTo(min, index);
+            index = min;
+        }
+        place(slot, time, index);
+    }
+
+    private int find(final Reaction<T> r) {
+        for (int slot = 0; slot < size; slot++) {
+            if (handlers[slot].getReaction().equals(r)) {
+                return slot;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    /**
+     * @return the number of scheduled reactions whose putative time is
+     *         infinite
+     */
+    public int getDormantCount() {
+        return size - heapSize;
+    }
+
+    @Override
+    public Reaction<T> getNext() {
+        final DependencyHandler<T> next = getNextHandler();
+        return next == null ? null : next.getReaction();
+    }
+
+    /**
+     * @return the handler of the next reaction to be executed, or null if
+     *         this queue is empty
+     */
+    DependencyHandler<T> getNextHandler() {
+        if (heapSize > 0) {
+            return handlers[heap[0]];
+        }
+        /*
+         * Only dormant reactions are left, any of them is a legit next
+         */
+        return size == 0 ? null : handlers[0];
+    }
+
+    /**
+     * @return the number of reactions in this queue
+     */
+    int size() {
+        return size;
+    }
+
+    /*
+     * Removes the element at the given heap position from the heap
+     */
+    private void leave(final int position) {
+        heapSize--;
+        /*
+         * Fill the hole in the heap with the last element
+         */
+        if (position != heapSize) {
+            place(heap[heapSize], times[heapSize], position);
+            if (!up(position)) {
+                down(position);
+            }
+        }
+    }
+
+    private void moveTo(final int from, final int to) {
+        final int slot = heap[from];
+        heap[to] = slot;
+        times[to] = times[from];
+        positions[slot] = to;
+    }
+
+    private void place(final int slot, final double time, final int position) {
+        heap[position] = slot;
+        times[position] = time;
+        positions[slot] = position;
+    }
+
+    @Override
+    public void removeReaction(final Reaction<T> r) {
+        final int slot = find(r);
+        if (slot == NO_SLOT) {
+            throw new IllegalArgumentException(r + " is not scheduled.");
+        }
+        removeReaction(handlers[slot]);
+    }
+
+    @Override
+    public void removeReaction(final DependencyHandler<T> rh) {
+        final int slot = rh.getQueueIndex();
+        if (slot < 0 || slot >= size || handlers[slot] != rh) {
+            throw new IllegalArgumentException(rh.getReaction() + " is not scheduled.");
+        }
+        rh.setQueueIndex(NO_SLOT);
+        final int position = positions[slot];
+        if (position != DORMANT) {
+            leave(position);
+        }
+        size--;
+        /*
+         * Keep the slots dense by moving the last slot into the freed one
+         */
+        if (slot != size) {
+            final DependencyHandler<T> moved = handlers[size];
+            handlers[slot] = moved;
+            positions[slot] = positions[size];
+            if (positions[slot] != DORMANT) {
+                heap[positions[slot]] = slot;
+            }
+            moved.setQueueIndex(slot);
+        }
+        handlers[size] = null;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        int levelEnd = 0;
+        int levelSize = 1;
+        for (int i = 0; i < heapSize; i++) {
+            sb.append(times[i]);
+            if (i == levelEnd) {
+                levelSize *= ARITY;
+                levelEnd += levelSize;
+                sb.append('\n');
+            } else {
+                sb.append('\t');
+            }
+        }
+        return sb.toString();
+    }
+
+    private boolean up(final int start) {
+        final int slot = heap[start];
+        final double time = times[start];
+        int index = start;
+        while (index > 0) {
+            final int parent = (index - 1) >> LOG_ARITY;
+            if (time >= times[parent]) {
+                break;
+            }
+            moveTo(parent, index);
+            index = parent;
+        }
+        place(slot, time, index);
+        return index != start;
+    }
+
+    @Override
+    public void updateReaction(final Reaction<T> r) {
+        final int slot = find(r);
+        if (slot != NO_SLOT) {
+            updateReaction(handlers[slot]);
+        }
+    }
+
+    @Override
+    public void updateReaction(final DependencyHandler<T> rh) {
+        final int slot = rh.getQueueIndex();
+        if (slot >= 0 && slot < size && handlers[slot] == rh) {
+            final int position = positions[slot];
+            final double time = rh.getReaction().getTauAsDouble();
+            if (position == DORMANT) {
+                enter(slot, time);
+            } else if (time == Double.POSITIVE_INFINITY) {
+                leave(position);
+                positions[slot] = DORMANT;
+            } else {
+                times[position] = time;
+                if (!up(position)) {
+                    down(position);
+                }
+            }
+        }
+    }
+
+}
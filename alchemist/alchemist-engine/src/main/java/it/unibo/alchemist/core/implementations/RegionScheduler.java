@@ -0,0 +1,512 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.interfaces.ConcurrentRandomGenerator;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * The {@link ReactionManager} of a {@link PartitionedEngine}. The environment
+ * is split along the first coordinate in strips (regions) holding the same
+ * number of nodes when the simulation starts. Each region has its own queue,
+ * and a shared queue holds the reactions that must be executed sequentially.
+ *
+ * A reaction is confined to a region if it does not change the environment,
+ * has no global context, its node and all of its neighbors lie in the region,
+ * and each reaction it influences is either confined to the same region or
+ * periodic. Confined reactions of different regions never touch the same
+ * nodes, and can run concurrently until the first sequential reaction is due.
+ * Periodic reactions are never rescheduled by dependency updates, so the
+ * updates that confined reactions cause on the sequential ones can be applied
+ * at the end of the concurrent phase.
+ *
+ * The classification is updated lazily, before each concurrent phase, for the
+ * reactions whose node or dependencies have changed.
+ *
+ * @param <T>
+ */
+final class RegionScheduler<T> implements ReactionManager<T> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int NO_REGION = -1;
+    private final Environment<T> env;
+    private final Region serial = new Region(NO_REGION);
+    private final List<Region> regions = new ArrayList<>();
+    private final Map<Reaction<T>, DependencyHandler<T>> byReaction = new LinkedHashMap<>();
+    private final Map<DependencyHandler<T>, Region> location = new IdentityHashMap<>();
+    private final Set<DependencyHandler<T>> pending = new LinkedHashSet<>();
+    private final TIntIntMap nodeRegion = new TIntIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, NO_REGION, NO_REGION);
+    private double[] bounds;
+    private int confined;
+
+    /**
+     * @param environment
+     *            the environment
+     * @param regions
+     *            the number of regions
+     */
+    RegionScheduler(final Environment<T> environment, final int regions) {
+        if (regions < 1) {
+            throw new IllegalArgumentException("At least one region is required, " + regions + " were requested.");
+        }
+        env = environment;
+        for (int i = 0; i < regions; i++) {
+            this.regions.add(new Region(i));
+        }
+    }
+
+    @Override
+    public void addReaction(final Reaction<T> r) {
+        addReaction(new DependencyHandlerImpl<>(r));
+    }
+
+    @Override
+    public void addReaction(final DependencyHandler<T> rh) {
+        if (location.containsKey(rh)) {
+            throw new IllegalArgumentException(rh.getReaction() + " is already scheduled.");
+        }
+        serial.queue.addReaction(rh);
+        location.put(rh, serial);
+        byReaction.put(rh.getReaction(), rh);
+        pending.add(rh);
+        /*
+         * Reactions influencing the new one may no longer be confined
+         */
+        pending.addAll(rh.isInfluenced());
+    }
+
+    @Override
+    public Reaction<T> getNext() {
+        Reaction<T> next = serial.queue.getNext();
+        for (final Region region : regions) {
+            final Reaction<T> candidate = region.queue.getNext();
+            if (next == null || candidate != null && candidate.getTauAsDouble() < next.getTauAsDouble()) {
+                next = candidate;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * @param r
+     *            the reaction
+     * @return the index of the region the reaction is confined to, or -1 if
+     *         it is executed sequentially or not scheduled
+     */
+    int getRegion(final Reaction<T> r) {
+        final Region region = location.get(byReaction.get(r));
+        return region == null ? NO_REGION : region.index;
+    }
+
+    /**
+     * @return the putative time of the next reaction that must be executed
+     *         sequentially
+     */
+    double getSequentialTime() {
+        return serial.nextTime();
+    }
+
+    private boolean inputsAllowed(final DependencyHandler<T> rh, final Region region) {
+        for (final DependencyHandler<T> dep : rh.isInfluenced()) {
+            final Region other = location.get(dep);
+            if (other != null && other != serial && other != region) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int locate(final Node<T> node) {
+        final int index = Arrays.binarySearch(bounds, env.getPosition(node).getCoordinate(0));
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void moveTo(final DependencyHandler<T> rh, final Region target) {
+        final Region current = location.get(rh);
+        current.queue.removeReaction(rh);
+        target.queue.addReaction(rh);
+        location.put(rh, target);
+        if (current == serial) {
+            confined++;
+        } else if (target == serial) {
+            confined--;
+        }
+    }
+
+    /**
+     * Marks the reactions of the node for a new classification.
+     *
+     * @param node
+     *            the node whose reactions or neighborhood have changed
+     */
+    void nodeChanged(final Node<T> node) {
+        for (final Reaction<T> r : node.getReactions()) {
+            final DependencyHandler<T> rh = byReaction.get(r);
+            if (rh != null) {
+                pending.add(rh);
+            }
+        }
+    }
+
+    /**
+     * Marks the reactions of the node and of its neighbors, whose
+     * neighborhoods may now span different regions.
+     *
+     * @param node
+     *            the node that has been added
+     */
+    void nodeAdded(final Node<T> node) {
+        nodeChanged(node);
+        for (final Node<T> neighbor : env.getNeighborhood(node)) {
+            nodeChanged(neighbor);
+        }
+    }
+
+    /**
+     * If the node changed region, marks its reactions and the ones of its
+     * neighbors.
+     *
+     * @param node
+     *            the node that has moved
+     */
+    void nodeMoved(final Node<T> node) {
+        if (bounds != null) {
+            final int region = locate(node);
+            if (nodeRegion.put(node.getId(), region) != region) {
+                nodeAdded(node);
+            }
+        }
+    }
+
+    /**
+     * @param node
+     *            the node that has been removed
+     * @param oldNeighbors
+     *            its neighbors before the removal
+     */
+    void nodeRemoved(final Node<T> node, final Iterable<Node<T>> oldNeighbors) {
+        nodeRegion.remove(node.getId());
+        for (final Node<T> neighbor : oldNeighbors) {
+            nodeChanged(neighbor);
+        }
+    }
+
+    private boolean outputsAllowed(final DependencyHandler<T> rh, final Region region) {
+        for (final DependencyHandler<T> dep : rh.influences()) {
+            final Region other = location.get(dep);
+            if (other != null && other != region
+                    && (other != serial || !dep.getReaction().getTimeDistribution().isPeriodic())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Strips with the same number of nodes
+     */
+    private void partition() {
+        final double[] xs = new double[env.getNodesNumber()];
+        int i = 0;
+        for (final Node<T> n : env) {
+            xs[i++] = env.getPosition(n).getCoordinate(0);
+        }
+        Arrays.sort(xs);
+        bounds = new double[regions.size() - 1];
+        for (int b = 0; b < bounds.length; b++) {
+            bounds[b] = xs.length == 0 ? 0 : xs[(int) ((long) xs.length * (b + 1) / regions.size())];
+        }
+        nodeRegion.clear();
+    }
+
+    /**
+     * Updates the classification of the reactions marked since the last call.
+     * Demotions go first and propagate to the reactions influencing the
+     * demoted ones; then the reactions that may be confined are promoted, and
+     * promotions propagate the same way. Both phases move each reaction at
+     * most once.
+     */
+    void reclassify() {
+        if (bounds == null) {
+            partition();
+        }
+        final Deque<DependencyHandler<T>> work = new ArrayDeque<>(pending);
+        pending.clear();
+        final Set<DependencyHandler<T>> candidates = new LinkedHashSet<>();
+        while (!work.isEmpty()) {
+            final DependencyHandler<T> rh = work.poll();
+            final Region current = location.get(rh);
+            if (current != null) {
+                final Region target = regionFor(rh);
+                if (current != serial && (target != current || !outputsAllowed(rh, current))) {
+                    moveTo(rh, serial);
+                    for (final DependencyHandler<T> dep : rh.isInfluenced()) {
+                        if (location.get(dep) != serial) {
+                            work.add(dep);
+                        }
+                    }
+                }
+                if (target != serial && location.get(rh) == serial) {
+                    candidates.add(rh);
+                }
+            }
+        }
+        final Deque<DependencyHandler<T>> promotions = new ArrayDeque<>(candidates);
+        while (!promotions.isEmpty()) {
+            final DependencyHandler<T> rh = promotions.poll();
+            if (location.get(rh) == serial) {
+                final Region target = regionFor(rh);
+                if (target != serial && outputsAllowed(rh, target) && inputsAllowed(rh, target)) {
+                    moveTo(rh, target);
+                    for (final DependencyHandler<T> dep : rh.isInfluenced()) {
+                        if (location.get(dep) == serial) {
+                            promotions.add(dep);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private int regionOf(final Node<T> node) {
+        int region = nodeRegion.get(node.getId());
+        if (region == NO_REGION) {
+            region = locate(node);
+            nodeRegion.put(node.getId(), region);
+        }
+        return region;
+    }
+
+    /*
+     * The region the reaction could be confined to, ignoring its dependencies
+     */
+    private Region regionFor(final DependencyHandler<T> rh) {
+        final Reaction<T> r = rh.getReaction();
+        if (r.mayChangeEnvironment()
+                || r.getInputContext() == Context.GLOBAL
+                || r.getOutputContext() == Context.GLOBAL) {
+            return serial;
+        }
+        final Node<T> node = r.getNode();
+        final int region = regionOf(node);
+        for (final Node<T> neighbor : env.getNeighborhood(node)) {
+            if (regionOf(neighbor) != region) {
+                return serial;
+            }
+        }
+        return regions.get(region);
+    }
+
+    @Override
+    public void removeReaction(final Reaction<T> r) {
+        final DependencyHandler<T> rh = byReaction.get(r);
+        if (rh == null) {
+            throw new IllegalArgumentException(r + " is not scheduled.");
+        }
+        removeReaction(rh);
+    }
+
+    @Override
+    public void removeReaction(final DependencyHandler<T> rh) {
+        final Region current = location.remove(rh);
+        if (current == null) {
+            throw new IllegalArgumentException(rh.getReaction() + " is not scheduled.");
+        }
+        current.queue.removeReaction(rh);
+        if (current != serial) {
+            confined--;
+        }
+        byReaction.remove(rh.getReaction());
+        pending.remove(rh);
+        /*
+         * The reactions influencing the removed one may now be confined
+         */
+        pending.addAll(rh.isInfluenced());
+    }
+
+    /**
+     * Executes concurrently, region by region, all the confined reactions
+     * scheduled before the limit, then applies the updates they caused on the
+     * sequential reactions.
+     *
+     * @param executor
+     *            the executor running the regions
+     * @param limit
+     *            the time limit, exclusive
+     * @param changed
+     *            called, from the region threads, after each execution
+     * @param rng
+     *            the generator shared by the reactions, whose streams are
+     *            assigned to the regions, or null
+     * @return the number of executed reactions
+     * @throws InterruptedException
+     *             if interrupted while waiting for the regions
+     * @throws ExecutionException
+     *             if a reaction fails
+     */
+    long runConcurrently(final ExecutorService executor, final double limit, final Runnable changed,
+            final ConcurrentRandomGenerator rng) throws InterruptedException, ExecutionException {
+        if (confined == 0) {
+            return 0;
+        }
+        final List<Callable<Long>> tasks = new ArrayList<>(regions.size());
+        for (final Region region : regions) {
+            if (region.nextTime() < limit) {
+                tasks.add(() -> region.runUntil(limit, changed, rng));
+            }
+        }
+        long executed = 0;
+        try {
+            for (final Future<Long> result : executor.invokeAll(tasks)) {
+                executed += result.get();
+            }
+        } finally {
+            for (final Region region : regions) {
+                region.flush();
+            }
+        }
+        return executed;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + " with " + regions.size() + " regions, " + confined + " confined and "
+                + serial.queue.size() + " sequential reactions";
+    }
+
+    @Override
+    public void updateReaction(final Reaction<T> r) {
+        final DependencyHandler<T> rh = byReaction.get(r);
+        if (rh != null) {
+            updateReaction(rh);
+        }
+    }
+
+    @Override
+    public void updateReaction(final DependencyHandler<T> rh) {
+        final Region current = location.get(rh);
+        if (current != null) {
+            current.queue.updateReaction(rh);
+        }
+    }
+
+    private final class Region implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final int index;
+        private final PrimitiveIndexedPriorityQueue<T> queue = new PrimitiveIndexedPriorityQueue<>();
+        /*
+         * Sequential reactions influenced during the concurrent phase, and
+         * the time of the influence
+         */
+        private final List<DependencyHandler<T>> deferred = new ArrayList<>();
+        private final List<Time> deferredTimes = new ArrayList<>();
+
+        private Region(final int index) {
+            this.index = index;
+        }
+
+        @SuppressFBWarnings(value = "FE_FLOATING_POINT_EQUALITY", justification = "Any change must trigger a rescheduling")
+        private void flush() {
+            for (int i = 0; i < deferred.size(); i++) {
+                final DependencyHandler<T> rh = deferred.get(i);
+                if (location.containsKey(rh)) {
+                    final Reaction<T> r = rh.getReaction();
+                    final double before = r.getTauAsDouble();
+                    r.update(deferredTimes.get(i), false, env);
+                    if (r.getTauAsDouble() != before) {
+                        updateReaction(rh);
+                    }
+                }
+            }
+            deferred.clear();
+            deferredTimes.clear();
+        }
+
+        private double nextTime() {
+            final Reaction<T> next = queue.getNext();
+            return next == null ? Double.POSITIVE_INFINITY : next.getTauAsDouble();
+        }
+
+        /*
+         * Same as Engine.doStep, for confined reactions only, drawing from
+         * the random stream of the region
+         */
+        private long runUntil(final double limit, final Runnable changed, final ConcurrentRandomGenerator rng) {
+            if (rng == null) {
+                return doRunUntil(limit, changed);
+            }
+            rng.use(index);
+            try {
+                return doRunUntil(limit, changed);
+            } finally {
+                rng.release();
+            }
+        }
+
+        @SuppressFBWarnings(value = "FE_FLOATING_POINT_EQUALITY", justification = "Any change must trigger a rescheduling")
+        private long doRunUntil(final double limit, final Runnable changed) {
+            long executed = 0;
+            for (DependencyHandler<T> rh = queue.getNextHandler();
+                    rh != null && rh.getReaction().getTauAsDouble() < limit;
+                    rh = queue.getNextHandler()) {
+                final Reaction<T> mu = rh.getReaction();
+                final Time t = mu.getTau();
+                if (mu.canExecute()) {
+                    final List<DependencyHandler<T>> deps = rh.influences();
+                    mu.execute();
+                    changed.run();
+                    for (final DependencyHandler<T> dep : deps) {
+                        if (location.get(dep) == this) {
+                            final Reaction<T> r = dep.getReaction();
+                            final double before = r.getTauAsDouble();
+                            r.update(t, false, env);
+                            if (r.getTauAsDouble() != before) {
+                                queue.updateReaction(dep);
+                            }
+                        } else {
+                            deferred.add(dep);
+                            deferredTimes.add(t);
+                        }
+                    }
+                }
+                mu.update(t, true, env);
+                queue.updateReaction(rh);
+                executed++;
+            }
+            return executed;
+        }
+    }
+
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import gnu.trove.set.TIntSet;
+import gnu.trove.set.hash.TIntHashSet;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * An {@link Engine} executing the reactions speculatively. Each step takes up
+ * to lookahead reactions in order of putative time, stopping at the first one
+ * that conflicts with the previous ones: two reactions conflict if one
+ * depends on the other, if they share any dependency, or if their nodes are
+ * the same, neighbors, or have a common neighbor. The batch also stops after
+ * any reaction influencing a non periodic one (see
+ * {@link it.unibo.alchemist.model.interfaces.TimeDistribution#isPeriodic()}),
+ * since updating the latter may schedule it before the following reactions,
+ * and let it influence them. Reactions with global contexts or that may
+ * change the environment (see {@link Reaction#mayChangeEnvironment()}) are
+ * always executed alone. The reactions taken are executed concurrently on the
+ * executor; then, in order of putative time, their dependencies get updated,
+ * they are rescheduled, and the output monitors notified, exactly as if they
+ * had been executed sequentially.
+ *
+ * As a consequence, the results are the same as those of {@link Engine},
+ * unless the reactions draw random numbers while executing. Time
+ * distributions draw while rescheduling, in the sequential order, but the
+ * conditions and actions of a batch draw from the shared stream of the
+ * generator set with {@link #setRandomGenerator(it.unibo.alchemist.model.interfaces.ConcurrentRandomGenerator)}
+ * under a lock, in the order the threads get it: in this case, seeded runs
+ * are not reproducible. Any other generator they use must be thread safe.
+ * Termination conditions are checked after each reaction has been
+ * committed, not executed.
+ *
+ * @param <T>
+ */
+public class SpeculativeEngine<T> extends Engine<T> {
+
+    private final int lookahead;
+    private final ExecutorService executor;
+
+    /**
+     * @param e
+     *            the environment at the initial time
+     * @param maxSteps
+     *            the maximum number of steps to do
+     * @param t
+     *            the maximum time to reach
+     * @param lookahead
+     *            the maximum number of reactions executed concurrently. Must
+     *            be positive: 1 disables the speculative execution
+     * @param executor
+     *            the executor running the reactions. It is not shut down by
+     *            this engine
+     */
+    public SpeculativeEngine(final Environment<T> e, final long maxSteps, final Time t, final int lookahead, final ExecutorService executor) {
+        super(e, maxSteps, t, null);
+        if (lookahead < 1) {
+            throw new IllegalArgumentException("The lookahead must be positive, " + lookahead + " was provided.");
+        }
+        this.lookahead = lookahead;
+        this.executor = Objects.requireNonNull(executor);
+    }
+
+    /**
+     * Executes concurrently the longest prefix of the next reactions that do
+     * not conflict with each other, then commits them in order.
+     */
+    @Override
+    protected void doStep() throws InterruptedException, ExecutionException {
+        final Environment<T> env = getEnvironment();
+        /*
+         * The batch is built reading the neighborhoods, and its members read
+         * them concurrently: the lazy updates must be applied beforehand
+         */
+        env.refreshNeighborhoods();
+        final ReactionManager<T> scheduler = getReactionManager();
+        final Reaction<T> first = scheduler.getNext();
+        if (lookahead == 1 || first == null || !isSpeculable(first)) {
+            super.doStep();
+            return;
+        }
+        final List<DependencyHandler<T>> batch = new ArrayList<>(lookahead);
+        final Set<DependencyHandler<T>> related = new HashSet<>();
+        final TIntSet touched = new TIntHashSet();
+        final long size = Math.max(1, Math.min(lookahead, getFinalStep() - getStep()));
+        boolean reschedulesOthers = false;
+        for (Reaction<T> r = first;
+                r != null && batch.size() < size && (batch.isEmpty() || r.getTau().compareTo(getFinalTime()) <= 0);
+                r = scheduler.getNext()) {
+            final DependencyHandler<T> rh = getHandler(r);
+            if (reschedulesOthers || !isSpeculable(r) || conflicts(rh, related, touched)) {
+                break;
+            }
+            scheduler.removeReaction(rh);
+            batch.add(rh);
+            related.add(rh);
+            related.addAll(rh.influences());
+            related.addAll(rh.isInfluenced());
+            touched.add(r.getNode().getId());
+            for (final Node<T> n : env.getNeighborhood(r.getNode())) {
+                touched.add(n.getId());
+            }
+            reschedulesOthers = reschedulesOthers(rh);
+        }
+        final boolean[] executed = new boolean[batch.size()];
+        if (batch.size() == 1) {
+            executed[0] = executeIfPossible(first);
+        } else {
+            final List<Callable<Boolean>> tasks = new ArrayList<>(batch.size());
+            for (final DependencyHandler<T> rh : batch) {
+                tasks.add(sharingRandomGenerators(() -> executeIfPossible(rh.getReaction())));
+            }
+            final List<Future<Boolean>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < executed.length; i++) {
+                executed[i] = results.get(i).get();
+            }
+        }
+        environmentChanged();
+        for (int i = 0; i < executed.length; i++) {
+            final DependencyHandler<T> rh = batch.get(i);
+            advanceTo(rh.getReaction());
+            if (executed[i]) {
+                for (final DependencyHandler<T> dep : rh.influences()) {
+                    updateReaction(dep);
+                }
+            }
+            reschedule(rh);
+            commitStep(1);
+        }
+    }
+
+    /*
+     * Updating a non periodic reaction may move it before the next reactions
+     * of the batch, and it may then influence them: the batch must stop
+     */
+    private static boolean reschedulesOthers(final DependencyHandler<?> rh) {
+        for (final DependencyHandler<?> dep : rh.influences()) {
+            if (!dep.getReaction().getTimeDistribution().isPeriodic()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean executeIfPossible(final Reaction<?> r) {
+        if (r.canExecute()) {
+            r.execute();
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isSpeculable(final Reaction<?> r) {
+        return !r.mayChangeEnvironment()
+                && !r.getTau().isInfinite()
+                && !r.getInputContext().equals(Context.GLOBAL)
+                && !r.getOutputContext().equals(Context.GLOBAL);
+    }
+
+    /*
+     * A reaction conflicts with the batch if it is related to any reaction of
+     * the batch or shares any dependency with them, or if its node or any of
+     * its neighbors is the node or a neighbor of any reaction of the batch.
+     * Neighborhoods are considered even for local reactions, since some of
+     * them exchange messages with the neighbors.
+     */
+    private boolean conflicts(final DependencyHandler<T> rh, final Set<DependencyHandler<T>> related, final TIntSet touched) {
+        if (related.contains(rh)) {
+            return true;
+        }
+        for (final DependencyHandler<T> dep : rh.influences()) {
+            if (related.contains(dep)) {
+                return true;
+            }
+        }
+        for (final DependencyHandler<T> dep : rh.isInfluenced()) {
+            if (related.contains(dep)) {
+                return true;
+            }
+        }
+        final Node<T> node = rh.getReaction().getNode();
+        if (touched.contains(node.getId())) {
+            return true;
+        }
+        for (final Node<T> n : getEnvironment().getNeighborhood(node)) {
+            if (touched.contains(n.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
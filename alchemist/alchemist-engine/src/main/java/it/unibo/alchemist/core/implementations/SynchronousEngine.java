@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * An {@link Engine} executing the simulation in synchronous rounds: all the
+ * reactions scheduled at the same time are executed together, the local ones
+ * concurrently on a {@link ForkJoinPool}. The state they make visible to the
+ * neighbors (e.g. Protelis and Scafi messages) is double buffered, and
+ * movements and neighborhood changes are applied in a batch at the end of the
+ * round (see {@link #doStep()}).
+ *
+ * This fits scenarios where all the reactions are periodic with the same
+ * period (e.g. aggregate programs executed in rounds), where the order of the
+ * events within a round is irrelevant. Any other scenario still runs, but
+ * rounds shrink to the reactions that happen to be scheduled at the very
+ * same time. The output monitors are notified once per round, and the step
+ * counter advances by the number of reactions in the round.
+ *
+ * @param <T>
+ */
+public class SynchronousEngine<T> extends Engine<T> {
+
+    private final ForkJoinPool pool;
+    /*
+     * The reactions of the round being executed, which are out of the queue
+     */
+    private final Set<DependencyHandler<T>> round = new LinkedHashSet<>();
+
+    /**
+     * Builds an engine using as many threads as the available processors.
+     *
+     * @param e
+     *            the environment at the initial time
+     * @param maxSteps
+     *            the maximum number of steps to do
+     * @param t
+     *            the maximum time to reach
+     */
+    public SynchronousEngine(final Environment<T> e, final long maxSteps, final Time t) {
+        this(e, maxSteps, t, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param e
+     *            the environment at the initial time
+     * @param maxSteps
+     *            the maximum number of steps to do
+     * @param t
+     *            the maximum time to reach
+     * @param threads
+     *            the number of threads executing each round
+     */
+    public SynchronousEngine(final Environment<T> e, final long maxSteps, final Time t, final int threads) {
+        super(e, maxSteps, t, null);
+        pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Executes, as a single round, all the reactions scheduled at the next
+     * putative time. The reactions which read and write only locally and do
+     * not change the environment are executed concurrently, one task per
+     * node, in buffered mode (see {@link Reaction#executeBuffered()}), and
+     * their changes get committed once all of them are done. The other
+     * reactions of the round, which may e.g. move nodes, are then executed
+     * sequentially, with the movements deferred (see
+     * {@link Environment#setDeferredMovements(boolean)}): the nodes take
+     * their new positions immediately, but the neighborhoods are updated, and
+     * the dependencies of the moved nodes notified, once per node at the end
+     * of the sequential phase. Finally, the executed reactions and the ones
+     * depending on them are rescheduled, and the output monitors get notified
+     * once.
+     */
+    @Override
+    @SuppressFBWarnings(value = "FE_FLOATING_POINT_EQUALITY", justification = "A round groups the reactions scheduled at the very same time")
+    protected void doStep() throws InterruptedException, ExecutionException {
+        final ReactionManager<T> scheduler = getReactionManager();
+        final Reaction<T> first = scheduler.getNext();
+        if (first == null || first.getTau().isInfinite()) {
+            super.doStep();
+            return;
+        }
+        advanceTo(first);
+        final double t = first.getTauAsDouble();
+        for (Reaction<T> r = first; r != null && r.getTauAsDouble() == t; r = scheduler.getNext()) {
+            final DependencyHandler<T> rh = getHandler(r);
+            scheduler.removeReaction(rh);
+            round.add(rh);
+        }
+        final int size = round.size();
+        final Map<Node<T>, List<DependencyHandler<T>>> local = new LinkedHashMap<>();
+        final List<DependencyHandler<T>> sequential = new ArrayList<>();
+        for (final DependencyHandler<T> rh : round) {
+            final Reaction<T> r = rh.getReaction();
+            if (r.mayChangeEnvironment()
+                    || !r.getInputContext().equals(Context.LOCAL)
+                    || !r.getOutputContext().equals(Context.LOCAL)) {
+                sequential.add(rh);
+            } else {
+                local.computeIfAbsent(r.getNode(), n -> new ArrayList<>()).add(rh);
+            }
+        }
+        final Environment<T> env = getEnvironment();
+        /*
+         * The concurrent phase must not trigger any lazy update
+         */
+        env.refreshNeighborhoods();
+        final List<DependencyHandler<T>> executed = new ArrayList<>(size);
+        if (local.size() == 1) {
+            executed.addAll(executeBuffered(local.values().iterator().next()));
+        } else if (!local.isEmpty()) {
+            final List<Callable<List<DependencyHandler<T>>>> tasks = new ArrayList<>(local.size());
+            for (final List<DependencyHandler<T>> group : local.values()) {
+                tasks.add(sharingRandomGenerators(() -> executeBuffered(group)));
+            }
+            for (final Future<List<DependencyHandler<T>>> result : pool.invokeAll(tasks)) {
+                executed.addAll(result.get());
+            }
+        }
+        for (final DependencyHandler<T> rh : executed) {
+            rh.getReaction().commit();
+        }
+        environmentChanged();
+        collectUpdates();
+        for (final DependencyHandler<T> rh : executed) {
+            updateOutOfRound(rh.influences());
+        }
+        env.setDeferredMovements(true);
+        try {
+            for (final DependencyHandler<T> rh : sequential) {
+                /*
+                 * Previous reactions of the round may have removed it
+                 */
+                if (round.contains(rh)) {
+                    final Reaction<T> r = rh.getReaction();
+                    if (r.canExecute()) {
+                        final List<DependencyHandler<T>> deps = rh.influences();
+                        r.execute();
+                        environmentChanged();
+                        updateOutOfRound(deps);
+                    }
+                }
+            }
+        } finally {
+            env.setDeferredMovements(false);
+        }
+        /*
+         * The deferred neighborhood changes get collected as well, so that
+         * no reaction of the round is updated while out of the queue
+         */
+        env.refreshNeighborhoods();
+        for (final DependencyHandler<T> rh : round) {
+            reschedule(rh);
+        }
+        round.clear();
+        applyUpdates();
+        commitStep(size);
+    }
+
+    /*
+     * Executes the reactions of a node in buffered mode, returning the ones
+     * that could execute
+     */
+    private static <T> List<DependencyHandler<T>> executeBuffered(final List<DependencyHandler<T>> group) {
+        final List<DependencyHandler<T>> result = new ArrayList<>(group.size());
+        for (final DependencyHandler<T> rh : group) {
+            final Reaction<T> r = rh.getReaction();
+            if (r.canExecute()) {
+                r.executeBuffered();
+                result.add(rh);
+            }
+        }
+        return result;
+    }
+
+    private void updateOutOfRound(final List<DependencyHandler<T>> deps) {
+        for (final DependencyHandler<T> dep : deps) {
+            if (!round.contains(dep)) {
+                updateReaction(dep);
+            }
+        }
+    }
+
+    @Override
+    protected void unschedule(final DependencyHandler<T> rh) {
+        if (!round.remove(rh)) {
+            super.unschedule(rh);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            super.run();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import gnu.trove.map.TDoubleObjectMap;
+import gnu.trove.map.hash.TDoubleObjectHashMap;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.interfaces.Reaction;
+
+/**
+ * A calendar-like {@link ReactionManager} tailored for periodic workloads,
+ * where many reactions share a handful of distinct putative times (e.g. all
+ * the rounds of a {@link it.unibo.alchemist.model.interfaces.TimeDistribution}
+ * of the DiracComb family started at the same phase). Reactions are grouped
+ * in one bucket per distinct putative time, and only the buckets are kept
+ * sorted in a binary heap. Moving a reaction to a time which is already
+ * scheduled, as it happens with rounds, takes constant time; with k distinct
+ * times, any other operation takes O(log k). Reactions with infinite
+ * putative time are dormant by construction, as they all share one bucket at
+ * the bottom of the heap.
+ *
+ * If all times are distinct, as it happens with exponential distributions,
+ * this queue degrades gracefully to a binary heap with an additional hash
+ * lookup per operation: in such case, prefer a
+ * {@link PrimitiveIndexedPriorityQueue}. Reactions sharing the same putative
+ * time are returned in no specific order.
+ *
+ * As in {@link PrimitiveIndexedPriorityQueue}, each scheduled reaction owns
+ * a dense slot stored in its {@link DependencyHandler}, and the
+ * {@link Reaction}-based operations require a linear scan.
+ *
+ * @param <T>
+ */
+public class TimeBucketQueue<T> implements ReactionManager<T> {
+
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int NO_SLOT = -1;
+
+    private final TDoubleObjectMap<Bucket> byTime = new TDoubleObjectHashMap<>();
+    private final List<Bucket> heap = new ArrayList<>();
+    private final List<Bucket> pool = new ArrayList<>();
+    /*
+     * Slot order: the handler, its bucket and its position inside the bucket.
+     */
+    private DependencyHandler<T>[] handlers;
+    private Bucket[] buckets;
+    private int[] positions;
+    private int size;
+
+    /**
+     * Builds an empty queue.
+     */
+    public TimeBucketQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Builds an empty queue.
+     *
+     * @param initialCapacity
+     *            the number of reactions this queue can contain before
+     *            growing its internal arrays
+     */
+    @SuppressWarnings("unchecked")
+    public TimeBucketQueue(final int initialCapacity) {
+        final int capacity = Math.max(1, initialCapacity);
+        handlers = (DependencyHandler<T>[]) new DependencyHandler<?>[capacity];
+        buckets = new Bucket[capacity];
+        positions = new int[capacity];
+    }
+
+    @Override
+    public void addReaction(final Reaction<T> r) {
+        addReaction(new DependencyHandlerImpl<>(r));
+    }
+
+    @Override
+    public void addReaction(final DependencyHandler<T> rh) {
+        if (rh.getQueueIndex() != NO_SLOT) {
+            throw new IllegalArgumentException(rh.getReaction() + " is already scheduled.");
+        }
+        if (size == handlers.length) {
+            final int capacity = size * 2;
+            handlers = Arrays.copyOf(handlers, capacity);
+            buckets = Arrays.copyOf(buckets, capacity);
+            positions = Arrays.copyOf(positions, capacity);
+        }
+        final int slot = size;
+        size++;
+        handlers[slot] = rh;
+        rh.setQueueIndex(slot);
+        enter(slot, rh.getReaction().getTauAsDouble());
+    }
+
+    private void down(final int start) {
+        final Bucket bucket = heap.get(start);
+        final int last = heap.size();
+        int index = start;
+        while (true) {
+            final int left = 2 * index + 1;
+            if (left >= last) {
+                break;
+            }
+            final int right = left + 1;
+            final int min = right < last && heap.get(right).time < heap.get(left).time ? right : left;
+            if (bucket.time <= heap.get(min).time) {
+                break;
+            }
+            moveTo(min, index);
+            index = min;
+        }
+        place(bucket, index);
+    }
+
+    /*
+     * Puts the slot in the bucket of the given time, creating it if needed
+     */
+    private void enter(final int slot, final double time) {
+        Bucket bucket = byTime.get(time);
+        if (bucket == null) {
+            bucket = pool.isEmpty() ? new Bucket() : pool.remove(pool.size() - 1);
+            bucket.time = time;
+            byTime.put(time, bucket);
+            heap.add(bucket);
+            up(heap.size() - 1);
+        }
+        if (bucket.size == bucket.slots.length) {
+            bucket.slots = Arrays.copyOf(bucket.slots, bucket.size * 2);
+        }
+        bucket.slots[bucket.size] = slot;
+        buckets[slot] = bucket;
+        positions[slot] = bucket.size;
+        bucket.size++;
+    }
+
+    private int find(final Reaction<T> r) {
+        for (int slot = 0; slot < size; slot++) {
+            if (handlers[slot].getReaction().equals(r)) {
+                return slot;
+            }
+        }
+        return NO_SLOT;
+    }
+
+    @Override
+    public Reaction<T> getNext() {
+        if (heap.isEmpty()) {
+            return null;
+        }
+        final Bucket first = heap.get(0);
+        return handlers[first.slots[first.size - 1]].getReaction();
+    }
+
+    private boolean isScheduled(final DependencyHandler<T> rh, final int slot) {
+        return slot >= 0 && slot < size && handlers[slot] == rh;
+    }
+
+    /*
+     * Removes the slot from its bucket, dropping the bucket if it gets empty
+     */
+    private void leave(final int slot) {
+        final Bucket bucket = buckets[slot];
+        final int position = positions[slot];
+        bucket.size--;
+        if (position != bucket.size) {
+            final int moved = bucket.slots[bucket.size];
+            bucket.slots[position] = moved;
+            positions[moved] = position;
+        }
+        buckets[slot] = null;
+        if (bucket.size == 0) {
+            byTime.remove(bucket.time);
+            final int index = bucket.heapIndex;
+            final Bucket last = heap.remove(heap.size() - 1);
+            if (index != heap.size()) {
+                place(last, index);
+                if (!up(index)) {
+                    down(index);
+                }
+            }
+            pool.add(bucket);
+        }
+    }
+
+    private void moveTo(final int from, final int to) {
+        place(heap.get(from), to);
+    }
+
+    private void place(final Bucket bucket, final int index) {
+        heap.set(index, bucket);
+        bucket.heapIndex = index;
+    }
+
+    @Override
+    public void removeReaction(final Reaction<T> r) {
+        final int slot = find(r);
+        if (slot == NO_SLOT) {
+            throw new IllegalArgumentException(r + " is not scheduled.");
+        }
+        removeReaction(handlers[slot]);
+    }
+
+    @Override
+    public void removeReaction(final DependencyHandler<T> rh) {
+        final int slot = rh.getQueueIndex();
+        if (!isScheduled(rh, slot)) {
+            throw new IllegalArgumentException(rh.getReaction() + " is not scheduled.");
+        }
+        rh.setQueueIndex(NO_SLOT);
+        leave(slot);
+        size--;
+        /*
+         * Keep the slots dense by moving the last slot into the freed one
+         */
+        if (slot != size) {
+            final DependencyHandler<T> moved = handlers[size];
+            final Bucket bucket = buckets[size];
+            handlers[slot] = moved;
+            buckets[slot] = bucket;
+            positions[slot] = positions[size];
+            bucket.slots[positions[slot]] = slot;
+            moved.setQueueIndex(slot);
+        }
+        handlers[size] = null;
+        buckets[size] = null;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder();
+        for (final Bucket bucket : heap) {
+            sb.append(bucket.time).append(": ").append(bucket.size).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private boolean up(final int start) {
+        final Bucket bucket = heap.get(start);
+        int index = start;
+        while (index > 0) {
+            final int parent = (index - 1) / 2;
+            if (bucket.time >= heap.get(parent).time) {
+                break;
+            }
+            moveTo(parent, index);
+            index = parent;
+        }
+        place(bucket, index);
+        return index != start;
+    }
+
+    @Override
+    public void updateReaction(final Reaction<T> r) {
+        final int slot = find(r);
+        if (slot != NO_SLOT) {
+            updateReaction(handlers[slot]);
+        }
+    }
+
+    @Override
+    @SuppressFBWarnings(value = "FE_FLOATING_POINT_EQUALITY", justification = "Buckets are indexed by the exact time")
+    public void updateReaction(final DependencyHandler<T> rh) {
+        final int slot = rh.getQueueIndex();
+        if (isScheduled(rh, slot)) {
+            final double time = rh.getReaction().getTauAsDouble();
+            if (buckets[slot].time != time) {
+                leave(slot);
+                enter(slot, time);
+            }
+        }
+    }
+
+    private static final class Bucket implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private double time;
+        private int[] slots = new int[DEFAULT_CAPACITY];
+        private int size;
+        private int heapIndex;
+    }
+
+}
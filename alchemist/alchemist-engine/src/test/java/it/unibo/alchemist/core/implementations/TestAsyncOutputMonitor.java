@@ -0,0 +1,220 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.core.tests.util.SumReaction;
+import it.unibo.alchemist.core.tests.util.TestNode;
+import it.unibo.alchemist.core.tests.util.TestScenarios;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Checks the queueing, draining and failure handling of
+ * {@link AsyncOutputMonitor}.
+ */
+public class TestAsyncOutputMonitor {
+
+    private static final int CAPACITY = 2;
+    private static final int STEPS = 10;
+    private static final long WAIT = 200;
+    private static final long TIMEOUT = 10;
+
+    /**
+     * When the queue is full, the simulation thread blocks until the wrapped
+     * monitor catches up, and no step is lost.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public void testBackPressure() throws InterruptedException {
+        final Environment<Double> env = newEnvironment();
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingMonitor wrapped = new RecordingMonitor(release, null);
+        final AsyncOutputMonitor<Double> async = new AsyncOutputMonitor<>(wrapped, CAPACITY);
+        final Reaction<Double> r = env.getNodes().get(0).getReactions().get(0);
+        async.initialized(env);
+        /*
+         * The worker blocks on the initialization: these fill the queue
+         */
+        for (int step = 0; step < CAPACITY; step++) {
+            async.stepDone(env, r, new DoubleTime(step), step);
+        }
+        final CountDownLatch done = new CountDownLatch(1);
+        final Thread producer = new Thread(() -> {
+            async.stepDone(env, r, new DoubleTime(CAPACITY), CAPACITY);
+            done.countDown();
+        });
+        producer.start();
+        assertFalse(done.await(WAIT, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(done.await(TIMEOUT, TimeUnit.SECONDS));
+        producer.join();
+        async.finished(env, new DoubleTime(CAPACITY), CAPACITY);
+        final List<Long> expected = new ArrayList<>();
+        for (long step = 0; step <= CAPACITY; step++) {
+            expected.add(step);
+        }
+        assertEquals(expected, wrapped.steps);
+        assertTrue(wrapped.finished);
+        /*
+         * The live reaction is never handed to the other thread
+         */
+        for (final Reaction<Double> received : wrapped.reactions) {
+            assertNull(received);
+        }
+    }
+
+    /**
+     * {@link AsyncOutputMonitor#finished(Environment, Time, long)} returns
+     * only once every queued snapshot has been processed, and the snapshots
+     * carry the state of the environment at their sampling point.
+     */
+    @Test
+    public void testDrainOnFinish() {
+        final Environment<Double> env = newEnvironment();
+        final RecordingMonitor wrapped = new RecordingMonitor(null, null);
+        final AsyncOutputMonitor<Double> async = new AsyncOutputMonitor<>(wrapped, STEPS);
+        final Node<Double> node = env.getNodes().get(0);
+        async.initialized(env);
+        for (int step = 0; step < STEPS; step++) {
+            node.setConcentration(TestScenarios.SHARED, (double) step);
+            async.stepDone(env, null, new DoubleTime(step), step);
+        }
+        async.finished(env, new DoubleTime(STEPS), STEPS);
+        assertTrue(wrapped.finished);
+        assertEquals(STEPS, wrapped.steps.size());
+        for (int step = 0; step < STEPS; step++) {
+            assertEquals((double) step, wrapped.shared.get(step), 0);
+        }
+    }
+
+    /**
+     * A failure of the wrapped monitor is rethrown on the simulation thread
+     * at a following sampling point, and the end of the simulation is not
+     * delivered to the failed monitor.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     */
+    @Test
+    public void testFailure() throws InterruptedException {
+        final Environment<Double> env = newEnvironment();
+        final IllegalArgumentException cause = new IllegalArgumentException();
+        final CountDownLatch failed = new CountDownLatch(1);
+        final RecordingMonitor wrapped = new RecordingMonitor(null, cause) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public void stepDone(final Environment<Double> env, final Reaction<Double> r, final Time time, final long step) {
+                try {
+                    super.stepDone(env, r, time, step);
+                } finally {
+                    failed.countDown();
+                }
+            }
+        };
+        final AsyncOutputMonitor<Double> async = new AsyncOutputMonitor<>(wrapped, CAPACITY);
+        async.initialized(env);
+        async.stepDone(env, null, new DoubleTime(0), 0);
+        assertTrue(failed.await(TIMEOUT, TimeUnit.SECONDS));
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+        try {
+            /*
+             * The failure gets recorded right after the exception is caught
+             */
+            for (long step = 1; System.nanoTime() < deadline; step++) {
+                async.stepDone(env, null, new DoubleTime(step), step);
+                Thread.sleep(1);
+            }
+            fail("The failure of the wrapped monitor was not propagated");
+        } catch (IllegalStateException e) {
+            assertSame(cause, e.getCause());
+        }
+        async.finished(env, new DoubleTime(1), 1);
+        assertFalse(wrapped.finished);
+        assertEquals(Collections.singletonList(0L), wrapped.steps);
+    }
+
+    private static Environment<Double> newEnvironment() {
+        final Environment<Double> env = new Continuous2DEnvironment<>();
+        final Node<Double> node = new TestNode(env);
+        node.addReaction(new SumReaction(env, node, new DiracComb<>(1),
+                Context.LOCAL, Context.LOCAL, TestScenarios.GATHERED, TestScenarios.SHARED));
+        env.addNode(node, env.makePosition(0, 0));
+        return env;
+    }
+
+    /*
+     * Records the notifications, optionally waiting for a latch when
+     * initialized, or failing at each step
+     */
+    private static class RecordingMonitor implements OutputMonitor<Double> {
+        private static final long serialVersionUID = 1L;
+        private final transient CountDownLatch latch;
+        private final RuntimeException failure;
+        private final List<Long> steps = new ArrayList<>();
+        private final List<Reaction<Double>> reactions = new ArrayList<>();
+        private final List<Double> shared = new ArrayList<>();
+        private volatile boolean finished;
+
+        RecordingMonitor(final CountDownLatch latch, final RuntimeException failure) {
+            this.latch = latch;
+            this.failure = failure;
+        }
+
+        @Override
+        public void finished(final Environment<Double> env, final Time time, final long step) {
+            finished = true;
+        }
+
+        @Override
+        public void initialized(final Environment<Double> env) {
+            if (latch != null) {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        @Override
+        public void stepDone(final Environment<Double> env, final Reaction<Double> r, final Time time, final long step) {
+            steps.add(step);
+            reactions.add(r);
+            shared.add(env.getNodes().get(0).getConcentration(TestScenarios.SHARED));
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.danilopianini.util.LinkedListSet;
+import org.danilopianini.util.ListSet;
+import org.junit.Test;
+
+import it.unibo.alchemist.core.tests.util.TestNode;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+import it.unibo.alchemist.model.implementations.reactions.AReaction;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Checks that the lookups of {@link MoleculeIndex} never miss a reaction
+ * that {@link MapBasedDependencyGraph#influences(Reaction, List)} accepts,
+ * and that they return the reactions in insertion order.
+ */
+public class TestMoleculeIndex {
+
+    private static final int REACTIONS = 200;
+    private static final int MAX_MOLECULES = 3;
+    private static final double NULL_LIST_PROBABILITY = 0.05;
+    private static final Molecule WILDCARD = new Molecule() {
+        private static final long serialVersionUID = 1L;
+        @Override
+        public boolean dependsOn(final Molecule mol) {
+            return true;
+        }
+        @Override
+        public long getId() {
+            return -1;
+        }
+        @Override
+        public String getName() {
+            return "*";
+        }
+    };
+    /*
+     * Tuples with variables, whose key is their arity, simple molecules,
+     * whose key is themselves, molecules with a null key, and null molecules
+     */
+    private static final Molecule[] MOLECULES = {
+        new TupleMolecule("a"),
+        new TupleMolecule("A"),
+        new TupleMolecule("a, b"),
+        new TupleMolecule("A, b"),
+        new TupleMolecule("a, B"),
+        new TupleMolecule("a, b, c"),
+        new TupleMolecule("A, B, C"),
+        new TupleMolecule("[a;b;], c"),
+        new SimpleMolecule("a"),
+        new SimpleMolecule("b"),
+        new SimpleMolecule("1"),
+        WILDCARD,
+        null,
+    };
+
+    private final Random rng = new Random(0);
+
+    /**
+     * Indexes random reactions, and checks the lookups for the readers and
+     * the writers of each of them, before and after removing half of them.
+     */
+    @Test
+    public void testNoMisses() {
+        final Environment<Double> env = new Continuous2DEnvironment<>();
+        final Node<Double> node = new TestNode(env);
+        final MoleculeIndex<Reaction<Double>> index = new MoleculeIndex<>();
+        final List<Reaction<Double>> reactions = new ArrayList<>();
+        for (int i = 0; i < REACTIONS; i++) {
+            final Reaction<Double> r = new MoleculesReaction(node, randomMolecules(), randomMolecules());
+            reactions.add(r);
+            index.add(r, r);
+        }
+        assertFalse(index.isEmpty());
+        check(index, reactions, reactions);
+        final List<Reaction<Double>> left = new ArrayList<>();
+        for (final Reaction<Double> r : reactions) {
+            if (rng.nextBoolean()) {
+                index.remove(r);
+            } else {
+                left.add(r);
+            }
+        }
+        check(index, left, reactions);
+        for (final Reaction<Double> r : left) {
+            index.remove(r);
+        }
+        assertTrue(index.isEmpty());
+    }
+
+    private static void check(final MoleculeIndex<Reaction<Double>> index, final List<Reaction<Double>> indexed,
+            final List<Reaction<Double>> queries) {
+        final Set<Reaction<Double>> all = new LinkedHashSet<>();
+        index.forEach(all::add);
+        assertTrue(all.containsAll(indexed) && indexed.containsAll(all));
+        for (final Reaction<Double> query : queries) {
+            final List<Reaction<Double>> readers = new ArrayList<>();
+            index.forEachReader(query.getInfluencedMolecules(), readers::add);
+            final List<Reaction<Double>> writers = new ArrayList<>();
+            index.forEachWriter(query.getInfluencingMolecules(), writers::add);
+            assertEquals(inOrder(indexed, readers), readers);
+            assertEquals(inOrder(indexed, writers), writers);
+            for (final Reaction<Double> r : indexed) {
+                if (MapBasedDependencyGraph.influences(query, r.getInfluencingMolecules())) {
+                    assertTrue(query + " may influence " + r, readers.contains(r));
+                }
+                if (MapBasedDependencyGraph.influences(r, query.getInfluencingMolecules())) {
+                    assertTrue(r + " may influence " + query, writers.contains(r));
+                }
+            }
+            assertTrue(indexed.containsAll(readers));
+            assertTrue(indexed.containsAll(writers));
+        }
+    }
+
+    /*
+     * The found reactions, once each, in the order they were indexed
+     */
+    private static List<Reaction<Double>> inOrder(final List<Reaction<Double>> indexed, final List<Reaction<Double>> found) {
+        return indexed.stream().filter(found::contains).collect(Collectors.toList());
+    }
+
+    private ListSet<Molecule> randomMolecules() {
+        if (rng.nextDouble() < NULL_LIST_PROBABILITY) {
+            return null;
+        }
+        final ListSet<Molecule> result = new LinkedListSet<>();
+        final int size = rng.nextInt(MAX_MOLECULES + 1);
+        for (int i = 0; i < size; i++) {
+            result.add(MOLECULES[rng.nextInt(MOLECULES.length)]);
+        }
+        return result;
+    }
+
+    /*
+     * A tuple of comma separated arguments, where the capitalized ones are
+     * variables matching any argument, as the SAPERE templates: tuples
+     * depend on each other only if they have the same arity
+     */
+    private static final class TupleMolecule implements Molecule {
+        private static final long serialVersionUID = 1L;
+        private final String[] args;
+
+        TupleMolecule(final String tuple) {
+            args = tuple.split(",\\s*");
+        }
+
+        @Override
+        public boolean dependsOn(final Molecule mol) {
+            if (!(mol instanceof TupleMolecule) || ((TupleMolecule) mol).args.length != args.length) {
+                return false;
+            }
+            final String[] other = ((TupleMolecule) mol).args;
+            for (int i = 0; i < args.length; i++) {
+                if (!isVariable(args[i]) && !isVariable(other[i]) && !args[i].equals(other[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isVariable(final String arg) {
+            return Character.isUpperCase(arg.charAt(0));
+        }
+
+        @Override
+        public Object getDependencyKey() {
+            return args.length;
+        }
+
+        @Override
+        public long getId() {
+            return Arrays.hashCode(args);
+        }
+
+        @Override
+        public String getName() {
+            return String.join(", ", args);
+        }
+
+        @Override
+        public String toString() {
+            return getName();
+        }
+    }
+
+    /*
+     * A reaction reading and writing the provided molecules
+     */
+    private static final class MoleculesReaction extends AReaction<Double> {
+        private static final long serialVersionUID = 1L;
+
+        MoleculesReaction(final Node<Double> node, final ListSet<Molecule> read, final ListSet<Molecule> written) {
+            super(node, new DiracComb<>(1));
+            setInfluencingMolecules(read);
+            setInfluencedMolecules(written);
+        }
+
+        @Override
+        public Reaction<Double> cloneOnNewNode(final Node<Double> n, final Time currentTime) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public double getRate() {
+            return 1;
+        }
+
+        @Override
+        protected void updateInternalStatus(final Time curTime, final boolean executed, final Environment<Double> env) {
+        }
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.boundary.interfaces.Sampling;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Checks that {@link MonitorSchedule} notifies each monitor of exactly the
+ * steps its {@link Sampling} asks for, when monitors with different
+ * samplings share the same schedule.
+ */
+public class TestMonitorSchedule {
+
+    private static final double DT = 0.25;
+    private static final int STEPS = 13;
+    private static final int ADD_STEP = 6;
+    private static final int REMOVE_STEP = 7;
+    private static final long EVERY = 5;
+    private static final double INTERVAL = 1;
+    private static final double FIRST = 0.6;
+    private static final double SECOND = 2.5;
+
+    /**
+     * Steps happen every {@link #DT} time units. Monitors sampling every
+     * step, every {@link #EVERY} steps, every {@link #INTERVAL} time units and
+     * at given times are notified independently of each other, including the
+     * ones added or removed while the simulation runs.
+     */
+    @Test
+    public void testMixedSamplings() {
+        final MonitorSchedule<Double> schedule = new MonitorSchedule<>();
+        final RecordingMonitor all = new RecordingMonitor(Sampling.EVERY_STEP);
+        final RecordingMonitor steps = new RecordingMonitor(Sampling.everySteps(EVERY));
+        final RecordingMonitor interval = new RecordingMonitor(Sampling.everyTime(INTERVAL));
+        final RecordingMonitor times = new RecordingMonitor(Sampling.atTimes(SECOND, FIRST, SECOND));
+        final RecordingMonitor late = new RecordingMonitor(Sampling.everyTime(INTERVAL));
+        final RecordingMonitor removed = new RecordingMonitor(Sampling.everySteps(2));
+        for (final RecordingMonitor m : Arrays.asList(all, steps, interval, times, removed)) {
+            schedule.add(m, 0, new DoubleTime());
+        }
+        for (int step = 0; step < STEPS; step++) {
+            final Time time = new DoubleTime(step * DT);
+            if (step == ADD_STEP) {
+                schedule.add(late, step, time);
+            }
+            if (step == REMOVE_STEP) {
+                schedule.remove(removed);
+            }
+            schedule.stepDone(null, null, time, step);
+        }
+        final List<Long> everyStep = new ArrayList<>();
+        for (long step = 0; step < STEPS; step++) {
+            everyStep.add(step);
+        }
+        assertEquals(everyStep, all.steps);
+        assertEquals(Arrays.asList(0L, 5L, 10L), steps.steps);
+        assertEquals(Arrays.asList(0L, 4L, 8L, 12L), interval.steps);
+        assertEquals(Arrays.asList(3L, 10L), times.steps);
+        assertEquals(Arrays.asList(8L, 12L), late.steps);
+        assertEquals(Arrays.asList(0L, 2L, 4L, 6L), removed.steps);
+    }
+
+    /*
+     * Records the notified steps
+     */
+    private static final class RecordingMonitor implements OutputMonitor<Double> {
+        private static final long serialVersionUID = 1L;
+        private final Sampling sampling;
+        private final List<Long> steps = new ArrayList<>();
+
+        RecordingMonitor(final Sampling sampling) {
+            this.sampling = sampling;
+        }
+
+        @Override
+        public void finished(final Environment<Double> env, final Time time, final long step) {
+        }
+
+        @Override
+        public Sampling getSampling() {
+            return sampling;
+        }
+
+        @Override
+        public void initialized(final Environment<Double> env) {
+        }
+
+        @Override
+        public void stepDone(final Environment<Double> env, final Reaction<Double> r, final Time time, final long step) {
+            steps.add(step);
+        }
+    }
+
+}
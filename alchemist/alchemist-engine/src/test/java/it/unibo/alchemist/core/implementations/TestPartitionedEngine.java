@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.implementations;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.junit.Test;
+
+import it.unibo.alchemist.core.interfaces.Simulation;
+import it.unibo.alchemist.core.tests.util.SumReaction;
+import it.unibo.alchemist.core.tests.util.TestNode;
+import it.unibo.alchemist.core.tests.util.TestScenarios;
+import it.unibo.alchemist.core.tests.util.TraceMonitor;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.EuclideanDistance;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.implementations.utils.SplittableRandomGenerator;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Checks {@link PartitionedEngine} and its {@link RegionScheduler}.
+ */
+public class TestPartitionedEngine {
+
+    private static final int REGIONS = 2;
+    private static final double RANGE = 1.5;
+    private static final double WINDOW = 1;
+    private static final double END = 20;
+    private static final double FAR = 1000;
+    private static final double LIMIT = 5;
+    /*
+     * Two nodes in the first strip, one on its boundary, two in the second
+     */
+    private static final double[] XS = { 0, 1, 50, 100, 101 };
+    private static final int ON_BOUNDARY = 2;
+    private static final int MOVER = 3;
+    private static final int LAST = 4;
+    private static final double BOUNDARY = XS[ON_BOUNDARY];
+    private static final long SEED = 1;
+    private static final int NODES = 100;
+    private static final int MOVING = 20;
+    private static final int SCENARIO_REGIONS = 4;
+
+    /**
+     * Reactions are demoted when a neighbor of their node crosses the
+     * boundary of the strip, and promoted again when it crosses back or
+     * moves far away; the reactions they influence are promoted or demoted
+     * only if their own dependencies allow it.
+     */
+    @Test
+    public void testStripCrossing() {
+        final Environment<Double> env = newEnvironment();
+        final List<Node<Double>> nodes = new ArrayList<>();
+        final List<Reaction<Double>> gather = new ArrayList<>();
+        final List<Reaction<Double>> share = new ArrayList<>();
+        for (final double x : XS) {
+            final Node<Double> node = new TestNode(env);
+            final Reaction<Double> g = new SumReaction(env, node, new DiracComb<>(1),
+                    Context.NEIGHBORHOOD, Context.LOCAL, TestScenarios.SHARED, TestScenarios.GATHERED);
+            final Reaction<Double> s = new SumReaction(env, node, new DiracComb<>(1),
+                    Context.LOCAL, Context.LOCAL, TestScenarios.GATHERED, TestScenarios.SHARED);
+            node.addReaction(g);
+            node.addReaction(s);
+            env.addNode(node, env.makePosition(x, 0));
+            nodes.add(node);
+            gather.add(g);
+            share.add(s);
+        }
+        final PartitionedEngine<Double> sim = new PartitionedEngine<>(env, Long.MAX_VALUE, new DoubleTime(END), REGIONS, WINDOW);
+        sim.finalizeConstructor();
+        final RegionScheduler<Double> scheduler = sim.getScheduler();
+        scheduler.reclassify();
+        final int[] initial = { 0, 0, 0, 1, 1 };
+        for (int i = 0; i < XS.length; i++) {
+            assertEquals(initial[i], scheduler.getRegion(gather.get(i)));
+            assertEquals(initial[i], scheduler.getRegion(share.get(i)));
+        }
+        /*
+         * The fourth node crosses into the neighborhood of the third, from
+         * the other strip: their neighborhood reactions can not be confined,
+         * the local ones can, since the sequential reactions they influence
+         * are periodic
+         */
+        final Node<Double> mover = nodes.get(MOVER);
+        move(env, mover, BOUNDARY + 1);
+        scheduler.reclassify();
+        assertEquals(-1, scheduler.getRegion(gather.get(ON_BOUNDARY)));
+        assertEquals(-1, scheduler.getRegion(gather.get(MOVER)));
+        assertEquals(0, scheduler.getRegion(share.get(ON_BOUNDARY)));
+        assertEquals(1, scheduler.getRegion(share.get(MOVER)));
+        assertEquals(1, scheduler.getRegion(gather.get(LAST)));
+        /*
+         * The fourth node crosses the boundary: all of its reactions move to
+         * the first strip, along with the ones of its new neighbor
+         */
+        move(env, mover, BOUNDARY - 1);
+        scheduler.reclassify();
+        assertEquals(0, scheduler.getRegion(gather.get(ON_BOUNDARY)));
+        assertEquals(0, scheduler.getRegion(gather.get(MOVER)));
+        assertEquals(0, scheduler.getRegion(share.get(MOVER)));
+        assertEquals(1, scheduler.getRegion(gather.get(LAST)));
+        /*
+         * Back to where it started
+         */
+        move(env, mover, XS[MOVER]);
+        scheduler.reclassify();
+        for (int i = 0; i < XS.length; i++) {
+            assertEquals(initial[i], scheduler.getRegion(gather.get(i)));
+            assertEquals(initial[i], scheduler.getRegion(share.get(i)));
+        }
+    }
+
+    /**
+     * The updates that confined reactions cause on periodic sequential
+     * reactions are applied after the concurrent phase, once per execution.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     * @throws ExecutionException
+     *             if a reaction fails
+     */
+    @Test
+    public void testDeferredUpdates() throws InterruptedException, ExecutionException {
+        final Environment<Double> env = newEnvironment();
+        final List<Reaction<Double>> writers = new ArrayList<>();
+        Reaction<Double> reader = null;
+        final CountingComb counter = new CountingComb(new DoubleTime(FAR));
+        for (int i = 0; i < XS.length; i++) {
+            final Node<Double> node = new TestNode(env);
+            if (i == ON_BOUNDARY) {
+                reader = new SumReaction(env, node, counter, Context.GLOBAL, Context.LOCAL,
+                        TestScenarios.SHARED, TestScenarios.GATHERED);
+                node.addReaction(reader);
+            } else {
+                final Reaction<Double> writer = new SumReaction(env, node, new DiracComb<>(1),
+                        Context.LOCAL, Context.LOCAL, TestScenarios.GATHERED, TestScenarios.SHARED);
+                node.addReaction(writer);
+                writers.add(writer);
+            }
+            env.addNode(node, env.makePosition(XS[i], 0));
+        }
+        final PartitionedEngine<Double> sim = new PartitionedEngine<>(env, Long.MAX_VALUE, new DoubleTime(END), REGIONS, WINDOW);
+        sim.finalizeConstructor();
+        final RegionScheduler<Double> scheduler = sim.getScheduler();
+        scheduler.reclassify();
+        assertEquals(-1, scheduler.getRegion(reader));
+        assertEquals(FAR, scheduler.getSequentialTime(), 0);
+        for (int i = 0; i < writers.size(); i++) {
+            assertEquals(i < writers.size() / 2 ? 0 : 1, scheduler.getRegion(writers.get(i)));
+        }
+        final int before = counter.updates;
+        final AtomicBoolean early = new AtomicBoolean();
+        final ExecutorService pool = Executors.newFixedThreadPool(REGIONS);
+        final long executed;
+        try {
+            executed = scheduler.runConcurrently(pool, LIMIT, () -> {
+                if (counter.updates != before) {
+                    early.set(true);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+        assertFalse(early.get());
+        assertTrue(executed >= writers.size());
+        assertEquals(executed, counter.updates - before);
+        assertEquals(FAR, reader.getTauAsDouble(), 0);
+        for (final Reaction<Double> writer : writers) {
+            assertTrue(writer.getTauAsDouble() >= LIMIT);
+        }
+    }
+
+    /**
+     * With periodic reactions, the partitioned execution reaches the same
+     * state as the sequential one, even if nodes move across the regions.
+     */
+    @Test
+    public void testSameAsEngine() {
+        final Engine<Double> sequential = new Engine<>(TestScenarios.create(SEED, NODES, MOVING, true), new DoubleTime(END));
+        final Engine<Double> partitioned = new PartitionedEngine<>(TestScenarios.create(SEED, NODES, MOVING, true),
+                Long.MAX_VALUE, new DoubleTime(END), SCENARIO_REGIONS, WINDOW);
+        final TraceMonitor expected = run(sequential);
+        final TraceMonitor actual = run(partitioned);
+        assertEquals(sequential.getStep(), partitioned.getStep());
+        assertEquals(expected.getFinalState(), actual.getFinalState());
+    }
+
+    /**
+     * Seeded partitioned runs drawing random numbers from the regions are
+     * reproducible, and wrapping the generator does not change the
+     * sequential runs.
+     */
+    @Test
+    public void testReproducible() {
+        final TraceMonitor first = run(newRandomPartitionedEngine());
+        final TraceMonitor second = run(newRandomPartitionedEngine());
+        assertEquals(first.getFinalState(), second.getFinalState());
+        final TraceMonitor plain = run(new Engine<>(TestScenarios.create(SEED, NODES, MOVING, false), new DoubleTime(END)));
+        final TraceMonitor wrapped = run(new Engine<>(TestScenarios.create(new SplittableRandomGenerator(new MersenneTwister(SEED), SEED),
+                NODES, MOVING, false), new DoubleTime(END)));
+        assertEquals(plain.getSteps(), wrapped.getSteps());
+        assertEquals(plain.getFinalState(), wrapped.getFinalState());
+    }
+
+    private static Environment<Double> newEnvironment() {
+        final Environment<Double> env = new Continuous2DEnvironment<>();
+        env.setLinkingRule(new EuclideanDistance<>(RANGE));
+        return env;
+    }
+
+    private static Engine<Double> newRandomPartitionedEngine() {
+        final SplittableRandomGenerator rng = new SplittableRandomGenerator(new MersenneTwister(SEED), SEED);
+        final Engine<Double> sim = new PartitionedEngine<>(TestScenarios.create(rng, NODES, MOVING, false),
+                Long.MAX_VALUE, new DoubleTime(END), SCENARIO_REGIONS, WINDOW);
+        sim.setRandomGenerator(rng);
+        return sim;
+    }
+
+    private static void move(final Environment<Double> env, final Node<Double> node, final double x) {
+        synchronized (env) {
+            env.moveNodeToPosition(node, env.makePosition(x, 0));
+        }
+    }
+
+    private static TraceMonitor run(final Simulation<Double> sim) {
+        final TraceMonitor trace = new TraceMonitor();
+        sim.addOutputMonitor(trace);
+        TestScenarios.run(sim);
+        return trace;
+    }
+
+    /*
+     * Counts the updates not caused by the execution of the reaction
+     */
+    private static final class CountingComb extends DiracComb<Double> {
+        private static final long serialVersionUID = 1L;
+        private int updates;
+
+        CountingComb(final Time start) {
+            super(start, 1);
+        }
+
+        @Override
+        protected void updateStatus(final Time curTime, final boolean executed, final double param,
+                final Environment<Double> env) {
+            if (!executed) {
+                updates++;
+            }
+            super.updateStatus(curTime, executed, param, env);
+        }
+    }
+
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.core.implementations.DependencyHandlerImpl;
+import it.unibo.alchemist.core.implementations.IntIndexedDependencyGraph;
+import it.unibo.alchemist.core.implementations.MapBasedDependencyGraph;
+import it.unibo.alchemist.core.interfaces.DependencyGraph;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.tests.util.SumReaction;
+import it.unibo.alchemist.core.tests.util.TestNode;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.EuclideanDistance;
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Position;
+import it.unibo.alchemist.model.interfaces.Reaction;
+
+/**
+ * Checks that {@link IntIndexedDependencyGraph} builds the same dependencies
+ * of {@link MapBasedDependencyGraph}.
+ */
+public class TestDependencyGraphs {
+
+    private static final int NODES = 30;
+    private static final int OPERATIONS = 2000;
+    private static final double SIZE = 10;
+    private static final double RANGE = 2;
+    private static final double ADD_PROBABILITY = 0.5;
+    private static final double REMOVE_PROBABILITY = 0.2;
+    private static final Molecule[] MOLECULES = {
+        new SimpleMolecule("a"), new SimpleMolecule("b"), new SimpleMolecule("c"), null
+    };
+
+    private final Random rng = new Random(0);
+    private final Environment<Double> env = new Continuous2DEnvironment<>();
+    private final Map<Reaction<Double>, DependencyHandler<Double>> mapHandlers = new LinkedHashMap<>();
+    private final Map<Reaction<Double>, DependencyHandler<Double>> intHandlers = new LinkedHashMap<>();
+    private final DependencyGraph<Double> mapGraph = new MapBasedDependencyGraph<>(env, mapHandlers);
+    private final DependencyGraph<Double> intGraph = new IntIndexedDependencyGraph<>(env);
+    private final List<Node<Double>> nodes = new ArrayList<>();
+    private final List<Reaction<Double>> reactions = new ArrayList<>();
+
+    /**
+     * Randomly adds and removes reactions and moves nodes, changing their
+     * neighbors, checking after each operation that both the graphs contain
+     * the same edges. The lists of the {@link IntIndexedDependencyGraph} must
+     * not contain duplicates.
+     */
+    @Test
+    public void testSameDependencies() {
+        env.setLinkingRule(new EuclideanDistance<>(RANGE));
+        for (int i = 0; i < NODES; i++) {
+            final Node<Double> node = new TestNode(env);
+            env.addNode(node, randomPosition());
+            nodes.add(node);
+        }
+        for (int i = 0; i < OPERATIONS; i++) {
+            final double op = rng.nextDouble();
+            if (op < ADD_PROBABILITY || reactions.isEmpty()) {
+                addReaction();
+            } else if (op < ADD_PROBABILITY + REMOVE_PROBABILITY) {
+                removeReaction();
+            } else {
+                moveNode();
+            }
+            checkEdges();
+        }
+    }
+
+    /**
+     * Handlers which do not store indexes can not be used with the
+     * {@link IntIndexedDependencyGraph}, and the failure is reported.
+     */
+    @Test
+    public void testUnindexedHandler() {
+        env.setLinkingRule(new EuclideanDistance<>(RANGE));
+        final Node<Double> node = new TestNode(env);
+        env.addNode(node, env.makePosition(0, 0));
+        final Reaction<Double> r = newReaction(node);
+        final DependencyHandlerImpl<Double> wrapped = new DependencyHandlerImpl<>(r);
+        final DependencyHandler<Double> legacy = new DependencyHandler<Double>() {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public void addInDependency(final DependencyHandler<Double> rh) {
+                wrapped.addInDependency(rh);
+            }
+            @Override
+            public void addOutDependency(final DependencyHandler<Double> rh) {
+                wrapped.addOutDependency(rh);
+            }
+            @Override
+            public int compareTo(final DependencyHandler<Double> o) {
+                return wrapped.compareTo(o);
+            }
+            @Override
+            public List<DependencyHandler<Double>> dependsOn() {
+                return wrapped.dependsOn();
+            }
+            @Override
+            public Reaction<Double> getReaction() {
+                return r;
+            }
+            @Override
+            public List<DependencyHandler<Double>> influences() {
+                return wrapped.influences();
+            }
+            @Override
+            public List<DependencyHandler<Double>> isInfluenced() {
+                return wrapped.isInfluenced();
+            }
+            @Override
+            public void removeInDependency(final DependencyHandler<Double> rh) {
+                wrapped.removeInDependency(rh);
+            }
+            @Override
+            public void removeOutDependency(final DependencyHandler<Double> rh) {
+                wrapped.removeOutDependency(rh);
+            }
+            @Override
+            public void setInDependencies(final List<DependencyHandler<Double>> dep) {
+                wrapped.setInDependencies(dep);
+            }
+            @Override
+            public void setOutDependencies(final List<DependencyHandler<Double>> dep) {
+                wrapped.setOutDependencies(dep);
+            }
+        };
+        assertEquals(-1, legacy.getGraphIndex());
+        assertEquals(-1, legacy.getQueueIndex());
+        mapGraph.createDependencies(legacy);
+        try {
+            intGraph.createDependencies(legacy);
+            fail();
+        } catch (UnsupportedOperationException e) {
+            assertFalse(e.getMessage().isEmpty());
+        }
+    }
+
+    private void addReaction() {
+        final Node<Double> node = nodes.get(rng.nextInt(NODES));
+        final Reaction<Double> r = newReaction(node);
+        node.addReaction(r);
+        final DependencyHandler<Double> mh = new DependencyHandlerImpl<>(r);
+        mapGraph.createDependencies(mh);
+        mapHandlers.put(r, mh);
+        final DependencyHandler<Double> ih = new DependencyHandlerImpl<>(r);
+        intGraph.createDependencies(ih);
+        intHandlers.put(r, ih);
+        reactions.add(r);
+    }
+
+    private void removeReaction() {
+        final Reaction<Double> r = reactions.remove(rng.nextInt(reactions.size()));
+        mapGraph.removeDependencies(mapHandlers.get(r));
+        mapHandlers.remove(r);
+        intGraph.removeDependencies(intHandlers.remove(r));
+        r.getNode().removeReaction(r);
+    }
+
+    private void moveNode() {
+        final Node<Double> node = nodes.get(rng.nextInt(NODES));
+        final Set<Node<Double>> before = new LinkedHashSet<>(env.getNeighborhood(node).getNeighbors());
+        env.moveNodeToPosition(node, randomPosition());
+        final Set<Node<Double>> after = new LinkedHashSet<>(env.getNeighborhood(node).getNeighbors());
+        for (final Node<Double> n : before) {
+            if (!after.contains(n)) {
+                mapGraph.removeNeighbor(node, n);
+                intGraph.removeNeighbor(node, n);
+            }
+        }
+        for (final Node<Double> n : after) {
+            if (!before.contains(n)) {
+                mapGraph.addNeighbor(node, n);
+                intGraph.addNeighbor(node, n);
+            }
+        }
+    }
+
+    private void checkEdges() {
+        assertEquals(mapHandlers.keySet(), intHandlers.keySet());
+        for (final Reaction<Double> r : reactions) {
+            final DependencyHandler<Double> mh = mapHandlers.get(r);
+            final DependencyHandler<Double> ih = intHandlers.get(r);
+            assertEquals(r.toString(), reactionsOf(mh.influences()), reactionsOf(ih.influences()));
+            assertEquals(r.toString(), reactionsOf(mh.isInfluenced()), reactionsOf(ih.isInfluenced()));
+            assertEquals(ih.influences().size(), reactionsOf(ih.influences()).size());
+            assertEquals(ih.isInfluenced().size(), reactionsOf(ih.isInfluenced()).size());
+            for (final DependencyHandler<Double> dep : ih.influences()) {
+                assertTrue(dep.isInfluenced().contains(ih));
+            }
+        }
+    }
+
+    private static Set<Reaction<Double>> reactionsOf(final List<DependencyHandler<Double>> handlers) {
+        final Set<Reaction<Double>> result = new LinkedHashSet<>(handlers.size());
+        for (final DependencyHandler<Double> rh : handlers) {
+            result.add(rh.getReaction());
+        }
+        return result;
+    }
+
+    private Reaction<Double> newReaction(final Node<Double> node) {
+        final Context[] contexts = Context.values();
+        return new SumReaction(env, node, new DiracComb<>(1),
+                contexts[rng.nextInt(contexts.length)],
+                contexts[rng.nextInt(contexts.length)],
+                MOLECULES[rng.nextInt(MOLECULES.length)],
+                MOLECULES[rng.nextInt(MOLECULES.length)]);
+    }
+
+    private Position randomPosition() {
+        return env.makePosition(rng.nextDouble() * SIZE, rng.nextDouble() * SIZE);
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.core.implementations.DependencyHandlerImpl;
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.core.implementations.IntIndexedDependencyGraph;
+import it.unibo.alchemist.core.implementations.MapBasedDependencyGraph;
+import it.unibo.alchemist.core.interfaces.DependencyGraph;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.tests.util.SumReaction;
+import it.unibo.alchemist.core.tests.util.TestNode;
+import it.unibo.alchemist.core.tests.util.TestScenarios;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.EuclideanDistance;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Checks that the reactions with a global context get linked to the
+ * reactions of every node, whatever the order in which they are added.
+ */
+public class TestGlobalDependencies {
+
+    private static final int NODES = 5;
+    private static final double RANGE = 1;
+    private static final double FAR = 100;
+    private static final double END = 5;
+
+    /**
+     * Reactions reading and writing globally, added to the graphs after
+     * the other reactions, depend on and influence the reactions of nodes
+     * which are not their neighbors; local reactions added later are linked
+     * to them as well.
+     */
+    @Test
+    public void testLateGlobalReactions() {
+        final Environment<Double> env = new Continuous2DEnvironment<>();
+        env.setLinkingRule(new EuclideanDistance<>(RANGE));
+        final Map<Reaction<Double>, DependencyHandler<Double>> mapHandlers = new LinkedHashMap<>();
+        final List<DependencyGraph<Double>> graphs = new ArrayList<>();
+        graphs.add(new MapBasedDependencyGraph<>(env, mapHandlers));
+        graphs.add(new IntIndexedDependencyGraph<>(env));
+        final List<Map<Reaction<Double>, DependencyHandler<Double>>> handlers = new ArrayList<>();
+        handlers.add(mapHandlers);
+        handlers.add(new LinkedHashMap<>());
+        final List<Reaction<Double>> locals = new ArrayList<>();
+        for (int i = 0; i < NODES; i++) {
+            final Node<Double> node = new TestNode(env);
+            env.addNode(node, env.makePosition(i * FAR, 0));
+            locals.add(localReaction(env, node));
+        }
+        final Node<Double> globalNode = new TestNode(env);
+        env.addNode(globalNode, env.makePosition(-FAR, 0));
+        final Reaction<Double> reader = new SumReaction(env, globalNode, new DiracComb<>(1),
+                Context.GLOBAL, Context.LOCAL, TestScenarios.SHARED, TestScenarios.GATHERED);
+        final Reaction<Double> writer = new SumReaction(env, globalNode, new DiracComb<>(1),
+                Context.LOCAL, Context.GLOBAL, TestScenarios.SHARED, TestScenarios.GATHERED);
+        final Node<Double> lateNode = new TestNode(env);
+        env.addNode(lateNode, env.makePosition(FAR, FAR));
+        final Reaction<Double> late = localReaction(env, lateNode);
+        for (int g = 0; g < graphs.size(); g++) {
+            for (final Reaction<Double> r : locals) {
+                add(graphs.get(g), handlers.get(g), r);
+            }
+            add(graphs.get(g), handlers.get(g), reader);
+            add(graphs.get(g), handlers.get(g), writer);
+            add(graphs.get(g), handlers.get(g), late);
+            final Map<Reaction<Double>, DependencyHandler<Double>> h = handlers.get(g);
+            final Set<Reaction<Double>> expected = new LinkedHashSet<>(locals);
+            expected.add(late);
+            assertEquals(expected, reactionsOf(h.get(reader).isInfluenced()));
+            assertEquals(expected, reactionsOf(h.get(writer).influences()));
+            for (final Reaction<Double> r : expected) {
+                assertTrue(reactionsOf(h.get(r).influences()).contains(reader));
+                assertTrue(reactionsOf(h.get(r).isInfluenced()).contains(writer));
+            }
+        }
+    }
+
+    /**
+     * A node with a reaction reading globally, added while the simulation is
+     * running and far from any other node, gets its reaction updated each
+     * time any other node changes what it reads.
+     */
+    @Test
+    public void testGlobalReactionAddedAtRuntime() {
+        final Environment<Double> env = new Continuous2DEnvironment<>();
+        env.setLinkingRule(new EuclideanDistance<>(RANGE));
+        for (int i = 0; i < NODES; i++) {
+            final Node<Double> node = new TestNode(env);
+            node.addReaction(localReaction(env, node));
+            env.addNode(node, env.makePosition(i * FAR, 0));
+        }
+        final Engine<Double> sim = new Engine<>(env, new DoubleTime(END));
+        final Node<Double> globalNode = new TestNode(env);
+        /*
+         * Never executed before the end of the simulation
+         */
+        final CountingComb counter = new CountingComb(new DoubleTime(FAR));
+        globalNode.addReaction(new SumReaction(env, globalNode, counter,
+                Context.GLOBAL, Context.LOCAL, TestScenarios.SHARED, TestScenarios.GATHERED));
+        sim.schedule(() -> env.addNode(globalNode, env.makePosition(-FAR, 0)));
+        TestScenarios.run(sim);
+        assertTrue(sim.getStep() > NODES);
+        assertTrue(counter.updates >= sim.getStep());
+    }
+
+    private static Reaction<Double> localReaction(final Environment<Double> env, final Node<Double> node) {
+        return new SumReaction(env, node, new DiracComb<>(1),
+                Context.LOCAL, Context.LOCAL, TestScenarios.GATHERED, TestScenarios.SHARED);
+    }
+
+    private static void add(final DependencyGraph<Double> graph, final Map<Reaction<Double>, DependencyHandler<Double>> handlers,
+            final Reaction<Double> r) {
+        final DependencyHandler<Double> rh = new DependencyHandlerImpl<>(r);
+        graph.createDependencies(rh);
+        handlers.put(r, rh);
+    }
+
+    private static Set<Reaction<Double>> reactionsOf(final List<DependencyHandler<Double>> handlers) {
+        final Set<Reaction<Double>> result = new LinkedHashSet<>(handlers.size());
+        for (final DependencyHandler<Double> rh : handlers) {
+            result.add(rh.getReaction());
+        }
+        return result;
+    }
+
+    /*
+     * Counts the updates not caused by the execution of the reaction
+     */
+    private static final class CountingComb extends DiracComb<Double> {
+        private static final long serialVersionUID = 1L;
+        private int updates;
+
+        CountingComb(final Time start) {
+            super(start, 1);
+        }
+
+        @Override
+        protected void updateStatus(final Time curTime, final boolean executed, final double param,
+                final Environment<Double> env) {
+            if (!executed) {
+                updates++;
+            }
+            super.updateStatus(curTime, executed, param, env);
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+package it.unibo.alchemist.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.Before;
+import org.junit.Test;
+
+import it.unibo.alchemist.core.implementations.ArrayIndexedPriorityQueue;
+import it.unibo.alchemist.core.implementations.DependencyHandlerImpl;
+import it.unibo.alchemist.core.implementations.PrimitiveIndexedPriorityQueue;
+import it.unibo.alchemist.core.implementations.TimeBucketQueue;
+import it.unibo.alchemist.core.interfaces.DependencyHandler;
+import it.unibo.alchemist.core.interfaces.ReactionManager;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.nodes.GenericNode;
+import it.unibo.alchemist.model.implementations.reactions.Event;
+import it.unibo.alchemist.model.implementations.timedistributions.AbstractDistribution;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Verifies that the {@link ReactionManager} implementations agree on the
+ * scheduling order.
+ */
+public class TestReactionManagers {
+
+    private static final int REACTIONS = 200;
+    private static final int OPERATIONS = 10_000;
+    private static final int ROUNDS = 5;
+    private final RandomGenerator rng = new MersenneTwister(1);
+    private final List<SettableTime> times = new ArrayList<>();
+    private final List<DependencyHandler<Object>> handlers = new ArrayList<>();
+
+    /**
+     * Setup phase.
+     */
+    @Before
+    public void setUp() {
+        final Environment<Object> env = new Continuous2DEnvironment<>();
+        final Node<Object> n = new GenericNode<Object>(env) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            protected Object createT() {
+                return "";
+            }
+        };
+        for (int i = 0; i < REACTIONS; i++) {
+            final SettableTime td = new SettableTime();
+            td.set(rng.nextDouble());
+            times.add(td);
+            handlers.add(new DependencyHandlerImpl<>(new Event<>(n, td)));
+        }
+    }
+
+    /**
+     * Random additions, updates and removals must lead to the same schedule.
+     */
+    @Test
+    public void testSameOrder() {
+        checkSameOrder(new PrimitiveIndexedPriorityQueue<>(1), false);
+    }
+
+    /**
+     * Random additions, updates and removals must lead to the same schedule,
+     * also when many reactions share the same time.
+     */
+    @Test
+    public void testSameOrderBuckets() {
+        checkSameOrder(new TimeBucketQueue<>(1), true);
+    }
+
+    private void checkSameOrder(final ReactionManager<Object> tested, final boolean rounds) {
+        final ReactionManager<Object> reference = new ArrayIndexedPriorityQueue<>();
+        final boolean[] scheduled = new boolean[REACTIONS];
+        for (int i = 0; i < REACTIONS; i++) {
+            reference.addReaction(handlers.get(i).getReaction());
+            tested.addReaction(handlers.get(i));
+            scheduled[i] = true;
+        }
+        for (int op = 0; op < OPERATIONS; op++) {
+            final int i = rng.nextInt(REACTIONS);
+            final DependencyHandler<Object> rh = handlers.get(i);
+            if (scheduled[i] && rng.nextBoolean()) {
+                reference.removeReaction(rh.getReaction());
+                tested.removeReaction(rh);
+                scheduled[i] = false;
+            } else {
+                times.get(i).set(rng.nextInt(10) == 0 ? Double.POSITIVE_INFINITY
+                        : rounds ? rng.nextInt(ROUNDS) : rng.nextDouble());
+                if (scheduled[i]) {
+                    reference.updateReaction(rh.getReaction());
+                    tested.updateReaction(rh);
+                } else {
+                    reference.addReaction(rh.getReaction());
+                    tested.addReaction(rh);
+                    scheduled[i] = true;
+                }
+            }
+            final Reaction<Object> expected = reference.getNext();
+            if (expected == null) {
+                assertNull(tested.getNext());
+            } else {
+                assertEquals(expected.getTau(), tested.getNext().getTau());
+            }
+        }
+    }
+
+    /**
+     * Draining the queue must return non-decreasing times.
+     */
+    @Test
+    public void testDrain() {
+        checkDrain(new PrimitiveIndexedPriorityQueue<>());
+    }
+
+    /**
+     * Draining the queue must return non-decreasing times.
+     */
+    @Test
+    public void testDrainBuckets() {
+        checkDrain(new TimeBucketQueue<>());
+    }
+
+    private void checkDrain(final ReactionManager<Object> tested) {
+        for (final DependencyHandler<Object> rh : handlers) {
+            tested.addReaction(rh);
+        }
+        Time previous = DoubleTime.ZERO_TIME;
+        for (int i = 0; i < REACTIONS; i++) {
+            final Reaction<Object> next = tested.getNext();
+            assertTrue(next.getTau().compareTo(previous) >= 0);
+            previous = next.getTau();
+            tested.removeReaction(next);
+        }
+        assertNull(tested.getNext());
+    }
+
+    private static final class SettableTime extends AbstractDistribution<Object> {
+
+        private static final long serialVersionUID = 1L;
+
+        SettableTime() {
+            super(DoubleTime.ZERO_TIME);
+        }
+
+        void set(final double t) {
+            setTau(t);
+        }
+
+        @Override
+        public double getRate() {
+            return 1;
+        }
+
+        @Override
+        protected void updateStatus(final Time curTime, final boolean executed, final double param, final Environment<Object> env) {
+        }
+
+        @Override
+        public AbstractDistribution<Object> clone(final Time currentTime) {
+            return new SettableTime();
+        }
+
+    }
+
+}
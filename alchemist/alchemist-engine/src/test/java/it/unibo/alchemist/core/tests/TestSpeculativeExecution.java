@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.core.implementations.SpeculativeEngine;
+import it.unibo.alchemist.core.tests.util.TestScenarios;
+import it.unibo.alchemist.core.tests.util.TraceMonitor;
+import it.unibo.alchemist.model.implementations.environments.AbstractEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.ClosestN;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+
+/**
+ * Checks {@link SpeculativeEngine}.
+ */
+public class TestSpeculativeExecution {
+
+    private static final long SEED = 1;
+    private static final int NODES = 50;
+    private static final int MOVING = 20;
+    private static final int LOOKAHEAD = 8;
+    private static final int THREADS = 4;
+    private static final double END = 20;
+    private static final int CLOSEST = 3;
+
+    /**
+     * With periodic distributions, the speculative execution follows the
+     * same trajectory as the sequential one, even if nodes move and
+     * neighborhoods change.
+     */
+    @Test
+    public void testPeriodicTrajectories() {
+        checkSameAsSequential(MOVING, true);
+    }
+
+    /**
+     * With exponential distributions, random numbers are only drawn while
+     * committing, in the sequential order, so the trajectory is still the
+     * same as the sequential one.
+     */
+    @Test
+    public void testExponentialTrajectories() {
+        checkSameAsSequential(0, false);
+    }
+
+    /**
+     * With a linking rule that is not locally consistent, neighborhoods
+     * updated lazily are refreshed before building each batch, so the
+     * speculative execution reaches the same state as a sequential one
+     * updating them eagerly.
+     */
+    @Test
+    public void testLazyNeighborhoods() {
+        final TraceMonitor sequential = run(TestScenarios.create(SEED, NODES, MOVING, true, new ClosestN<>(CLOSEST)), 1);
+        final Environment<Double> lazy = TestScenarios.create(SEED, NODES, MOVING, true, new ClosestN<>(CLOSEST));
+        ((AbstractEnvironment<Double>) lazy).setLazyNeighborhoods(true);
+        final TraceMonitor speculative = run(lazy, LOOKAHEAD);
+        assertFalse(sequential.getSteps().isEmpty());
+        assertEquals(sequential.getSteps(), speculative.getSteps());
+        assertEquals(sequential.getFinalState(), speculative.getFinalState());
+    }
+
+    private static void checkSameAsSequential(final int moving, final boolean periodic) {
+        final TraceMonitor sequential = run(TestScenarios.create(SEED, NODES, moving, periodic), 1);
+        final TraceMonitor speculative = run(TestScenarios.create(SEED, NODES, moving, periodic), LOOKAHEAD);
+        assertFalse(sequential.getSteps().isEmpty());
+        assertEquals(sequential.getSteps(), speculative.getSteps());
+        assertEquals(sequential.getFinalState(), speculative.getFinalState());
+    }
+
+    private static TraceMonitor run(final Environment<Double> env, final int lookahead) {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final Engine<Double> sim = new SpeculativeEngine<>(env, Long.MAX_VALUE, new DoubleTime(END), lookahead, executor);
+            final TraceMonitor trace = new TraceMonitor();
+            sim.addOutputMonitor(trace);
+            TestScenarios.run(sim);
+            return trace;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+}
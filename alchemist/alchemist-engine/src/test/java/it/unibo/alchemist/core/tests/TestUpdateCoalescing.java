@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.core.tests.util.TestScenarios;
+import it.unibo.alchemist.core.tests.util.TraceMonitor;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+
+/**
+ * Checks {@link Engine#setUpdateCoalescing(boolean)}.
+ */
+public class TestUpdateCoalescing {
+
+    private static final long SEED = 1;
+    private static final int NODES = 50;
+    private static final int MOVING = 20;
+    private static final double END = 20;
+
+    /**
+     * With periodic distributions, coalescing the updates does not change the
+     * trajectory of the simulation, even if nodes move and neighborhoods
+     * change at each step.
+     */
+    @Test
+    public void testPeriodicTrajectories() {
+        final TraceMonitor plain = run(false);
+        final TraceMonitor coalesced = run(true);
+        assertFalse(plain.getSteps().isEmpty());
+        assertEquals(plain.getSteps(), coalesced.getSteps());
+        assertEquals(plain.getFinalState(), coalesced.getFinalState());
+    }
+
+    private static TraceMonitor run(final boolean coalescing) {
+        final Engine<Double> sim = new Engine<>(TestScenarios.create(SEED, NODES, MOVING, true), new DoubleTime(END));
+        sim.setUpdateCoalescing(coalescing);
+        final TraceMonitor trace = new TraceMonitor();
+        sim.addOutputMonitor(trace);
+        TestScenarios.run(sim);
+        return trace;
+    }
+
+}
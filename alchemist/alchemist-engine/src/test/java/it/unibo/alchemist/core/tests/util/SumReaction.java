@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.tests.util;
+
+import java.util.Collections;
+
+import org.danilopianini.util.LinkedListSet;
+
+import it.unibo.alchemist.model.implementations.reactions.AReaction;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Time;
+import it.unibo.alchemist.model.interfaces.TimeDistribution;
+
+/**
+ * Reaction for testing purposes, with configurable contexts. When executed,
+ * it sums the concentrations of the read molecule in the nodes within its
+ * input context, and stores the sum plus one in the written molecule of its
+ * own node. Executions in buffered mode get stored when committed.
+ */
+public class SumReaction extends AReaction<Double> {
+
+    private static final long serialVersionUID = 1L;
+    private final Environment<Double> env;
+    private final Context input, output;
+    private final Molecule read, written;
+    private double buffered;
+
+    /**
+     * @param env
+     *            the environment
+     * @param node
+     *            the node
+     * @param td
+     *            the time distribution
+     * @param input
+     *            the input context
+     * @param output
+     *            the output context
+     * @param read
+     *            the read molecule, or null if the reaction may read
+     *            anything (in such case, it reads nothing)
+     * @param written
+     *            the written molecule, or null if the reaction may write
+     *            anything (in such case, it writes nothing)
+     */
+    public SumReaction(final Environment<Double> env, final Node<Double> node, final TimeDistribution<Double> td,
+            final Context input, final Context output, final Molecule read, final Molecule written) {
+        super(node, td);
+        this.env = env;
+        this.input = input;
+        this.output = output;
+        this.read = read;
+        this.written = written;
+        setInputContext(input);
+        setOutputContext(output);
+        setInfluencingMolecules(read == null ? null : new LinkedListSet<>(Collections.singletonList(read)));
+        setInfluencedMolecules(written == null ? null : new LinkedListSet<>(Collections.singletonList(written)));
+    }
+
+    @Override
+    public SumReaction cloneOnNewNode(final Node<Double> n, final Time currentTime) {
+        return new SumReaction(env, n, getTimeDistribution().clone(currentTime), input, output, read, written);
+    }
+
+    @Override
+    public void commit() {
+        if (written != null) {
+            getNode().setConcentration(written, buffered);
+        }
+    }
+
+    @Override
+    public void execute() {
+        executeBuffered();
+        commit();
+    }
+
+    @Override
+    public void executeBuffered() {
+        buffered = 1;
+        if (read != null) {
+            switch (input) {
+            case GLOBAL:
+                for (final Node<Double> n : env) {
+                    buffered += concentration(n);
+                }
+                break;
+            case NEIGHBORHOOD:
+                for (final Node<Double> n : env.getNeighborhood(getNode())) {
+                    buffered += concentration(n);
+                }
+                buffered += concentration(getNode());
+                break;
+            default:
+                buffered += concentration(getNode());
+            }
+        }
+    }
+
+    private double concentration(final Node<Double> n) {
+        return n.getConcentration(read);
+    }
+
+    @Override
+    public double getRate() {
+        return getTimeDistribution().getRate();
+    }
+
+    @Override
+    public boolean isPositionDependent() {
+        return !input.equals(Context.LOCAL);
+    }
+
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
+    @Override
+    protected void updateInternalStatus(final Time curTime, final boolean executed, final Environment<Double> env) {
+    }
+
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.tests.util;
+
+import it.unibo.alchemist.model.implementations.nodes.GenericNode;
+import it.unibo.alchemist.model.interfaces.Environment;
+
+/**
+ * Generic node for testing purposes, where missing molecules have zero
+ * concentration.
+ */
+public class TestNode extends GenericNode<Double> {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param env the environment
+     */
+    public TestNode(final Environment<Double> env) {
+        super(env);
+    }
+
+    @Override
+    protected Double createT() {
+        return 0d;
+    }
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.tests.util;
+
+import java.util.Collections;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+
+import it.unibo.alchemist.core.interfaces.Simulation;
+import it.unibo.alchemist.model.implementations.actions.BrownianMove;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.EuclideanDistance;
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+import it.unibo.alchemist.model.implementations.reactions.Event;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.implementations.timedistributions.ExponentialTime;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Action;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.LinkingRule;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.TimeDistribution;
+
+/**
+ * Builds reproducible simulations for comparing engines and engine
+ * configurations.
+ */
+public final class TestScenarios {
+
+    /**
+     * Molecule read by the neighbors.
+     */
+    public static final Molecule SHARED = new SimpleMolecule("shared");
+    /**
+     * Molecule storing what has been read from the neighborhood.
+     */
+    public static final Molecule GATHERED = new SimpleMolecule("gathered");
+    private static final double SIZE = 10;
+    private static final double RANGE = 2;
+    private static final double STEP = 0.5;
+    private static final double[] RATES = { 0.5, 1, 2 };
+
+    private TestScenarios() {
+    }
+
+    /**
+     * Builds an environment where each node sums the values of its neighbors,
+     * and stores the sum locally, from which it gets shared in turn. Some of
+     * the nodes move randomly. Two environments built with the same
+     * parameters evolve in the same way, if executed in the same order.
+     *
+     * @param seed
+     *            the seed for the positions, the times and the movements
+     * @param nodes
+     *            the number of nodes
+     * @param moving
+     *            the number of nodes which move
+     * @param periodic
+     *            true if all the reactions must follow a {@link DiracComb},
+     *            false if they must follow an {@link ExponentialTime}
+     * @return the environment
+     */
+    public static Environment<Double> create(final long seed, final int nodes, final int moving, final boolean periodic) {
+        return create(new MersenneTwister(seed), nodes, moving, periodic);
+    }
+
+    /**
+     * Same as {@link #create(long, int, int, boolean)}, drawing from the
+     * provided generator, which is then shared by the movements and the
+     * exponential distributions.
+     *
+     * @param rng
+     *            the random generator
+     * @param nodes
+     *            the number of nodes
+     * @param moving
+     *            the number of nodes which move
+     * @param periodic
+     *            true if all the reactions must follow a {@link DiracComb},
+     *            false if they must follow an {@link ExponentialTime}
+     * @return the environment
+     */
+    public static Environment<Double> create(final RandomGenerator rng, final int nodes, final int moving, final boolean periodic) {
+        return create(rng, nodes, moving, periodic, new EuclideanDistance<>(RANGE));
+    }
+
+    /**
+     * Same as {@link #create(long, int, int, boolean)}, linking the nodes
+     * with the provided rule.
+     *
+     * @param seed
+     *            the seed for the positions, the times and the movements
+     * @param nodes
+     *            the number of nodes
+     * @param moving
+     *            the number of nodes which move
+     * @param periodic
+     *            true if all the reactions must follow a {@link DiracComb},
+     *            false if they must follow an {@link ExponentialTime}
+     * @param rule
+     *            the linking rule
+     * @return the environment
+     */
+    public static Environment<Double> create(final long seed, final int nodes, final int moving, final boolean periodic,
+            final LinkingRule<Double> rule) {
+        return create(new MersenneTwister(seed), nodes, moving, periodic, rule);
+    }
+
+    private static Environment<Double> create(final RandomGenerator rng, final int nodes, final int moving,
+            final boolean periodic, final LinkingRule<Double> rule) {
+        final Environment<Double> env = new Continuous2DEnvironment<>();
+        env.setLinkingRule(rule);
+        for (int i = 0; i < nodes; i++) {
+            final Node<Double> node = new TestNode(env);
+            node.addReaction(new SumReaction(env, node, timeDistribution(rng, periodic),
+                    Context.NEIGHBORHOOD, Context.LOCAL, SHARED, GATHERED));
+            node.addReaction(new SumReaction(env, node, timeDistribution(rng, periodic),
+                    Context.LOCAL, Context.LOCAL, GATHERED, SHARED));
+            if (i < moving) {
+                final Reaction<Double> move = new Event<>(node, timeDistribution(rng, periodic));
+                move.setActions(Collections.<Action<Double>>singletonList(new BrownianMove<>(env, node, rng, STEP)));
+                node.addReaction(move);
+            }
+            env.addNode(node, env.makePosition(rng.nextDouble() * SIZE, rng.nextDouble() * SIZE));
+        }
+        return env;
+    }
+
+    private static TimeDistribution<Double> timeDistribution(final RandomGenerator rng, final boolean periodic) {
+        final double rate = RATES[rng.nextInt(RATES.length)];
+        return periodic
+                ? new DiracComb<>(new DoubleTime(rng.nextDouble()), rate)
+                : new ExponentialTime<>(rate, rng);
+    }
+
+    /**
+     * Runs a simulation in the current thread, until it ends.
+     *
+     * @param sim
+     *            the simulation
+     * @param <T>
+     *            concentration type
+     */
+    public static <T> void run(final Simulation<T> sim) {
+        sim.play();
+        sim.run();
+        if (sim.getError().isPresent()) {
+            throw new IllegalStateException(sim.getError().get());
+        }
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.core.tests.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Records, for each step, the time, the node of the executed reaction and its
+ * content, and the content and position of all the nodes when the
+ * simulation ends, so that two simulations can be compared.
+ */
+public class TraceMonitor implements OutputMonitor<Double> {
+
+    private static final long serialVersionUID = 1L;
+    private final List<String> steps = new ArrayList<>();
+    private final List<String> end = new ArrayList<>();
+
+    @Override
+    public void finished(final Environment<Double> env, final Time time, final long step) {
+        for (final Node<Double> n : env) {
+            end.add(n.getId() + "@" + env.getPosition(n) + ": " + n.getContents());
+        }
+    }
+
+    /**
+     * @return the final content and position of each node
+     */
+    public List<String> getFinalState() {
+        return end;
+    }
+
+    /**
+     * @return the recorded steps
+     */
+    public List<String> getSteps() {
+        return steps;
+    }
+
+    @Override
+    public void initialized(final Environment<Double> env) {
+    }
+
+    @Override
+    public void stepDone(final Environment<Double> env, final Reaction<Double> r, final Time time, final long step) {
+        if (r != null) {
+            steps.add(time + " " + r.getNode().getId() + ": " + r.getNode().getContents());
+        }
+    }
+
+}
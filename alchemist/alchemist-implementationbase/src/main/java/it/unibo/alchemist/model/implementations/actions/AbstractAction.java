@@ -17,6 +17,7 @@ import java.util.Optional;
 import org.danilopianini.util.LinkedListSet;
 import org.danilopianini.util.ListSet;
 
+import it.unibo.alchemist.model.implementations.molecules.MoleculeSets;
 import it.unibo.alchemist.model.interfaces.Action;
 import it.unibo.alchemist.model.interfaces.Molecule;
 import it.unibo.alchemist.model.interfaces.Node;
@@ -30,7 +31,7 @@ import it.unibo.alchemist.model.interfaces.Node;
 public abstract class AbstractAction<T> implements Action<T> {
 
     private static final long serialVersionUID = 1L;
-    private final ListSet<Molecule> influenced = new LinkedListSet<>();
+    private ListSet<Molecule> influenced;
     private final Node<T> n;
 
     /**
@@ -43,6 +44,23 @@ public abstract class AbstractAction<T> implements Action<T> {
     protected AbstractAction(final Node<T> node) {
         Objects.requireNonNull(node);
         this.n = node;
+        influenced = MoleculeSets.intern(node, new LinkedListSet<>());
+    }
+
+    /**
+     * Builds a clone of an action for another node (see
+     * {@link #cloneAction(Node, it.unibo.alchemist.model.interfaces.Reaction)}):
+     * the molecules modified are shared with the template, rather than added
+     * again.
+     * 
+     * @param node
+     *            the node this action belongs to
+     * @param template
+     *            the action being cloned
+     */
+    protected AbstractAction(final Node<T> node, final AbstractAction<T> template) {
+        this.n = Objects.requireNonNull(node);
+        influenced = template.influenced;
     }
 
     /**
@@ -54,7 +72,9 @@ public abstract class AbstractAction<T> implements Action<T> {
      *            the molecule which will be modified
      */
     protected void addModifiedMolecule(final Molecule m) {
-        influenced.add(m);
+        final ListSet<Molecule> grown = new LinkedListSet<>(influenced);
+        grown.add(m);
+        influenced = MoleculeSets.intern(n, grown);
     }
 
     /**
@@ -68,6 +88,10 @@ public abstract class AbstractAction<T> implements Action<T> {
         return Optional.ofNullable(getNode().getConcentration(m));
     }
 
+    /**
+     * @return the molecules added with {@link #addModifiedMolecule(Molecule)},
+     *         as an unmodifiable set shared among the equivalent actions
+     */
     @Override
     public ListSet<? extends Molecule> getModifiedMolecules() {
         return influenced;
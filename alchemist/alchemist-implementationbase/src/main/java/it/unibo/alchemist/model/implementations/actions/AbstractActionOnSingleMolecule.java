@@ -42,6 +42,21 @@ public abstract class AbstractActionOnSingleMolecule<T> extends AbstractAction<T
         addModifiedMolecule(molecule);
     }
 
+    /**
+     * Builds a clone of an action for another node, sharing the molecule and
+     * the molecules modified with the template.
+     * 
+     * @param node
+     *            the node this action belongs to
+     * @param template
+     *            the action being cloned
+     */
+    protected AbstractActionOnSingleMolecule(final Node<T> node,
+            final AbstractActionOnSingleMolecule<T> template) {
+        super(node, template);
+        this.mol = template.mol;
+    }
+
     /**
      * @return the molecule which whose concentration will be modified y the
      *         execution of this action
@@ -50,4 +65,9 @@ public abstract class AbstractActionOnSingleMolecule<T> extends AbstractAction<T
         return mol;
     }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
 }
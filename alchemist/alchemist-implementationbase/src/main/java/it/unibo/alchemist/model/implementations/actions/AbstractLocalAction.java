@@ -26,6 +26,14 @@ public abstract class AbstractLocalAction<T> extends AbstractAction<T> {
         super(node);
     }
 
+    /**
+     * @param node the local node
+     * @param template the action being cloned
+     */
+    protected AbstractLocalAction(final Node<T> node, final AbstractLocalAction<T> template) {
+        super(node, template);
+    }
+
     @Override
     public Context getContext() {
         return Context.LOCAL;
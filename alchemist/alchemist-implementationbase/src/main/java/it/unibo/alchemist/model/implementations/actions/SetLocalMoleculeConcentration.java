@@ -39,9 +39,14 @@ public class SetLocalMoleculeConcentration<T> extends AbstractActionOnSingleMole
         this.val = value;
     }
 
+    private SetLocalMoleculeConcentration(final Node<T> node, final SetLocalMoleculeConcentration<T> template) {
+        super(node, template);
+        this.val = template.val;
+    }
+
     @Override
     public Action<T> cloneAction(final Node<T> n, final Reaction<T> r) {
-        return new SetLocalMoleculeConcentration<T>(n, getMolecule(), val);
+        return new SetLocalMoleculeConcentration<T>(n, this);
     }
 
     @Override
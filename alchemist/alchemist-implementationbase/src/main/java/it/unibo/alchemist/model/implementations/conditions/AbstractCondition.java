@@ -16,6 +16,7 @@ import java.util.Objects;
 import org.danilopianini.util.LinkedListSet;
 import org.danilopianini.util.ListSet;
 
+import it.unibo.alchemist.model.implementations.molecules.MoleculeSets;
 import it.unibo.alchemist.model.interfaces.Condition;
 import it.unibo.alchemist.model.interfaces.Molecule;
 import it.unibo.alchemist.model.interfaces.Node;
@@ -29,7 +30,7 @@ import it.unibo.alchemist.model.interfaces.Reaction;
 public abstract class AbstractCondition<T> implements Condition<T> {
 
     private static final long serialVersionUID = -1610947908159507754L;
-    private final ListSet<Molecule> influencing = new LinkedListSet<>();
+    private ListSet<Molecule> influencing;
     private final Node<T> n;
 
     /**
@@ -37,8 +38,28 @@ public abstract class AbstractCondition<T> implements Condition<T> {
      */
     public AbstractCondition(final Node<T> node) {
         this.n = Objects.requireNonNull(node);
+        influencing = MoleculeSets.intern(node, new LinkedListSet<>());
     }
 
+    /**
+     * Builds a clone of a condition for another node (see
+     * {@link #cloneCondition(Node, Reaction)}): the molecules read are shared
+     * with the template, rather than added again.
+     * 
+     * @param node
+     *            the node this Condition belongs to
+     * @param template
+     *            the condition being cloned
+     */
+    protected AbstractCondition(final Node<T> node, final AbstractCondition<T> template) {
+        this.n = Objects.requireNonNull(node);
+        influencing = template.influencing;
+    }
+
+    /**
+     * @return the molecules added with {@link #addReadMolecule(Molecule)}, as
+     *         an unmodifiable set shared among the equivalent conditions
+     */
     @Override
     public ListSet<? extends Molecule> getInfluencingMolecules() {
         return influencing;
@@ -53,7 +74,9 @@ public abstract class AbstractCondition<T> implements Condition<T> {
      * @param m the molecule to add
      */
     protected void addReadMolecule(final Molecule m) {
-        influencing.add(m);
+        final ListSet<Molecule> grown = new LinkedListSet<>(influencing);
+        grown.add(m);
+        influencing = MoleculeSets.intern(n, grown);
     }
 
     @Override
@@ -38,9 +38,16 @@ public class ConcentrationChanged<T> extends AbstractCondition<T> {
         addReadMolecule(target);
     }
 
+    private ConcentrationChanged(final Node<T> node, final ConcentrationChanged<T> template) {
+        super(node, template);
+        this.target = template.target;
+        previous = Optional.fromNullable(node.getConcentration(target));
+        hasFlipped = false;
+    }
+
     @Override
     public ConcentrationChanged<T> cloneCondition(final Node<T> n, final Reaction<T> r) {
-        return new ConcentrationChanged<>(n, target);
+        return new ConcentrationChanged<>(n, this);
     }
 
     @Override
@@ -48,6 +55,11 @@ public class ConcentrationChanged<T> extends AbstractCondition<T> {
         return Context.LOCAL;
     }
 
+    @Override
+    public boolean isPositionDependent() {
+        return false;
+    }
+
     @Override
     public double getPropensityConditioning() {
         return isValid(true) ? 1 : 0;
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.implementations.conditions;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import it.unibo.alchemist.model.interfaces.Condition;
+
+/**
+ * Memoizes the validity and the propensity conditioning of the conditions of
+ * a node, shared among the equivalent conditions (see
+ * {@link Condition#getMemoizationKey()}) of its reactions. Results are valid
+ * for a single version of the environment (see
+ * {@link it.unibo.alchemist.core.interfaces.Simulation#getEnvironmentVersion()}):
+ * a negative version, or a null key, disable the memoization.
+ *
+ * Not thread safe: the reactions of a node are expected to be updated by a
+ * single thread at a time.
+ */
+public final class ConditionMemo implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private transient Map<Object, Entry> entries;
+
+    /**
+     * @param c
+     *            the condition
+     * @param version
+     *            the current version of the environment
+     * @return the propensity conditioning of the condition
+     */
+    public double getPropensityConditioning(final Condition<?> c, final long version) {
+        final Entry entry = lookup(c, version);
+        if (entry == null) {
+            return c.getPropensityConditioning();
+        }
+        if (Double.isNaN(entry.propensity)) {
+            entry.propensity = c.getPropensityConditioning();
+        }
+        return entry.propensity;
+    }
+
+    /**
+     * @param c
+     *            the condition
+     * @param version
+     *            the current version of the environment
+     * @return true if the condition is valid
+     */
+    public boolean isValid(final Condition<?> c, final long version) {
+        final Entry entry = lookup(c, version);
+        if (entry == null) {
+            return c.isValid();
+        }
+        if (entry.valid == null) {
+            entry.valid = c.isValid();
+        }
+        return entry.valid;
+    }
+
+    private Entry lookup(final Condition<?> c, final long version) {
+        if (version < 0) {
+            return null;
+        }
+        final Object key = c.getMemoizationKey();
+        if (key == null) {
+            return null;
+        }
+        if (entries == null) {
+            entries = new HashMap<>();
+        }
+        final Entry entry = entries.computeIfAbsent(key, k -> new Entry());
+        if (entry.version != version) {
+            entry.version = version;
+            entry.propensity = Double.NaN;
+            entry.valid = null;
+        }
+        return entry;
+    }
+
+    private static final class Entry {
+        private long version = -1;
+        private double propensity = Double.NaN;
+        private Boolean valid;
+    }
+
+}
@@ -1,5 +1,6 @@
 package it.unibo.alchemist.model.implementations.conditions;
 
+import java.util.Arrays;
 import java.util.Objects;
 
 import it.unibo.alchemist.model.interfaces.Condition;
@@ -34,9 +35,15 @@ public class MoleculeHasConcentration<T> extends AbstractCondition<T> {
         addReadMolecule(this.mol);
     }
 
+    private MoleculeHasConcentration(final Node<T> node, final MoleculeHasConcentration<T> template) {
+        super(node, template);
+        this.mol = template.mol;
+        this.value = template.value;
+    }
+
     @Override
     public Condition<T> cloneCondition(final Node<T> n, final Reaction<T> r) {
-        return new MoleculeHasConcentration<>(n, mol, value);
+        return new MoleculeHasConcentration<>(n, this);
     }
 
     @Override
@@ -44,6 +51,19 @@ public class MoleculeHasConcentration<T> extends AbstractCondition<T> {
         return Context.LOCAL;
     }
 
+    /**
+     * @return the class, the molecule and the value
+     */
+    @Override
+    public Object getMemoizationKey() {
+        return Arrays.asList(getClass(), mol, value);
+    }
+
+    @Override
+    public boolean isPositionDependent() {
+        return false;
+    }
+
     @Override
     public double getPropensityConditioning() {
         return isValid() ? 1 : 0;
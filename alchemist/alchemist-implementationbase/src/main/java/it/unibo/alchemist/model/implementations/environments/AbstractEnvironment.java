@@ -8,15 +8,19 @@
  */
 package it.unibo.alchemist.model.implementations.environments;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Queue;
+import java.util.Set;
 import java.util.Spliterator;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
@@ -64,14 +68,24 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
     protected static final String DEFAULT_MONITOR = null;
     private static final long serialVersionUID = 0L;
     private transient LoadingCache<ImmutablePair<Position, Double>, ListSet<Node<T>>> cache;
+    private boolean deferredMovements;
+    private final Set<Node<T>> dirtyNeighborhoods = new LinkedHashSet<>();
     private Incarnation<T> incarnation;
+    private boolean lazyNeighborhoods;
     private final Map<Molecule, Layer<T>> layers = new LinkedHashMap<>();
+    private final Set<Node<T>> movedNodes = new LinkedHashSet<>();
     private final TIntObjectHashMap<Neighborhood<T>> neighCache = new TIntObjectHashMap<>();
     private final TIntObjectHashMap<Node<T>> nodes = new TIntObjectHashMap<Node<T>>();
-    private final TIntObjectHashMap<Position> nodeToPos = new TIntObjectHashMap<>();
+    /*
+     * The only copy of the coordinates of the nodes: positions are built on
+     * demand by getPosition
+     */
+    private final PositionStore positions = new PositionStore();
+    private transient double[] previousCoordinates;
     private LinkingRule<T> rule;
     private transient Simulation<T> simulation;
     private final SpatialIndex<Node<T>> spatialIndex;
+    private transient boolean updatingNeighborhoods;
 
     private Predicate<Environment<T>> terminator = Predicates.alwaysFalse();
 
@@ -93,6 +107,7 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
 
     @Override
     public final void addNode(final Node<T> node, final Position p) {
+        flushMovements();
         if (nodeShouldBeAdded(node, p)) {
             final Position actualPosition = computeActualInsertionPosition(node, p);
             setPosition(node, actualPosition);
@@ -158,6 +173,65 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
         return cache.get(new ImmutablePair<>(center, range));
     }
 
+    /**
+     * Builds the {@link Position} returned by {@link #getPosition(Node)} out of
+     * the coordinates of a node: this environment only keeps the coordinates,
+     * so anything else carried by the positions it was given is lost. By
+     * default, relies on {@link #makePosition(Number...)}.
+     * 
+     * @param coordinates
+     *            the coordinates of the node, in a new array that the
+     *            position can keep
+     * @return a position with the provided coordinates
+     */
+    protected Position buildPosition(final double[] coordinates) {
+        final Number[] boxed = new Number[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            boxed[i] = coordinates[i];
+        }
+        return makePosition(boxed);
+    }
+
+    /*
+     * The current coordinates of a node, in a buffer that gets reused
+     */
+    private double[] coordinatesOf(final Node<T> node) {
+        if (previousCoordinates == null || previousCoordinates.length != positions.getDimensions()) {
+            previousCoordinates = new double[positions.getDimensions()];
+        }
+        return positions.getCoordinates(node.getId(), previousCoordinates);
+    }
+
+    /**
+     * Reads a coordinate of a node without allocating any object.
+     * 
+     * @param node
+     *            the node
+     * @param dimension
+     *            the dimension
+     * @return the coordinate of the node along the dimension
+     */
+    protected final double getCoordinate(final Node<T> node, final int dimension) {
+        return positions.getCoordinate(Objects.requireNonNull(node).getId(), dimension);
+    }
+
+    /**
+     * Used by the range queries to filter the candidates. Subclasses whose
+     * metric can be computed out of the coordinates (see
+     * {@link #getCoordinate(Node, int)}) should override this method, along
+     * with {@link #getDistanceBetweenNodes(Node, Node)}, so that no position
+     * gets built.
+     * 
+     * @param node
+     *            the node
+     * @param position
+     *            the position
+     * @return the distance between the node and the position
+     */
+    protected double getDistance(final Node<T> node, final Position position) {
+        return getPosition(node).getDistanceTo(position);
+    }
+
     @Override
     public double getDistanceBetweenNodes(final Node<T> n1, final Node<T> n2) {
         final Position p1 = getPosition(n1);
@@ -188,6 +262,7 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
 
     @Override
     public final Neighborhood<T> getNeighborhood(@Nonnull final Node<T> center) {
+        refreshNeighborhoods();
         final Neighborhood<T> result = neighCache.get(Objects.requireNonNull(center).getId());
         if (result == null) {
             if (getNodes().contains(center)) {
@@ -202,6 +277,7 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
      * @return a pointer to the neighborhoods cache structure
      */
     protected final TIntObjectHashMap<Neighborhood<T>> getNeighborsCache() {
+        refreshNeighborhoods();
         return neighCache;
     }
 
@@ -244,9 +320,17 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
         return getAllNodesInRange(center, range);
     }
 
+    /**
+     * @return a new position, built by {@link #buildPosition(double[])}, or
+     *         null if the node is not part of this environment
+     */
     @Override
     public Position getPosition(final Node<T> node) {
-        return nodeToPos.get(Objects.requireNonNull(node).getId());
+        final int id = Objects.requireNonNull(node).getId();
+        if (positions.contains(id)) {
+            return buildPosition(positions.getCoordinates(id, new double[positions.getDimensions()]));
+        }
+        return null;
     }
 
     @Override
@@ -259,6 +343,62 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
         return getSize();
     }
 
+    /**
+     * Updates the neighborhood of a node that has been moved, and notifies
+     * the simulation. While the movements are deferred (see
+     * {@link #setDeferredMovements(boolean)}), both get postponed.
+     * 
+     * @param node
+     *            the node that has been moved
+     */
+    protected final void afterMovement(final Node<T> node) {
+        if (deferredMovements) {
+            movedNodes.add(node);
+        } else {
+            updateNeighborhood(node);
+            ifEngineAvailable(s -> s.nodeMoved(node));
+        }
+    }
+
+    /**
+     * Same as {@link #afterMovement(Node)} for nodes that moved at the same
+     * time: the neighborhoods are all updated before notifying the simulation.
+     * 
+     * @param moved
+     *            the nodes that have been moved
+     */
+    protected final void afterMovements(final Collection<Node<T>> moved) {
+        if (deferredMovements) {
+            movedNodes.addAll(moved);
+        } else {
+            applyMovements(moved);
+        }
+    }
+
+    private void applyMovements(final Collection<Node<T>> moved) {
+        /*
+         * Each pair whose link changed gets notified once: when the second
+         * node is processed, its neighborhood is already up to date
+         */
+        for (final Node<T> node : moved) {
+            updateNeighborhood(node);
+        }
+        final Simulation<T> sim = getSimulation();
+        if (sim != null) {
+            for (final Node<T> node : moved) {
+                sim.nodeMoved(node);
+            }
+        }
+    }
+
+    private void flushMovements() {
+        if (!movedNodes.isEmpty()) {
+            final List<Node<T>> moved = new ArrayList<>(movedNodes);
+            movedNodes.clear();
+            applyMovements(moved);
+        }
+    }
+
     private void ifEngineAvailable(final Consumer<Simulation<T>> r) {
         Optional.ofNullable(getSimulation()).ifPresent(r);
     }
@@ -341,10 +481,12 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
 
     @Override
     public final void removeNode(@Nonnull final Node<T> node) {
+        flushMovements();
+        refreshNeighborhoods();
         invalidateCache();
         nodes.remove(Objects.requireNonNull(node).getId());
-        final Position pos = nodeToPos.remove(node.getId());
-        spatialIndex.remove(node, pos.getCartesianCoordinates());
+        spatialIndex.remove(node, coordinatesOf(node));
+        positions.remove(node.getId());
         /*
          * Neighborhood update
          */
@@ -369,10 +511,65 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
                 .toArray(i -> new double[i][]));
         final int size = result.size();
         return ListSets.unmodifiableListSet(result.stream()
-            .filter(it -> getPosition(it).getDistanceTo(center) <= range)
+            .filter(it -> getDistance(it, center) <= range)
             .collect(Collectors.toCollection(() -> new ArrayListSet<>(size))));
     }
 
+    @Override
+    public final void refreshNeighborhoods() {
+        if (!updatingNeighborhoods && !dirtyNeighborhoods.isEmpty()) {
+            final List<Node<T>> moved = new ArrayList<>(dirtyNeighborhoods);
+            dirtyNeighborhoods.clear();
+            for (final Node<T> node : moved) {
+                propagateNeighborhoodChanges(node);
+            }
+        }
+    }
+
+    /**
+     * Enables or disables the lazy update of the neighborhoods, which only
+     * affects linking rules that are not locally consistent. For them, each
+     * movement would require a visit of the nodes whose neighborhood may have
+     * changed as a consequence: in lazy mode, the moved nodes are just marked,
+     * and the visit is run, once per marked node and against the final
+     * positions, only when a neighborhood is read (including by the
+     * dependency graph of the simulation, see {@link #refreshNeighborhoods()}).
+     * This is much faster when nodes move several times between two reads,
+     * but the simulation gets notified about the topology changes only at the
+     * first read. Disabled by default; disabling it updates the marked
+     * neighborhoods.
+     * 
+     * @param enabled
+     *            true to enable the lazy update
+     */
+    public final void setLazyNeighborhoods(final boolean enabled) {
+        lazyNeighborhoods = enabled;
+        if (!enabled) {
+            refreshNeighborhoods();
+        }
+    }
+
+    /**
+     * While the movements are deferred, the moved nodes get their new
+     * position immediately, but their neighborhoods keep being the ones
+     * before the movements, and the simulation is not notified. Once the
+     * movements stop being deferred, the neighborhoods are updated and the
+     * simulation notified as for {@link #moveNodes(Map)}, once per moved
+     * node, against the final positions. Adding or removing a node applies
+     * the deferred movements beforehand.
+     * 
+     * @param deferred
+     *            true to defer the movements, false to apply the deferred
+     *            ones and stop deferring
+     */
+    @Override
+    public final void setDeferredMovements(final boolean deferred) {
+        deferredMovements = deferred;
+        if (!deferred) {
+            flushMovements();
+        }
+    }
+
     @Override
     public final void setIncarnation(final Incarnation<T> incarnation) {
         if (this.incarnation == null) {
@@ -384,11 +581,13 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
 
     @Override
     public void setLinkingRule(final LinkingRule<T> r) {
+        refreshNeighborhoods();
         rule = Objects.requireNonNull(r);
     }
 
     /**
-     * Adds or changes a position entry in the position map.
+     * Adds or changes the coordinates of a node. Only the coordinates of the
+     * position are kept.
      * 
      * @param n
      *            the node
@@ -396,14 +595,33 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
      *            its new position
      */
     protected final void setPosition(final Node<T> n, final Position p) {
-        final Position pos = nodeToPos.put(Objects.requireNonNull(n).getId(), Objects.requireNonNull(p));
-        if (!p.equals(pos)) {
+        final int id = Objects.requireNonNull(n).getId();
+        Objects.requireNonNull(p);
+        if (positions.contains(id)) {
+            final double[] previous = coordinatesOf(n);
+            if (!hasCoordinates(p, previous)) {
+                invalidateCache();
+            }
+            if (!spatialIndex.move(n, previous, p.getCartesianCoordinates())) {
+                throw new IllegalArgumentException("Tried to move a node not previously present in the environment: \n"
+                        + "Node: " + n + "\n" + "Requested position" + p);
+            }
+        } else {
             invalidateCache();
         }
-        if (pos != null && !spatialIndex.move(n, pos.getCartesianCoordinates(), p.getCartesianCoordinates())) {
-            throw new IllegalArgumentException("Tried to move a node not previously present in the environment: \n"
-                    + "Node: " + n + "\n" + "Requested position" + p);
+        positions.set(id, p);
+    }
+
+    private static boolean hasCoordinates(final Position p, final double[] coordinates) {
+        if (p.getDimensions() != coordinates.length) {
+            return false;
+        }
+        for (int i = 0; i < coordinates.length; i++) {
+            if (Double.compare(p.getCoordinate(i), coordinates[i]) != 0) {
+                return false;
+            }
         }
+        return true;
     }
 
     @Override
@@ -435,7 +653,9 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
     /**
      * After a node movement, recomputes the neighborhood, also notifying the
      * running simulation about the modifications. This allows movement actions
-     * to be defined as LOCAL (they should be normally considered GLOBAL).
+     * to be defined as LOCAL (they should be normally considered GLOBAL). In
+     * lazy mode (see {@link #setLazyNeighborhoods(boolean)}), the update is
+     * deferred to the next read.
      * 
      * @param node
      *            the node that has been moved
@@ -474,7 +694,21 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
                     ifEngineAvailable(s -> s.neighborAdded(node, n));
                 }
             }
+        } else if (lazyNeighborhoods && neighCache.containsKey(node.getId())) {
+            dirtyNeighborhoods.add(node);
         } else {
+            refreshNeighborhoods();
+            propagateNeighborhoodChanges(node);
+        }
+    }
+
+    private void propagateNeighborhoodChanges(final Node<T> node) {
+        /*
+         * The visit reads the neighborhoods: they must not be refreshed
+         * meanwhile
+         */
+        updatingNeighborhoods = true;
+        try {
             final Queue<Operation> operations = recursiveOperation(node);
             final TIntSet processed = new TIntHashSet(getNodesNumber());
             processed.add(node.getId());
@@ -487,6 +721,8 @@ public abstract class AbstractEnvironment<T> implements Environment<T> {
                     processed.add(destId);
                 }
             }
+        } finally {
+            updatingNeighborhoods = false;
         }
     }
 
@@ -0,0 +1,210 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.implementations.environments;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+import org.apache.commons.math3.util.FastMath;
+import org.danilopianini.util.SpatialIndex;
+
+import gnu.trove.map.TLongObjectMap;
+import gnu.trove.map.hash.TLongObjectHashMap;
+
+/**
+ * A bidimensional {@link SpatialIndex} that hashes the elements into the cells
+ * of a uniform grid. Only the cells that contain elements are stored.
+ *
+ * Insertions, removals and moves take constant time, and so do queries for
+ * regions of about the size of a cell: when nodes are roughly uniformly
+ * distributed and neighborhoods are computed with a fixed radius (e.g. with
+ * {@link it.unibo.alchemist.model.implementations.linkingrules.EuclideanDistance}),
+ * the best performance is obtained with a cell size equal to the radius.
+ * Strongly clustered deployments are better served by a tree.
+ *
+ * @param <O>
+ *            the type of the indexed elements
+ */
+public final class CellListIndex<O> implements SpatialIndex<O> {
+
+    private static final long serialVersionUID = 1L;
+    private static final long LOWER_BITS = 0xFFFFFFFFL;
+    private final double cellSize;
+    private final TLongObjectMap<List<Entry<O>>> cells = new TLongObjectHashMap<>();
+
+    /**
+     * @param cellSize
+     *            the side of the cells of the grid
+     */
+    public CellListIndex(final double cellSize) {
+        if (!(cellSize > 0) || Double.isInfinite(cellSize)) {
+            throw new IllegalArgumentException("The cell size must be positive and finite, " + cellSize + " was provided.");
+        }
+        this.cellSize = cellSize;
+    }
+
+    @Override
+    public int getDimensions() {
+        return 2;
+    }
+
+    @Override
+    public void insert(final O element, final double... position) {
+        checkDimensions(position);
+        final long key = key(cell(position[0]), cell(position[1]));
+        List<Entry<O>> cell = cells.get(key);
+        if (cell == null) {
+            cell = new ArrayList<>();
+            cells.put(key, cell);
+        }
+        cell.add(new Entry<>(element, position[0], position[1]));
+    }
+
+    @Override
+    public boolean move(final O element, final double[] start, final double[] end) {
+        checkDimensions(start);
+        checkDimensions(end);
+        final long from = key(cell(start[0]), cell(start[1]));
+        if (from == key(cell(end[0]), cell(end[1]))) {
+            /*
+             * Same cell: no structural change is required
+             */
+            final Entry<O> entry = find(cells.get(from), element, start);
+            if (entry == null) {
+                return false;
+            }
+            entry.x = end[0];
+            entry.y = end[1];
+            return true;
+        }
+        if (remove(element, start)) {
+            insert(element, end);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public List<O> query(final double[]... parallelotope) {
+        double minX = Double.POSITIVE_INFINITY, maxX = Double.NEGATIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (final double[] vertex : parallelotope) {
+            checkDimensions(vertex);
+            minX = FastMath.min(minX, vertex[0]);
+            maxX = FastMath.max(maxX, vertex[0]);
+            minY = FastMath.min(minY, vertex[1]);
+            maxY = FastMath.max(maxY, vertex[1]);
+        }
+        final List<O> result = new ArrayList<>();
+        final int startX = cell(minX), endX = cell(maxX);
+        final int startY = cell(minY), endY = cell(maxY);
+        /*
+         * Very large regions are cheaper to check against the occupied cells
+         */
+        if ((endX - (long) startX + 1) * (endY - (long) startY + 1) > cells.size()) {
+            for (final List<Entry<O>> cell : cells.valueCollection()) {
+                collect(cell, minX, maxX, minY, maxY, result);
+            }
+        } else {
+            /*
+             * Long counters, or a region on the border of the grid loops forever
+             */
+            for (long x = startX; x <= endX; x++) {
+                for (long y = startY; y <= endY; y++) {
+                    collect(cells.get(key((int) x, (int) y)), minX, maxX, minY, maxY, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean remove(final O element, final double... position) {
+        checkDimensions(position);
+        final long key = key(cell(position[0]), cell(position[1]));
+        final List<Entry<O>> cell = cells.get(key);
+        if (cell != null) {
+            final Iterator<Entry<O>> entries = cell.iterator();
+            while (entries.hasNext()) {
+                if (entries.next().matches(element, position)) {
+                    entries.remove();
+                    if (cell.isEmpty()) {
+                        cells.remove(key);
+                    }
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int cell(final double coordinate) {
+        return (int) FastMath.floor(coordinate / cellSize);
+    }
+
+    private static void checkDimensions(final double[] position) {
+        if (position.length != 2) {
+            throw new IllegalArgumentException(CellListIndex.class.getSimpleName() + " only supports bidimensional positions.");
+        }
+    }
+
+    private static <O> void collect(
+            final List<Entry<O>> cell,
+            final double minX, final double maxX,
+            final double minY, final double maxY,
+            final List<O> result) {
+        if (cell != null) {
+            for (final Entry<O> entry : cell) {
+                if (entry.x >= minX && entry.x <= maxX && entry.y >= minY && entry.y <= maxY) {
+                    result.add(entry.element);
+                }
+            }
+        }
+    }
+
+    private static <O> Entry<O> find(final List<Entry<O>> cell, final O element, final double[] position) {
+        if (cell != null) {
+            for (final Entry<O> entry : cell) {
+                if (entry.matches(element, position)) {
+                    return entry;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static long key(final int x, final int y) {
+        return ((long) x << Integer.SIZE) | (y & LOWER_BITS);
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "(cell size: " + cellSize + ", " + cells.size() + " cells)";
+    }
+
+    private static final class Entry<O> implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final O element;
+        private double x, y;
+
+        private Entry(final O element, final double x, final double y) {
+            this.element = element;
+            this.x = x;
+            this.y = y;
+        }
+
+        private boolean matches(final O other, final double[] position) {
+            return x == position[0] && y == position[1] && Objects.equals(element, other);
+        }
+    }
+
+}
@@ -12,11 +12,12 @@ import static java.lang.Double.NEGATIVE_INFINITY;
 import static java.lang.Double.NaN;
 import static java.lang.Double.POSITIVE_INFINITY;
 
+import java.util.Map;
+
 import org.apache.commons.math3.util.FastMath;
 import org.danilopianini.util.FlexibleQuadTree;
 import org.danilopianini.util.SpatialIndex;
 
-import it.unibo.alchemist.core.interfaces.Simulation;
 import it.unibo.alchemist.model.implementations.positions.Continuous2DEuclidean;
 import it.unibo.alchemist.model.interfaces.Neighborhood;
 import it.unibo.alchemist.model.interfaces.Node;
@@ -38,7 +39,20 @@ public class Continuous2DEnvironment<T> extends AbstractEnvironment<T> {
      * Builds a new Continuous2DEnvironment, using a {@link FlexibleQuadTree} as {@link SpatialIndex}.
      */
     public Continuous2DEnvironment() {
-        super(new FlexibleQuadTree<>());
+        this(new FlexibleQuadTree<>());
+    }
+
+    /**
+     * Builds a new Continuous2DEnvironment, using the provided
+     * {@link SpatialIndex} (e.g. a {@link CellListIndex}).
+     *
+     * @param index
+     *            the {@link SpatialIndex} to use in order to efficiently
+     *            retrieve nodes. It must be empty, and not shared with other
+     *            environments.
+     */
+    public Continuous2DEnvironment(final SpatialIndex<Node<T>> index) {
+        super(index);
     }
 
     @Override
@@ -46,6 +60,37 @@ public class Continuous2DEnvironment<T> extends AbstractEnvironment<T> {
         return p;
     }
 
+    @Override
+    protected Position buildPosition(final double[] coordinates) {
+        return new Continuous2DEuclidean(coordinates[0], coordinates[1]);
+    }
+
+    /**
+     * Euclidean distance, computed out of the stored coordinates.
+     */
+    @Override
+    protected double getDistance(final Node<T> node, final Position position) {
+        if (position.getDimensions() != 2) {
+            return super.getDistance(node, position);
+        }
+        return distance(getCoordinate(node, 0) - position.getCoordinate(0), getCoordinate(node, 1) - position.getCoordinate(1));
+    }
+
+    /**
+     * Euclidean distance, computed out of the stored coordinates.
+     */
+    @Override
+    public double getDistanceBetweenNodes(final Node<T> n1, final Node<T> n2) {
+        return distance(getCoordinate(n1, 0) - getCoordinate(n2, 0), getCoordinate(n1, 1) - getCoordinate(n2, 1));
+    }
+
+    /*
+     * Same as MathArrays.distance, used by the euclidean positions
+     */
+    private static double distance(final double dx, final double dy) {
+        return FastMath.sqrt(dx * dx + dy * dy);
+    }
+
     @Override
     public int getDimensions() {
         return 2;
@@ -123,13 +168,40 @@ public class Continuous2DEnvironment<T> extends AbstractEnvironment<T> {
 
     @Override
     public void moveNodeToPosition(final Node<T> node, final Position newpos) {
-        includeObject(newpos);
-        setPosition(node, newpos);
-        updateNeighborhood(node);
-        final Simulation<T> sim = getSimulation();
-        if (sim != null) {
-            sim.nodeMoved(node);
+        final Position actual = computeActualMovePosition(node, newpos);
+        includeObject(actual);
+        setPosition(node, actual);
+        afterMovement(node);
+    }
+
+    /**
+     * Moves all the nodes first, then updates their neighborhoods, and
+     * finally notifies the simulation. Neighborhoods are thus computed once,
+     * against the final positions, and no link is created and broken within
+     * the same batch.
+     */
+    @Override
+    public void moveNodes(final Map<Node<T>, Position> positions) {
+        for (final Map.Entry<Node<T>, Position> move : positions.entrySet()) {
+            final Position actual = computeActualMovePosition(move.getKey(), move.getValue());
+            includeObject(actual);
+            setPosition(move.getKey(), actual);
         }
+        afterMovements(positions.keySet());
+    }
+
+    /**
+     * Allows subclasses to constrain the movements of the nodes, e.g. because
+     * of obstacles. Both single and batched movements go through this method.
+     *
+     * @param node
+     *            the node
+     * @param requested
+     *            the requested position
+     * @return the position where the node should actually be moved
+     */
+    protected Position computeActualMovePosition(final Node<T> node, final Position requested) {
+        return requested;
     }
 
     @Override
@@ -23,12 +23,9 @@ public abstract class LimitedContinuos2D<T> extends Continuous2DEnvironment<T> {
     private static final long serialVersionUID = -7838255122589911058L;
 
     @Override
-    public void moveNodeToPosition(final Node<T> node, final Position newPos) {
-        final double[] cur = getPosition(node).getCartesianCoordinates();
-        final double[] np = newPos.getCartesianCoordinates();
+    protected Position computeActualMovePosition(final Node<T> node, final Position newPos) {
         // Calculate the next position allowed
-        final Position next = next(cur[0], cur[1], np[0], np[1]);
-        super.moveNodeToPosition(node, next);
+        return next(getCoordinate(node, 0), getCoordinate(node, 1), newPos.getCoordinate(0), newPos.getCoordinate(1));
     }
 
     @Override
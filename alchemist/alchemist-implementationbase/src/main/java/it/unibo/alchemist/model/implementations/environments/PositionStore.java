@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.implementations.environments;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import gnu.trove.impl.Constants;
+import gnu.trove.map.TIntIntMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import it.unibo.alchemist.model.interfaces.Position;
+
+/**
+ * Stores the coordinates of a set of elements, identified by an integer id,
+ * in a single contiguous array: the coordinates of each element lie in a
+ * dense slot, and removing an element moves the last slot in its place.
+ * Reads and writes do not allocate.
+ *
+ * The number of dimensions is fixed by the first stored position.
+ */
+public final class PositionStore implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NO_SLOT = -1;
+    private final TIntIntMap slots = new TIntIntHashMap(INITIAL_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, NO_SLOT, NO_SLOT);
+    private int dimensions;
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private double[] coordinates = new double[0];
+
+    /**
+     * @param id
+     *            the element
+     * @return true if the element has a position in this store
+     */
+    public boolean contains(final int id) {
+        return slots.containsKey(id);
+    }
+
+    /**
+     * @param id
+     *            the element
+     * @param dimension
+     *            the dimension
+     * @return the coordinate of the element along the dimension
+     */
+    public double getCoordinate(final int id, final int dimension) {
+        if (dimension < 0 || dimension >= dimensions) {
+            throw new IllegalArgumentException(dimension + " is not an allowed dimension, only values between 0 and "
+                    + (dimensions - 1) + " are allowed.");
+        }
+        return coordinates[base(id) + dimension];
+    }
+
+    /**
+     * Copies the coordinates of an element in an existing array.
+     *
+     * @param id
+     *            the element
+     * @param destination
+     *            an array of at least {@link #getDimensions()} elements
+     * @return destination
+     */
+    public double[] getCoordinates(final int id, final double[] destination) {
+        System.arraycopy(coordinates, base(id), destination, 0, dimensions);
+        return destination;
+    }
+
+    /**
+     * @return the number of dimensions, or zero if nothing was ever stored
+     */
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Removes the position of an element.
+     *
+     * @param id
+     *            the element
+     * @return true if the element had a position in this store
+     */
+    public boolean remove(final int id) {
+        final int slot = slots.remove(id);
+        if (slot == NO_SLOT) {
+            return false;
+        }
+        final int last = slots.size();
+        if (slot != last) {
+            ids[slot] = ids[last];
+            System.arraycopy(coordinates, last * dimensions, coordinates, slot * dimensions, dimensions);
+            slots.put(ids[slot], slot);
+        }
+        return true;
+    }
+
+    /**
+     * Stores or updates the position of an element.
+     *
+     * @param id
+     *            the element
+     * @param position
+     *            the position, whose number of dimensions must match the one
+     *            of the positions previously stored
+     */
+    public void set(final int id, final Position position) {
+        final int base = baseForWriting(id, position.getDimensions());
+        for (int i = 0; i < dimensions; i++) {
+            coordinates[base + i] = position.getCoordinate(i);
+        }
+    }
+
+    /**
+     * Stores or updates the position of an element.
+     *
+     * @param id
+     *            the element
+     * @param position
+     *            the coordinates, whose number must match the one of the
+     *            positions previously stored
+     */
+    public void set(final int id, final double... position) {
+        System.arraycopy(position, 0, coordinates, baseForWriting(id, position.length), dimensions);
+    }
+
+    /**
+     * @return the number of elements with a position in this store
+     */
+    public int size() {
+        return slots.size();
+    }
+
+    private int base(final int id) {
+        final int slot = slots.get(id);
+        if (slot == NO_SLOT) {
+            throw new IllegalArgumentException("No position stored for " + id);
+        }
+        return slot * dimensions;
+    }
+
+    private int baseForWriting(final int id, final int positionDimensions) {
+        if (dimensions == 0) {
+            if (positionDimensions == 0) {
+                throw new IllegalArgumentException("Positions must have at least one dimension.");
+            }
+            dimensions = positionDimensions;
+            coordinates = new double[INITIAL_CAPACITY * dimensions];
+        } else if (positionDimensions != dimensions) {
+            throw new IllegalArgumentException("Positions with " + positionDimensions
+                    + " dimensions can not be stored along with " + dimensions + "-dimensional ones.");
+        }
+        int slot = slots.get(id);
+        if (slot == NO_SLOT) {
+            slot = slots.size();
+            if (slot == ids.length) {
+                ids = Arrays.copyOf(ids, slot * 2);
+                coordinates = Arrays.copyOf(coordinates, slot * 2 * dimensions);
+            }
+            ids[slot] = id;
+            slots.put(id, slot);
+        }
+        return slot * dimensions;
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.implementations.linkingrules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import it.unibo.alchemist.model.implementations.neighborhoods.Neighborhoods;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Neighborhood;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Position;
+
+/**
+ * {@link EuclideanDistance} backed by Verlet lists. Each node keeps a list of
+ * candidate neighbors, those whose distance was within the radius plus a skin
+ * when the list was built; neighborhoods are filtered out of the candidates,
+ * and a node's list gets rebuilt (querying the environment) only once the
+ * node moves farther than half the skin from where the list was built.
+ *
+ * Lists are kept symmetric: when a node rebuilds its list, it also enters the
+ * lists of its new candidates, and leaves those of its old ones. As a
+ * consequence, two nodes that are not candidates of each other were at least
+ * radius plus skin apart, measured between the positions where they last
+ * built their lists, and since then none of them moved farther than half the
+ * skin: they are not neighbors.
+ *
+ * Larger skins mean fewer queries, but longer lists to filter: a skin
+ * comparable to the distance nodes travel in a few moves is usually a good
+ * choice. An instance keeps the lists of a single environment, and must not
+ * be shared.
+ *
+ * @param <T>
+ *            The type which describes the concentration of a molecule
+ */
+public class VerletEuclideanDistance<T> extends EuclideanDistance<T> {
+
+    private static final long serialVersionUID = 1L;
+    private final double skin;
+    private final TIntObjectMap<Position> references = new TIntObjectHashMap<>();
+    private final TIntObjectMap<Set<Node<T>>> candidates = new TIntObjectHashMap<>();
+
+    /**
+     * @param radius
+     *            connection radius
+     * @param skin
+     *            how much the candidate lists extend beyond the radius
+     */
+    public VerletEuclideanDistance(final double radius, final double skin) {
+        super(radius);
+        if (!(skin >= 0) || Double.isInfinite(skin)) {
+            throw new IllegalArgumentException("The skin must be non negative and finite, " + skin + " was provided.");
+        }
+        this.skin = skin;
+    }
+
+    @Override
+    public Neighborhood<T> computeNeighborhood(final Node<T> center, final Environment<T> env) {
+        final Position position = env.getPosition(center);
+        final Position reference = references.get(center.getId());
+        if (reference == null || reference.getDistanceTo(position) > skin / 2) {
+            rebuild(center, position, env);
+        }
+        final Set<Node<T>> list = candidates.get(center.getId());
+        final List<Node<T>> neighbors = new ArrayList<>(list.size());
+        final Iterator<Node<T>> iterator = list.iterator();
+        while (iterator.hasNext()) {
+            final Node<T> candidate = iterator.next();
+            if (env.getNodeByID(candidate.getId()) == null) {
+                iterator.remove();
+                forget(candidate);
+            } else if (env.getDistanceBetweenNodes(candidate, center) <= getRange()) {
+                neighbors.add(candidate);
+            }
+        }
+        return Neighborhoods.make(env, center, neighbors);
+    }
+
+    /*
+     * For nodes removed from the environment, as the symmetry of their lists
+     * is no longer maintained: if they get added back, they must rebuild
+     * their lists from scratch.
+     */
+    private void forget(final Node<T> node) {
+        references.remove(node.getId());
+        candidates.remove(node.getId());
+    }
+
+    /**
+     * @return the skin
+     */
+    protected final double getSkin() {
+        return skin;
+    }
+
+    private void rebuild(final Node<T> center, final Position position, final Environment<T> env) {
+        /*
+         * Other nodes can be up to half a skin away from their references
+         */
+        final List<Node<T>> found = env.getNodesWithinRange(center, getRange() + skin + skin / 2);
+        final Set<Node<T>> fresh = new LinkedHashSet<>(found.size() * 2);
+        for (final Node<T> node : found) {
+            final Position otherReference = references.get(node.getId());
+            /*
+             * Nodes with no reference yet build their list later, and will
+             * add this node if required: listing them here is just
+             * conservative.
+             */
+            if (otherReference == null || otherReference.getDistanceTo(position) <= getRange() + skin) {
+                fresh.add(node);
+                final Set<Node<T>> otherList = candidates.get(node.getId());
+                if (otherList != null) {
+                    otherList.add(center);
+                }
+            }
+        }
+        final Set<Node<T>> old = candidates.put(center.getId(), fresh);
+        for (final Node<T> node : old == null ? Collections.<Node<T>>emptySet() : old) {
+            if (!fresh.contains(node)) {
+                if (env.getNodeByID(node.getId()) == null) {
+                    forget(node);
+                } else {
+                    final Set<Node<T>> otherList = candidates.get(node.getId());
+                    if (otherList != null) {
+                        otherList.remove(center);
+                    }
+                }
+            }
+        }
+        references.put(center.getId(), position);
+    }
+
+}
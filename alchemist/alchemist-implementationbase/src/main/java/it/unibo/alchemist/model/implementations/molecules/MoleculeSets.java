@@ -0,0 +1,73 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.implementations.molecules;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.danilopianini.util.ArrayListSet;
+import org.danilopianini.util.ListSet;
+import org.danilopianini.util.ListSets;
+
+import it.unibo.alchemist.model.implementations.nodes.GenericNode;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+
+/**
+ * Canonical, unmodifiable copies of the sets of molecules that conditions,
+ * actions and reactions declare for the dependency graph. Every node usually
+ * gets the same reactions, hence the same sets: sharing them saves most of
+ * the memory they take in large scenarios.
+ *
+ * Each environment has its own instance, shared by its nodes (see
+ * {@link GenericNode#getMoleculeSets()}) and collected along with them. It
+ * holds one entry per distinct set declared in the environment, including
+ * the partial ones built while the molecules get added one by one.
+ */
+public final class MoleculeSets implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final Map<List<Molecule>, ListSet<Molecule>> canonical = new ConcurrentHashMap<>();
+
+    /**
+     * @param molecules
+     *            the molecules
+     * @return an unmodifiable {@link ListSet} with the same molecules in the
+     *         same order, shared with every other caller providing equal
+     *         molecules
+     */
+    public ListSet<Molecule> intern(final ListSet<? extends Molecule> molecules) {
+        final List<Molecule> key = Collections.unmodifiableList(new ArrayList<>(molecules));
+        final ListSet<Molecule> result = canonical.get(key);
+        return result == null
+                ? canonical.computeIfAbsent(key, k -> ListSets.unmodifiableListSet(new ArrayListSet<>(k)))
+                : result;
+    }
+
+    /**
+     * @param node
+     *            the node the molecules are declared for
+     * @param molecules
+     *            the molecules
+     * @return an unmodifiable {@link ListSet} with the same molecules in the
+     *         same order, shared with the other nodes of the same environment
+     *         if the node is a {@link GenericNode}
+     */
+    public static ListSet<Molecule> intern(final Node<?> node, final ListSet<? extends Molecule> molecules) {
+        if (node instanceof GenericNode) {
+            return ((GenericNode<?>) node).getMoleculeSets().intern(molecules);
+        }
+        return ListSets.unmodifiableListSet(new ArrayListSet<>(molecules));
+    }
+
+}
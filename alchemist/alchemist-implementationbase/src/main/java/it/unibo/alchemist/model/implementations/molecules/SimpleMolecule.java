@@ -13,10 +13,15 @@ package it.unibo.alchemist.model.implementations.molecules;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import com.google.common.collect.MapMaker;
 import com.google.common.hash.HashCode;
 import com.google.common.hash.Hashing;
 
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import it.unibo.alchemist.model.interfaces.Molecule;
 
 
@@ -28,8 +33,28 @@ import it.unibo.alchemist.model.interfaces.Molecule;
 public class SimpleMolecule implements Molecule {
 
     private static final long serialVersionUID = 1L;
+    /*
+     * Global, since the indexes of any two molecules must be comparable.
+     * Maps class and name to the canonical molecule, which holds the index.
+     * Values are weak: every indexed molecule references its canonical
+     * molecule, so an entry is released only once no molecule with its
+     * index is left, and a later registration can safely get a new index.
+     * Lookups are lock free reads, so concurrent simulations do not contend
+     * on the registry once their molecules are indexed.
+     */
+    private static final ConcurrentMap<Key, SimpleMolecule> CANONICAL = new MapMaker().weakValues().makeMap();
+    private static final AtomicInteger LAST_INDEX = new AtomicInteger();
 
     private byte[] hash;
+    /*
+     * The index plus one, zero if not assigned yet (also after deserialization)
+     */
+    private transient int index;
+    /*
+     * Only keeps the canonical molecule, hence the index, alive
+     */
+    @SuppressFBWarnings(value = "URF_UNREAD_FIELD", justification = "Strong reference for the weak registry")
+    private transient SimpleMolecule canonical;
     private int hash32;
     private long hash64;
     private final CharSequence n;
@@ -42,11 +67,57 @@ public class SimpleMolecule implements Molecule {
         this.n = name;
     }
 
+    /**
+     * Returns the canonical molecule with the provided name: repeated calls
+     * return the same, already indexed (see {@link #getIndex()}), instance,
+     * as long as it is referenced. Cheaper than building a new molecule for
+     * each access to a node.
+     * 
+     * @param name
+     *            the molecule name
+     * @return the canonical {@link SimpleMolecule} with the provided name
+     */
+    public static SimpleMolecule of(final String name) {
+        final SimpleMolecule known = CANONICAL.get(new Key(SimpleMolecule.class, name));
+        return known == null ? register(new SimpleMolecule(name)) : known;
+    }
+
+    /*
+     * Returns the canonical molecule equal to the provided one, which
+     * becomes canonical itself if there is none
+     */
+    private static SimpleMolecule register(final SimpleMolecule mol) {
+        final Key key = new Key(mol.getClass(), mol.getName());
+        final SimpleMolecule known = CANONICAL.get(key);
+        if (known != null) {
+            return known;
+        }
+        /*
+         * A concurrent registration may win, wasting an index
+         */
+        mol.index = LAST_INDEX.incrementAndGet();
+        mol.canonical = mol;
+        final SimpleMolecule previous = CANONICAL.putIfAbsent(key, mol);
+        return previous == null ? mol : previous;
+    }
+
     @Override
     public boolean dependsOn(final Molecule mol) {
         return equals(mol);
     }
 
+    /**
+     * Molecules depend on each other only if they are equal, hence each
+     * molecule is its own key. Subclasses changing
+     * {@link #dependsOn(Molecule)} must override this method accordingly.
+     *
+     * @return this molecule
+     */
+    @Override
+    public Object getDependencyKey() {
+        return this;
+    }
+
     @Override
     public boolean equals(final Object obj) {
         if (obj == this) {
@@ -57,6 +128,9 @@ public class SimpleMolecule implements Molecule {
             if (n == other.n) {
                 return true;
             }
+            if (index != 0 && other.index != 0) {
+                return index == other.index;
+            }
             return hashCode() == other.hashCode() && getId() == other.getId() && Arrays.equals(hash, other.hash);
         }
         return false;
@@ -68,6 +142,24 @@ public class SimpleMolecule implements Molecule {
         return hash64;
     }
 
+    /**
+     * Registers this molecule in a global registry on the first call: equal
+     * molecules get the same index, and indexed molecules are compared
+     * without hashing. An index is released once no molecule holding it is
+     * left, but it is not reused.
+     * 
+     * @return a non negative index, equal for equal molecules
+     */
+    @Override
+    public int getIndex() {
+        if (index == 0) {
+            final SimpleMolecule registered = register(this);
+            canonical = registered;
+            index = registered.index;
+        }
+        return index - 1;
+    }
+
     @Override
     public final String getName() {
         return n.toString();
@@ -93,4 +185,28 @@ public class SimpleMolecule implements Molecule {
         return n.toString();
     }
 
+    private static final class Key {
+        private final Class<?> type;
+        private final String name;
+
+        private Key(final Class<?> type, final String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof Key) {
+                final Key other = (Key) obj;
+                return type == other.type && name.equals(other.name);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, name);
+        }
+    }
+
 }
@@ -19,13 +19,15 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Spliterator;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import com.google.common.collect.MapMaker;
 import com.googlecode.concurrentlinkedhashmap.ConcurrentLinkedHashMap;
 
+import it.unibo.alchemist.model.implementations.conditions.ConditionMemo;
+import it.unibo.alchemist.model.implementations.molecules.MoleculeSets;
 import it.unibo.alchemist.model.interfaces.Environment;
 import it.unibo.alchemist.model.interfaces.Molecule;
 import it.unibo.alchemist.model.interfaces.Node;
@@ -44,23 +46,33 @@ public abstract class GenericNode<T> implements Node<T> {
     private static final long serialVersionUID = 2496775909028222278L;
     private static final ConcurrentMap<Environment<?>, AtomicInteger> IDGENERATOR = new MapMaker()
             .weakKeys().makeMap();
-    private static final Semaphore MUTEX = new Semaphore(1);
+    private static final ConcurrentMap<Environment<?>, MoleculeSets> MOLECULE_SETS = new MapMaker()
+            .weakKeys().makeMap();
     private final int id;
+    private final MoleculeSets moleculeSets;
+    private int reactionCount;
     private final List<Reaction<T>> reactions = new ArrayList<>();
     private final ConcurrentMap<Molecule, T> molecules = new ConcurrentLinkedHashMap.Builder<Molecule, T>()
             .maximumWeightedCapacity(Long.MAX_VALUE)
             .concurrencyLevel(2)
             .build();
-
-    private static int idFromEnv(final Environment<?> env) {
-        MUTEX.acquireUninterruptibly();
-        AtomicInteger idgen = IDGENERATOR.get(Objects.requireNonNull(env));
-        if (idgen == null) {
-            idgen = new AtomicInteger();
-            IDGENERATOR.put(env, idgen);
+    private final ConditionMemo conditionMemo = new ConditionMemo();
+
+    private static <V> V ofEnvironment(final ConcurrentMap<Environment<?>, V> map, final Environment<?> env,
+            final Supplier<V> factory) {
+        /*
+         * No global lock: simulations running in parallel only contend on the
+         * map when their environments get registered
+         */
+        V result = map.get(Objects.requireNonNull(env));
+        if (result == null) {
+            final V fresh = factory.get();
+            result = map.putIfAbsent(env, fresh);
+            if (result == null) {
+                result = fresh;
+            }
         }
-        MUTEX.release();
-        return idgen.getAndIncrement();
+        return result;
     }
 
     /**
@@ -69,11 +81,8 @@ public abstract class GenericNode<T> implements Node<T> {
      *            environment, always starting from 0.
      */
     public GenericNode(final Environment<?> env) {
-        this(idFromEnv(env));
-    }
-
-    private GenericNode(final int id) {
-        this.id = id;
+        id = ofEnvironment(IDGENERATOR, env, AtomicInteger::new).getAndIncrement();
+        moleculeSets = ofEnvironment(MOLECULE_SETS, env, MoleculeSets::new);
     }
 
     @Override
@@ -136,6 +145,33 @@ public abstract class GenericNode<T> implements Node<T> {
         return res;
     }
 
+    /**
+     * @return the memoized results of the conditions of this node's reactions
+     */
+    public final ConditionMemo getConditionMemo() {
+        return conditionMemo;
+    }
+
+    /**
+     * @return the canonical molecule sets, shared by all the nodes of the
+     *         environment this node was created for
+     */
+    public final MoleculeSets getMoleculeSets() {
+        return moleculeSets;
+    }
+
+    /**
+     * Counts the reactions built for this node, so that they can get
+     * reproducible hash codes without relying on global state. Not
+     * synchronized: the reactions of a node are expected to be built by a
+     * single thread, and a duplicate would only cause a hash collision.
+     *
+     * @return a number that is different at each call on this node
+     */
+    public final int nextReactionSeed() {
+        return reactionCount++;
+    }
+
     @Override
     public Map<Molecule, T> getContents() {
         return Collections.unmodifiableMap(molecules);
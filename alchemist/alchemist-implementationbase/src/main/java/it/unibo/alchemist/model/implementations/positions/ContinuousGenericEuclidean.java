@@ -96,7 +96,7 @@ public class ContinuousGenericEuclidean implements Position {
 
     @Override
     public double getDistanceTo(final Position p) {
-        final double[] coord = p.getCartesianCoordinates();
+        final double[] coord = coordinatesOf(p);
         if (c.length == coord.length) {
             return MathArrays.distance(c, coord);
         } else {
@@ -118,8 +118,7 @@ public class ContinuousGenericEuclidean implements Position {
      * @return true if the two positions are the the same
      */
     public boolean samePosition(final Position o) {
-        final double[] p = o.getCartesianCoordinates();
-        return Arrays.equals(c, p);
+        return Arrays.equals(c, coordinatesOf(o));
     }
 
     @Override
@@ -132,12 +131,20 @@ public class ContinuousGenericEuclidean implements Position {
 
     @Override
     public Position add(final Position other) {
-        return new ContinuousGenericEuclidean(false, MathArrays.ebeAdd(c, other.getCartesianCoordinates()));
+        return new ContinuousGenericEuclidean(false, MathArrays.ebeAdd(c, coordinatesOf(other)));
     }
 
     @Override
     public Position subtract(final Position other) {
-        return new ContinuousGenericEuclidean(false, MathArrays.ebeSubtract(c, other.getCartesianCoordinates()));
+        return new ContinuousGenericEuclidean(false, MathArrays.ebeSubtract(c, coordinatesOf(other)));
+    }
+
+    /*
+     * Coordinates of another position, for read only access: no copy is
+     * made if it is a ContinuousGenericEuclidean
+     */
+    private static double[] coordinatesOf(final Position p) {
+        return p instanceof ContinuousGenericEuclidean ? ((ContinuousGenericEuclidean) p).c : p.getCartesianCoordinates();
     }
 
 }
@@ -11,6 +11,9 @@
  */
 package it.unibo.alchemist.model.implementations.reactions;
 
+import it.unibo.alchemist.core.interfaces.Simulation;
+import it.unibo.alchemist.model.implementations.molecules.MoleculeSets;
+import it.unibo.alchemist.model.implementations.nodes.GenericNode;
 import it.unibo.alchemist.model.interfaces.Context;
 import it.unibo.alchemist.model.interfaces.Action;
 import it.unibo.alchemist.model.interfaces.Condition;
@@ -21,17 +24,15 @@ import it.unibo.alchemist.model.interfaces.Reaction;
 import it.unibo.alchemist.model.interfaces.Time;
 import it.unibo.alchemist.model.interfaces.TimeDistribution;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 import org.danilopianini.util.LinkedListSet;
 import org.danilopianini.util.ListSet;
-import org.danilopianini.util.ListSets;
 
 /**
  * The type which describes the concentration of a molecule
@@ -43,30 +44,45 @@ import org.danilopianini.util.ListSets;
  */
 public abstract class AReaction<T> implements Reaction<T> {
 
-    private static final int CENTER = 0;
-    private static final AtomicInteger ID_GEN = new AtomicInteger();
     /**
      * How bigger should be the StringBuffer with respect to the previous
      * interaction
      */
     private static final byte MARGIN = 20;
-    private static final int MAX = 1073741824;
-    private static final int MIN = -MAX;
     /**
      * Separators for toString.
      */
     protected static final String NEXT = "next scheduled @", SEP0 = " :: ", SEP1 = " -", SEP2 = "-> ";
-    private static final AtomicInteger ODD = new AtomicInteger(1);
-    private static final AtomicBoolean POSITIVE = new AtomicBoolean(true);
-    private static final AtomicInteger POW = new AtomicInteger(1);
     private static final long serialVersionUID = 6454665278161217867L;
+    /*
+     * Subclasses deriving further state from their conditions or actions must
+     * get them through the setters, even when cloned
+     */
+    private static final ClassValue<Boolean> OVERRIDES_SETTERS = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            for (Class<?> current = type; !AReaction.class.equals(current); current = current.getSuperclass()) {
+                for (final String setter : new String[] {"setActions", "setConditions"}) {
+                    try {
+                        current.getDeclaredMethod(setter, List.class);
+                        return true;
+                    } catch (NoSuchMethodException e) {
+                        continue;
+                    }
+                }
+            }
+            return false;
+        }
+    };
 
     private List<? extends Action<T>> actions = new ArrayList<Action<T>>(0);
     private List<? extends Condition<T>> conditions = new ArrayList<Condition<T>>(0);
-    private ListSet<Molecule> influencing = new LinkedListSet<>(), influenced = new LinkedListSet<>();
+    /*
+     * Shared with the clones of this reaction, replaced at any change
+     */
+    private Signature signature;
 
     private final int hash;
-    private Context incontext = Context.LOCAL, outcontext = Context.LOCAL;
     private int stringLength = Byte.MAX_VALUE;
     private final TimeDistribution<T> dist;
     private final Node<T> node;
@@ -76,6 +92,15 @@ public abstract class AReaction<T> implements Reaction<T> {
      * form of a {@link Supplier}, it populates the actions and conditions with
      * cloned version of the ones registered in this reaction.
      * 
+     * Everything this reaction derives from its conditions and actions
+     * (contexts, influencing and influenced molecules, position dependency)
+     * is immutable, and shared with the clone rather than computed again: if
+     * the clone is of the same class, and the class does not override
+     * {@link #setActions(List)} or {@link #setConditions(List)}, the clone
+     * only gets its own conditions and actions. Clones of conditions and
+     * actions must then declare the same molecules and contexts as the
+     * originals.
+     * 
      * @param builder
      *            the supplier
      * 
@@ -94,8 +119,18 @@ public abstract class AReaction<T> implements Reaction<T> {
         for (final Action<T> act : getActions()) {
             a.add(act.cloneAction(n, res));
         }
-        res.setActions(a);
-        res.setConditions(c);
+        if (res.getClass().equals(getClass()) && !OVERRIDES_SETTERS.get(getClass())) {
+            final AReaction<T> clone = (AReaction<T>) res;
+            clone.actions = a;
+            clone.conditions = c;
+            clone.signature = signature;
+        } else {
+            res.setActions(a);
+            res.setConditions(c);
+            if (res instanceof AReaction && signature.equals(((AReaction<?>) res).signature)) {
+                ((AReaction<?>) res).signature = signature;
+            }
+        }
         return res;
     }
 
@@ -108,27 +143,24 @@ public abstract class AReaction<T> implements Reaction<T> {
      *            the time distribution this reaction should follow
      */
     public AReaction(final Node<T> n, final TimeDistribution<T> pd) {
-        final int id = ID_GEN.getAndIncrement();
-        if (id == 0) {
-            hash = CENTER;
+        /*
+         * Hashes are derived from the node, rather than from a global
+         * sequence: simulations running in parallel do not contend on them,
+         * and each of them gets the same hashes regardless of the others.
+         */
+        if (n instanceof GenericNode) {
+            hash = mix(n.getId(), ((GenericNode<T>) n).nextReactionSeed());
         } else {
-            final boolean positive = POSITIVE.get();
-            final int val = positive ? MAX : MIN;
-            final int pow = POW.get();
-            final int odd = ODD.get();
-            hash = val / pow * odd;
-            if (!positive) {
-                if (odd + 2 > pow) {
-                    POW.set(pow * 2);
-                    ODD.set(1);
-                } else {
-                    ODD.set(odd + 2);
-                }
-            }
-            POSITIVE.set(!positive);
+            hash = System.identityHashCode(this);
         }
         dist = pd;
         node = n;
+        final ListSet<Molecule> empty = MoleculeSets.intern(n, new LinkedListSet<>());
+        /*
+         * Conservative until the actions are known: subclasses may execute
+         * without declaring any
+         */
+        signature = new Signature(Context.LOCAL, Context.LOCAL, empty, empty, false, true);
     }
 
     @Override
@@ -138,20 +170,17 @@ public abstract class AReaction<T> implements Reaction<T> {
 
     @Override
     public final boolean equals(final Object o) {
-        if (o instanceof AReaction) {
-            return ((AReaction<?>) o).hash == hash;
-        }
-        return false;
+        return this == o;
     }
 
     @Override
     public Context getInputContext() {
-        return incontext;
+        return signature.input;
     }
 
     @Override
     public Context getOutputContext() {
-        return outcontext;
+        return signature.output;
     }
 
     @Override
@@ -159,6 +188,48 @@ public abstract class AReaction<T> implements Reaction<T> {
         return dist.getNextOccurence();
     }
 
+    @Override
+    public double getTauAsDouble() {
+        return dist.getNextOccurenceAsDouble();
+    }
+
+    /**
+     * The default update only relies on the conditions and on the time
+     * distribution: a reaction is position dependent if any of its conditions
+     * is. Subclasses whose {@link #updateInternalStatus(Time, boolean, Environment)}
+     * reads spatial information must override this method.
+     * 
+     * @return true if any condition is position dependent
+     */
+    @Override
+    public boolean isPositionDependent() {
+        return signature.positionDependent;
+    }
+
+    /**
+     * @return false only if the actions have been set (see
+     *         {@link #setActions(List)}), and none of them may change the
+     *         environment. Subclasses executing anything else must override
+     *         this method accordingly
+     */
+    @Override
+    public boolean mayChangeEnvironment() {
+        return signature.environmentChanging;
+    }
+
+    /*
+     * Spreads the seed over the whole integer range (MurmurHash3 finalizer)
+     */
+    private static int mix(final int nodeId, final int seed) {
+        int h = nodeId * 0x9E3779B9 + seed;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
     @Override
     public final int hashCode() {
         return hash;
@@ -174,7 +245,8 @@ public abstract class AReaction<T> implements Reaction<T> {
      *            the new input context
      */
     protected void setInputContext(final Context c) {
-        incontext = c;
+        signature = new Signature(c, signature.output, signature.influencing, signature.influenced,
+                signature.positionDependent, signature.environmentChanging);
     }
 
     /**
@@ -184,7 +256,8 @@ public abstract class AReaction<T> implements Reaction<T> {
      *            the new input context
      */
     protected void setOutputContext(final Context c) {
-        outcontext = c;
+        signature = new Signature(signature.input, c, signature.influencing, signature.influenced,
+                signature.positionDependent, signature.environmentChanging);
     }
 
     @Override
@@ -225,6 +298,26 @@ public abstract class AReaction<T> implements Reaction<T> {
         dist.update(curTime, executed, getRate(), env);
     }
 
+    /**
+     * Evaluates the propensity conditioning of a condition of this reaction.
+     * If the simulation tracks the changes of the environment (see
+     * {@link Simulation#getEnvironmentVersion()}), the result is shared with
+     * the equivalent conditions of the other reactions of the node.
+     * 
+     * @param c
+     *            the condition
+     * @param env
+     *            the current environment
+     * @return the propensity conditioning of the condition
+     */
+    protected final double getPropensityConditioning(final Condition<T> c, final Environment<T> env) {
+        final Simulation<T> sim = env.getSimulation();
+        if (sim != null && node instanceof GenericNode) {
+            return ((GenericNode<T>) node).getConditionMemo().getPropensityConditioning(c, sim.getEnvironmentVersion());
+        }
+        return c.getPropensityConditioning();
+    }
+
     @Override
     public final TimeDistribution<T> getTimeDistribution() {
         return dist;
@@ -237,7 +330,9 @@ public abstract class AReaction<T> implements Reaction<T> {
      *            the influenced molecule
      */
     protected void addInfluencedMolecule(final Molecule m) {
-        influenced.add(m);
+        final ListSet<Molecule> grown = new LinkedListSet<>(signature.influenced);
+        grown.add(m);
+        setInfluencedMolecules(grown);
     }
 
     /**
@@ -262,7 +357,9 @@ public abstract class AReaction<T> implements Reaction<T> {
      *            the molecule to add
      */
     protected void addInfluencingMolecule(final Molecule m) {
-        influencing.add(m);
+        final ListSet<Molecule> grown = new LinkedListSet<>(signature.influencing);
+        grown.add(m);
+        setInfluencingMolecules(grown);
     }
 
     @Override
@@ -284,6 +381,24 @@ public abstract class AReaction<T> implements Reaction<T> {
         }
     }
 
+    /**
+     * Executes all the actions in buffered mode. Subclasses that override
+     * {@link #execute()} must override this method consistently.
+     */
+    @Override
+    public void executeBuffered() {
+        for (final Action<T> a : actions) {
+            a.executeBuffered();
+        }
+    }
+
+    @Override
+    public void commit() {
+        for (final Action<T> a : actions) {
+            a.commit();
+        }
+    }
+
     @Override
     public List<Action<T>> getActions() {
         return Collections.unmodifiableList(actions);
@@ -296,32 +411,39 @@ public abstract class AReaction<T> implements Reaction<T> {
 
     @Override
     public ListSet<Molecule> getInfluencedMolecules() {
-        return influenced == null ? null : ListSets.unmodifiableListSet(influenced);
+        return signature.influenced;
     }
 
     /**
      * @param influenced
-     *            the new influenced molecules. Can be null.
+     *            the new influenced molecules. Can be null. They get replaced
+     *            by a canonical copy, so later changes to the provided set
+     *            are not reflected.
      */
-    @SuppressWarnings("unchecked")
     protected void setInfluencedMolecules(final ListSet<? extends Molecule> influenced) {
-        this.influenced = (ListSet<Molecule>) influenced;
+        signature = new Signature(signature.input, signature.output, signature.influencing, canonical(influenced),
+                signature.positionDependent, signature.environmentChanging);
     }
 
     @Override
     public ListSet<Molecule> getInfluencingMolecules() {
-        return influenced == null ? null : ListSets.unmodifiableListSet(influencing);
+        return signature.influencing;
     }
 
     /**
      * @param influencing
-     *            the new influencing molecules. Can be null.
+     *            the new influencing molecules. Can be null. They get
+     *            replaced by a canonical copy, so later changes to the
+     *            provided set are not reflected.
      */
-    @SuppressWarnings("unchecked")
     protected void setInfluencingMolecules(final ListSet<? extends Molecule> influencing) {
-        this.influencing = (ListSet<Molecule>) influencing;
+        signature = new Signature(signature.input, signature.output, canonical(influencing), signature.influenced,
+                signature.positionDependent, signature.environmentChanging);
     }
 
+    private ListSet<Molecule> canonical(final ListSet<? extends Molecule> molecules) {
+        return molecules == null ? null : MoleculeSets.intern(node, molecules);
+    }
 
     @Override
     public Node<T> getNode() {
@@ -339,7 +461,7 @@ public abstract class AReaction<T> implements Reaction<T> {
     public void setActions(final List<Action<T>> a) {
         actions = Objects.requireNonNull(a, "The actions list can't be null");
         Context lessStrict = Context.LOCAL;
-        influenced = new LinkedListSet<Molecule>();
+        ListSet<Molecule> modified = new LinkedListSet<Molecule>();
         for (final Action<T> act : actions) {
             final Context condcontext = Objects.requireNonNull(act, "Actions can't be null").getContext();
             lessStrict = lessStrict.isMoreStrict(condcontext) ? condcontext : lessStrict;
@@ -352,21 +474,28 @@ public abstract class AReaction<T> implements Reaction<T> {
              * null list of modified molecules.
              */
             if (mod != null) {
-                influenced.addAll(mod);
+                modified.addAll(mod);
             } else {
-                influenced = null;
+                modified = null;
                 break;
             }
         }
-        setOutputContext(lessStrict);
+        boolean changing = false;
+        for (final Action<T> act : actions) {
+            changing = changing || act.mayChangeEnvironment();
+        }
+        signature = new Signature(signature.input, lessStrict, signature.influencing, canonical(modified),
+                signature.positionDependent, changing);
     }
 
     @Override
     public void setConditions(final List<Condition<T>> c) {
         conditions = c;
         Context lessStrict = Context.LOCAL;
-        influencing = new LinkedListSet<Molecule>();
+        ListSet<Molecule> read = new LinkedListSet<Molecule>();
+        boolean positionDependent = false;
         for (final Condition<T> cond : conditions) {
+            positionDependent = positionDependent || cond.isPositionDependent();
             final Context condcontext = cond.getContext();
             lessStrict = lessStrict.isMoreStrict(condcontext) ? condcontext : lessStrict;
             final ListSet<? extends Molecule> mod = cond.getInfluencingMolecules();
@@ -378,13 +507,54 @@ public abstract class AReaction<T> implements Reaction<T> {
              * null list of modified molecules.
              */
             if (mod != null) {
-                influencing.addAll(mod);
+                read.addAll(mod);
             } else {
-                influencing = null;
+                read = null;
                 break;
             }
         }
-        setInputContext(lessStrict);
+        signature = new Signature(lessStrict, signature.output, canonical(read), signature.influenced,
+                positionDependent, signature.environmentChanging);
+    }
+
+    /*
+     * What a reaction derives from its conditions and actions. Immutable, so
+     * that a reaction and its clones can share it
+     */
+    private static final class Signature implements Serializable {
+        private static final long serialVersionUID = 1L;
+        private final Context input, output;
+        private final ListSet<Molecule> influencing, influenced;
+        private final boolean positionDependent, environmentChanging;
+
+        private Signature(final Context input, final Context output,
+                final ListSet<Molecule> influencing, final ListSet<Molecule> influenced,
+                final boolean positionDependent, final boolean environmentChanging) {
+            this.input = input;
+            this.output = output;
+            this.influencing = influencing;
+            this.influenced = influenced;
+            this.positionDependent = positionDependent;
+            this.environmentChanging = environmentChanging;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof Signature) {
+                final Signature other = (Signature) obj;
+                return input == other.input && output == other.output
+                        && positionDependent == other.positionDependent
+                        && environmentChanging == other.environmentChanging
+                        && Objects.equals(influencing, other.influencing)
+                        && Objects.equals(influenced, other.influenced);
+            }
+            return false;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(input, output, influencing, influenced, positionDependent, environmentChanging);
+        }
     }
 
 }
@@ -39,6 +39,16 @@ public class Event<T> extends AReaction<T> {
     protected void updateInternalStatus(final Time curTime, final boolean executed, final Environment<T> env) {
     }
 
+    /**
+     * Events ignore their conditions when updated.
+     * 
+     * @return false
+     */
+    @Override
+    public boolean isPositionDependent() {
+        return false;
+    }
+
     @Override
     public double getRate() {
         return getTimeDistribution().getRate();
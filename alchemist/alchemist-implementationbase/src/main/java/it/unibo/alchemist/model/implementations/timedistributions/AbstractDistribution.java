@@ -8,6 +8,7 @@
  */
 package it.unibo.alchemist.model.implementations.timedistributions;
 
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
 import it.unibo.alchemist.model.interfaces.Environment;
 import it.unibo.alchemist.model.interfaces.Time;
 import it.unibo.alchemist.model.interfaces.TimeDistribution;
@@ -22,17 +23,23 @@ import it.unibo.alchemist.model.interfaces.TimeDistribution;
 public abstract class AbstractDistribution<T> implements TimeDistribution<T> {
 
     private static final long serialVersionUID = -8906648194668569179L;
-    private Time tau;
+    private double tau;
+    /*
+     * Built lazily from tau, and only if someone asks for it
+     */
+    private transient Time tauTime;
     private boolean schedulable;
     private final Time startTime;
+    private final double startValue;
 
     /**
      * @param start
      *            initial time
      */
     public AbstractDistribution(final Time start) {
-        tau = start;
+        setTau(start);
         startTime = start;
+        startValue = start.toDouble();
     }
 
     /**
@@ -42,12 +49,25 @@ public abstract class AbstractDistribution<T> implements TimeDistribution<T> {
      *            the new time
      */
     protected final void setTau(final Time t) {
-        this.tau = t;
+        tau = t.toDouble();
+        tauTime = t;
+    }
+
+    /**
+     * Allows subclasses to set the next putative time without building a
+     * {@link Time} object. Use with care.
+     * 
+     * @param t
+     *            the new time
+     */
+    protected final void setTau(final double t) {
+        tau = t;
+        tauTime = null;
     }
 
     @Override
     public final void update(final Time curTime, final boolean executed, final double param, final Environment<T> env) {
-        if (!schedulable && curTime.compareTo(startTime) >= 0) {
+        if (!schedulable && curTime.toDouble() >= startValue) {
             /*
              * If the simulation time is beyond the startTime for this reaction,
              * it can start being scheduled normally.
@@ -63,6 +83,14 @@ public abstract class AbstractDistribution<T> implements TimeDistribution<T> {
 
     @Override
     public final Time getNextOccurence() {
+        if (tauTime == null) {
+            tauTime = tau == Double.POSITIVE_INFINITY ? DoubleTime.INFINITE_TIME : new DoubleTime(tau);
+        }
+        return tauTime;
+    }
+
+    @Override
+    public final double getNextOccurenceAsDouble() {
         return tau;
     }
 
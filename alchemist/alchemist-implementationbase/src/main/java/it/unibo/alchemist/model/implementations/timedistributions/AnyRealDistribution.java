@@ -88,7 +88,7 @@ public class AnyRealDistribution<T> extends AbstractDistribution<T> {
         if (param != getRate()) {
             throw new IllegalStateException(getClass().getSimpleName() + " does not allow to dynamically tune the rate.");
         }
-        setTau(new DoubleTime(curTime.toDouble() + distribution.sample()));
+        setTau(curTime.toDouble() + distribution.sample());
     }
 
     @Override
@@ -47,6 +47,11 @@ public class DiracComb<T> extends AbstractDistribution<T> {
         return 1 / timeInterval;
     }
 
+    @Override
+    public boolean isPeriodic() {
+        return true;
+    }
+
     @Override
     protected void updateStatus(
             final Time curTime,
@@ -54,7 +59,7 @@ public class DiracComb<T> extends AbstractDistribution<T> {
             final double param,
             final Environment<T> env) {
         if (executed) {
-            setTau(new DoubleTime(curTime.toDouble() + timeInterval));
+            setTau(curTime.toDouble() + timeInterval);
         }
     }
 
@@ -24,6 +24,24 @@ import it.unibo.alchemist.model.interfaces.Time;
 public class ExponentialTime<T> extends AbstractDistribution<T> {
 
     private static final long serialVersionUID = 5216987069271114818L;
+    /*
+     * Subclasses written against the Time based API override genTime, which
+     * must then keep being called
+     */
+    private static final ClassValue<Boolean> OVERRIDES_GEN_TIME = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            for (Class<?> current = type; !ExponentialTime.class.equals(current); current = current.getSuperclass()) {
+                try {
+                    current.getDeclaredMethod("genTime", double.class);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    continue;
+                }
+            }
+            return false;
+        }
+    };
     private double oldPropensity = -1;
     @SuppressFBWarnings(value = "SE_BAD_FIELD", justification = "All the random engines provided by Apache are Serializable")
     private final RandomGenerator rand;
@@ -75,14 +93,15 @@ public class ExponentialTime<T> extends AbstractDistribution<T> {
     private void update(final double newpropensity, final boolean isMu, final Time curTime) {
         assert !Double.isNaN(newpropensity);
         assert !Double.isNaN(oldPropensity);
+        final double now = curTime.toDouble();
         if (isMu) {
-            final Time dt = genTime(newpropensity);
-            setTau(curTime.sum(dt));
+            final double dt = OVERRIDES_GEN_TIME.get(getClass())
+                    ? genTime(newpropensity).toDouble()
+                    : genInterval(newpropensity);
+            setTau(now + dt);
         } else {
             if (oldPropensity != newpropensity) {
-                final Time sub = getNextOccurence().subtract(curTime);
-                final Time mul = sub.multiply(oldPropensity / newpropensity);
-                setTau(mul.sum(curTime));
+                setTau((getNextOccurenceAsDouble() - now) * (oldPropensity / newpropensity) + now);
             }
         }
     }
@@ -94,7 +113,21 @@ public class ExponentialTime<T> extends AbstractDistribution<T> {
      *         reaction which have been executed.
      */
     protected Time genTime(final double propensity) {
-        return new DoubleTime(uniformToExponential(propensity));
+        return new DoubleTime(genInterval(propensity));
+    }
+
+    /**
+     * Same as {@link #genTime(double)}, without allocating any {@link Time}.
+     * If a subclass overrides {@link #genTime(double)}, this method is not
+     * called by the distribution.
+     * 
+     * @param propensity
+     *            the current propensity for the reaction
+     * @return the time interval after which the reaction will occur again, in
+     *         case this is the reaction which have been executed.
+     */
+    protected double genInterval(final double propensity) {
+        return uniformToExponential(propensity);
     }
 
     private double uniformToExponential(final double lambda) {
@@ -3,7 +3,6 @@
  */
 package it.unibo.alchemist.model.implementations.timedistributions;
 
-import it.unibo.alchemist.model.implementations.times.DoubleTime;
 import it.unibo.alchemist.model.interfaces.Environment;
 import it.unibo.alchemist.model.interfaces.Time;
 
@@ -31,8 +30,8 @@ public class Trigger<T> extends AbstractDistribution<T> {
 
     @Override
     protected void updateStatus(final Time curTime, final boolean executed, final double param, final Environment<T> env) {
-        if (dryRunDone && curTime.compareTo(getNextOccurence()) >= 0 && executed) {
-            setTau(new DoubleTime(Double.POSITIVE_INFINITY));
+        if (dryRunDone && curTime.toDouble() >= getNextOccurenceAsDouble() && executed) {
+            setTau(Double.POSITIVE_INFINITY);
         }
         dryRunDone = true;
     }
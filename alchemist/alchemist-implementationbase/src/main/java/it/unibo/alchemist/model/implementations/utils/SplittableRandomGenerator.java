@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.implementations.utils;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.SynchronizedRandomGenerator;
+
+import it.unibo.alchemist.model.interfaces.ConcurrentRandomGenerator;
+
+/**
+ * A {@link ConcurrentRandomGenerator} wrapping a sequential generator.
+ *
+ * Sequential executions draw from the wrapped generator, with no locking,
+ * so the sequences are the same as those of the wrapped generator alone.
+ * Threads using a non negative stream (e.g. the regions of a partitioned
+ * engine) draw from a {@link MersenneTwister} of their own, whose seed is
+ * split from the seed of the streams as {@link java.util.SplittableRandom}
+ * does: since the events of each region are executed in a deterministic
+ * order, seeded runs are reproducible. Threads using the
+ * {@link ConcurrentRandomGenerator#SHARED} stream draw from the wrapped
+ * generator under a lock, in whatever order they get it.
+ */
+public final class SplittableRandomGenerator implements ConcurrentRandomGenerator, Serializable {
+
+    private static final long serialVersionUID = 2L;
+    /*
+     * Constants of the SplitMix64 generator
+     */
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final long MIX_1 = 0xbf58476d1ce4e5b9L;
+    private static final long MIX_2 = 0x94d049bb133111ebL;
+    private static final int SHIFT_1 = 30;
+    private static final int SHIFT_2 = 27;
+    private static final int SHIFT_3 = 31;
+    private final RandomGenerator main;
+    private final Map<Integer, RandomGenerator> streams = new ConcurrentHashMap<>();
+    private long seed;
+    private transient RandomGenerator shared;
+    private transient ThreadLocal<Integer> stream;
+    /*
+     * Threads of this generator currently using a stream: while there are
+     * none, there is no need to look up the thread local
+     */
+    private transient AtomicInteger concurrent;
+
+    /**
+     * @param main
+     *            the generator used by the sequential executions
+     * @param seed
+     *            the seed from which the seeds of the streams are split. It
+     *            can be the seed of the wrapped generator: the streams never
+     *            replay its sequence
+     */
+    public SplittableRandomGenerator(final RandomGenerator main, final long seed) {
+        this.main = main;
+        this.seed = seed;
+        initTransients();
+    }
+
+    private void initTransients() {
+        shared = new SynchronizedRandomGenerator(main);
+        stream = new ThreadLocal<>();
+        concurrent = new AtomicInteger();
+    }
+
+    @Override
+    public void use(final int index) {
+        stream.set(index);
+        concurrent.incrementAndGet();
+    }
+
+    @Override
+    public void release() {
+        stream.remove();
+        concurrent.decrementAndGet();
+    }
+
+    private RandomGenerator current() {
+        if (concurrent.get() == 0) {
+            return main;
+        }
+        final Integer index = stream.get();
+        if (index == null) {
+            return main;
+        }
+        if (index == SHARED) {
+            return shared;
+        }
+        final RandomGenerator result = streams.get(index);
+        return result == null ? streams.computeIfAbsent(index, this::newStream) : result;
+    }
+
+    private RandomGenerator newStream(final int index) {
+        return new MersenneTwister(mix(seed + (index + 1) * GOLDEN_GAMMA));
+    }
+
+    /*
+     * The output function of SplitMix64
+     */
+    private static long mix(final long value) {
+        long z = value;
+        z = (z ^ (z >>> SHIFT_1)) * MIX_1;
+        z = (z ^ (z >>> SHIFT_2)) * MIX_2;
+        return z ^ (z >>> SHIFT_3);
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        initTransients();
+    }
+
+    @Override
+    public boolean nextBoolean() {
+        return current().nextBoolean();
+    }
+
+    @Override
+    public void nextBytes(final byte[] bytes) {
+        current().nextBytes(bytes);
+    }
+
+    @Override
+    public double nextDouble() {
+        return current().nextDouble();
+    }
+
+    @Override
+    public float nextFloat() {
+        return current().nextFloat();
+    }
+
+    @Override
+    public double nextGaussian() {
+        return current().nextGaussian();
+    }
+
+    @Override
+    public int nextInt() {
+        return current().nextInt();
+    }
+
+    @Override
+    public int nextInt(final int n) {
+        return current().nextInt(n);
+    }
+
+    @Override
+    public long nextLong() {
+        return current().nextLong();
+    }
+
+    /**
+     * Re-seeds the wrapped generator, and uses the same seed for the streams.
+     * Must not be called while reactions execute concurrently.
+     */
+    @Override
+    public void setSeed(final int seed) {
+        setSeed((long) seed);
+    }
+
+    /**
+     * Re-seeds the wrapped generator, and uses the first element of the array
+     * as seed for the streams. Must not be called while reactions execute
+     * concurrently.
+     */
+    @Override
+    public void setSeed(final int[] seed) {
+        main.setSeed(seed);
+        reseedStreams(seed.length == 0 ? 0 : seed[0]);
+    }
+
+    /**
+     * Re-seeds the wrapped generator, and uses the same seed for the streams.
+     * Must not be called while reactions execute concurrently.
+     */
+    @Override
+    public void setSeed(final long seed) {
+        main.setSeed(seed);
+        reseedStreams(seed);
+    }
+
+    private void reseedStreams(final long newSeed) {
+        seed = newSeed;
+        streams.clear();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[" + main + "]";
+    }
+
+}
@@ -22,6 +22,6 @@ object PimpMyAlchemist {
   implicit def time2Double(time: Time): Double = time.toDouble()
   implicit def double2Time(time: Double): Time = new DoubleTime(time)
   implicit def molecule2String(molecule: Molecule): String = molecule.toString
-  implicit def string2Molecule(str: String): Molecule = new SimpleMolecule(str)
+  implicit def string2Molecule(str: String): Molecule = SimpleMolecule.of(str)
   implicit def function2CacheLoader[F, T](f: F => T) = { new CacheLoader[F, T] { def load(key: F) = f(key) } }
 }
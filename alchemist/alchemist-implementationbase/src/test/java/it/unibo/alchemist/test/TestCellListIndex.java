@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.model.implementations.environments.CellListIndex;
+
+/**
+ * Checks the {@link CellListIndex}.
+ */
+public class TestCellListIndex {
+
+    private static final double[] ORIGIN = { 0, 0 };
+    private static final double[] NEAR = { 0.5, 0.5 };
+    private static final double[] FAR = { 10, -10 };
+
+    /**
+     * Queries find exactly the elements within the region, wherever they
+     * move.
+     */
+    @Test
+    public void testQueries() {
+        final CellListIndex<String> index = new CellListIndex<>(1);
+        index.insert("a", ORIGIN);
+        index.insert("b", FAR);
+        assertEquals(Collections.singletonList("a"), index.query(new double[] { -1, -1 }, new double[] { 1, 1 }));
+        assertTrue(index.move("a", ORIGIN, NEAR));
+        assertFalse(index.move("a", ORIGIN, NEAR));
+        assertEquals(Collections.emptyList(), index.query(new double[] { -1, -1 }, new double[] { 0.4, 0.4 }));
+        assertTrue(index.move("b", FAR, ORIGIN));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b")), new HashSet<>(index.query(new double[] { -1, -1 }, new double[] { 1, 1 })));
+        assertEquals(2, index.query(
+                new double[] { Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY },
+                new double[] { Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY }).size());
+        assertTrue(index.remove("a", NEAR));
+        assertFalse(index.remove("a", NEAR));
+        assertEquals(Collections.singletonList("b"), index.query(new double[] { -1, -1 }, new double[] { 1, 1 }));
+    }
+
+}
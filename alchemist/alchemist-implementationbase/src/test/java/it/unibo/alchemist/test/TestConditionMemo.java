@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.model.implementations.conditions.AbstractCondition;
+import it.unibo.alchemist.model.implementations.conditions.ConditionMemo;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.nodes.IntNode;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Node;
+
+/**
+ * Checks that equivalent conditions get evaluated once per version.
+ */
+public class TestConditionMemo {
+
+    private static final double DELTA = 1e-12;
+
+    /**
+     * Conditions sharing a key share the results within a version.
+     */
+    @Test
+    public void testSharing() {
+        final Node<Integer> node = new IntNode(new Continuous2DEnvironment<>());
+        final CountingCondition a = new CountingCondition(node, "k");
+        final CountingCondition b = new CountingCondition(node, "k");
+        final CountingCondition c = new CountingCondition(node, null);
+        final ConditionMemo memo = new ConditionMemo();
+        assertEquals(1, memo.getPropensityConditioning(a, 0), DELTA);
+        assertEquals(1, memo.getPropensityConditioning(b, 0), DELTA);
+        assertEquals(1, a.evaluations + b.evaluations);
+        memo.getPropensityConditioning(b, 1);
+        assertEquals(1, b.evaluations);
+        memo.getPropensityConditioning(c, 1);
+        memo.getPropensityConditioning(c, 1);
+        assertEquals(2, c.evaluations);
+        memo.getPropensityConditioning(a, -1);
+        memo.getPropensityConditioning(a, -1);
+        assertEquals(3, a.evaluations);
+    }
+
+    private static final class CountingCondition extends AbstractCondition<Integer> {
+        private static final long serialVersionUID = 1L;
+        private final Object key;
+        private int evaluations;
+
+        private CountingCondition(final Node<Integer> node, final Object key) {
+            super(node);
+            this.key = key;
+        }
+
+        @Override
+        public Context getContext() {
+            return Context.LOCAL;
+        }
+
+        @Override
+        public Object getMemoizationKey() {
+            return key;
+        }
+
+        @Override
+        public double getPropensityConditioning() {
+            evaluations++;
+            return 1;
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+    }
+
+}
@@ -2,21 +2,31 @@ package it.unibo.alchemist.test;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.fail;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.ClosestN;
+import it.unibo.alchemist.model.implementations.linkingrules.EuclideanDistance;
 import it.unibo.alchemist.model.implementations.linkingrules.NoLinks;
 import it.unibo.alchemist.model.implementations.nodes.GenericNode;
 import it.unibo.alchemist.model.implementations.positions.Continuous2DEuclidean;
 import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Neighborhood;
 import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Position;
 
 /**
  *
@@ -99,6 +109,86 @@ public final class TestContinuous2DEnvironment {
         assertEquals(Arrays.asList(dummy2), env.getNodesWithinRange(dummy, Math.nextUp(0)));
     }
 
+    /**
+     * Test batched movements.
+     */
+    @Test
+    public void testMoveNodes() {
+        env = new Continuous2DEnvironment<>();
+        env.setLinkingRule(new EuclideanDistance<>(1));
+        final Node<Object> a = dummyNode();
+        final Node<Object> b = dummyNode();
+        final Node<Object> c = dummyNode();
+        env.addNode(a, new Continuous2DEuclidean(ZEROS));
+        env.addNode(b, new Continuous2DEuclidean(0.5, 0));
+        env.addNode(c, new Continuous2DEuclidean(P2_2));
+        final Map<Node<Object>, Position> moves = new LinkedHashMap<>();
+        moves.put(a, new Continuous2DEuclidean(P2_3));
+        moves.put(c, new Continuous2DEuclidean(2, 2.5));
+        env.moveNodes(moves);
+        assertEquals(new Continuous2DEuclidean(P2_3), env.getPosition(a));
+        assertEquals(new Continuous2DEuclidean(2, 2.5), env.getPosition(c));
+        assertTrue(env.getNeighborhood(b).isEmpty());
+        assertEquals(Collections.singletonList(c), env.getNeighborhood(a).getNeighbors());
+        assertEquals(Collections.singletonList(a), env.getNeighborhood(c).getNeighbors());
+        assertArrayEquals(P2_3, env.getSize(), TOLERANCE);
+    }
+
+    /**
+     * Test lazy neighborhood updates.
+     */
+    @Test
+    public void testLazyNeighborhoods() {
+        final int[] computed = new int[1];
+        env = new Continuous2DEnvironment<>();
+        env.setLinkingRule(new ClosestN<Object>(1) {
+            private static final long serialVersionUID = 1L;
+            @Override
+            public Neighborhood<Object> computeNeighborhood(final Node<Object> center, final Environment<Object> environment) {
+                computed[0]++;
+                return super.computeNeighborhood(center, environment);
+            }
+        });
+        env.setLazyNeighborhoods(true);
+        final Node<Object> a = dummyNode();
+        final Node<Object> b = dummyNode();
+        final Node<Object> c = dummyNode();
+        env.addNode(a, new Continuous2DEuclidean(ZEROS));
+        env.addNode(b, new Continuous2DEuclidean(1, 0));
+        env.addNode(c, new Continuous2DEuclidean(10, 0));
+        assertEquals(new HashSet<>(Arrays.asList(a, c)), new HashSet<>(env.getNeighborhood(b).getNeighbors()));
+        final int before = computed[0];
+        env.moveNodeToPosition(c, new Continuous2DEuclidean(5, 0));
+        env.moveNodeToPosition(c, new Continuous2DEuclidean(-0.4, 0));
+        assertEquals(before, computed[0]);
+        assertEquals(Collections.singletonList(a), env.getNeighborhood(b).getNeighbors());
+        assertTrue(computed[0] > before);
+        assertEquals(new HashSet<>(Arrays.asList(b, c)), new HashSet<>(env.getNeighborhood(a).getNeighbors()));
+        assertEquals(Collections.singletonList(a), env.getNeighborhood(c).getNeighbors());
+    }
+
+    /**
+     * Positions are built out of the stored coordinates, which follow moves
+     * and removals; distances match those of the positions.
+     */
+    @Test
+    public void testStoredPositions() {
+        final Node<Object> a = dummyNode();
+        final Node<Object> b = dummyNode();
+        final Node<Object> c = dummyNode();
+        env.addNode(a, new Continuous2DEuclidean(ZEROS));
+        env.addNode(b, new Continuous2DEuclidean(P2_3));
+        env.addNode(c, new Continuous2DEuclidean(P2_2));
+        env.moveNodeToPosition(b, new Continuous2DEuclidean(1, 1));
+        env.removeNode(a);
+        assertNull(env.getPosition(a));
+        assertEquals(new Continuous2DEuclidean(1, 1), env.getPosition(b));
+        assertEquals(new Continuous2DEuclidean(P2_2), env.getPosition(c));
+        assertNotSame(env.getPosition(c), env.getPosition(c));
+        assertEquals(env.getPosition(b).getDistanceTo(env.getPosition(c)), env.getDistanceBetweenNodes(b, c), 0);
+        assertEquals(Collections.singletonList(b), env.getNodesWithinRange(new Continuous2DEuclidean(ZEROS), Math.sqrt(2)));
+    }
+
     private Node<Object> dummyNode() {
         return dummyNode(env);
     }
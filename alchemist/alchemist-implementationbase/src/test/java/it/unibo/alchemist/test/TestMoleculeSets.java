@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.model.implementations.conditions.AbstractCondition;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.molecules.MoleculeSets;
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+import it.unibo.alchemist.model.implementations.nodes.IntNode;
+import it.unibo.alchemist.model.interfaces.Context;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+
+/**
+ * Checks that {@link MoleculeSets} are shared within an environment only.
+ */
+public class TestMoleculeSets {
+
+    private static final Molecule A = new SimpleMolecule("a");
+    private static final Molecule B = new SimpleMolecule("b");
+
+    /**
+     * Equal conditions of nodes of the same environment share their sets,
+     * which are interned when built, not when read; the nodes of another
+     * environment get sets of their own.
+     */
+    @Test
+    public void testScope() {
+        final Environment<Integer> env = new Continuous2DEnvironment<>();
+        final ReadingCondition first = new ReadingCondition(new IntNode(env));
+        final ReadingCondition second = new ReadingCondition(new IntNode(env));
+        final ReadingCondition other = new ReadingCondition(new IntNode(new Continuous2DEnvironment<>()));
+        assertSame(first.getInfluencingMolecules(), first.getInfluencingMolecules());
+        assertSame(first.getInfluencingMolecules(), second.getInfluencingMolecules());
+        assertNotSame(first.getInfluencingMolecules(), other.getInfluencingMolecules());
+        assertEquals(new ArrayList<>(first.getInfluencingMolecules()), new ArrayList<>(other.getInfluencingMolecules()));
+        assertEquals(2, first.getInfluencingMolecules().size());
+    }
+
+    private static final class ReadingCondition extends AbstractCondition<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private ReadingCondition(final Node<Integer> node) {
+            super(node);
+            addReadMolecule(A);
+            addReadMolecule(B);
+        }
+
+        @Override
+        public Context getContext() {
+            return Context.LOCAL;
+        }
+
+        @Override
+        public double getPropensityConditioning() {
+            return 1;
+        }
+
+        @Override
+        public boolean isValid() {
+            return true;
+        }
+    }
+
+}
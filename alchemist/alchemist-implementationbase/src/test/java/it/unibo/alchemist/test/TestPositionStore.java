@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.model.implementations.environments.PositionStore;
+import it.unibo.alchemist.model.implementations.positions.Continuous2DEuclidean;
+
+/**
+ * Checks the {@link PositionStore}.
+ */
+public class TestPositionStore {
+
+    private static final int ELEMENTS = 100;
+    private static final double TOLERANCE = 0;
+
+    /**
+     * Coordinates survive updates, removals and growth of the store.
+     */
+    @Test
+    public void testStore() {
+        final PositionStore store = new PositionStore();
+        for (int i = 0; i < ELEMENTS; i++) {
+            store.set(i, new Continuous2DEuclidean(i, -i));
+        }
+        assertEquals(ELEMENTS, store.size());
+        assertEquals(2, store.getDimensions());
+        store.set(0, 1, 2);
+        assertTrue(store.remove(1));
+        assertFalse(store.remove(1));
+        assertFalse(store.contains(1));
+        assertEquals(ELEMENTS - 1, store.size());
+        assertArrayEquals(new double[] { 1, 2 }, store.getCoordinates(0, new double[2]), TOLERANCE);
+        for (int i = 2; i < ELEMENTS; i++) {
+            assertEquals(i, store.getCoordinate(i, 0), TOLERANCE);
+            assertEquals(-i, store.getCoordinate(i, 1), TOLERANCE);
+        }
+    }
+
+    /**
+     * Positions with a different number of dimensions are refused.
+     */
+    @Test
+    public void testDimensionMismatch() {
+        final PositionStore store = new PositionStore();
+        store.set(0, 1, 2);
+        try {
+            store.set(1, 1, 2, 3);
+            fail();
+        } catch (IllegalArgumentException e) {
+            assertFalse(e.getMessage().isEmpty());
+        }
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.model.implementations.actions.SetLocalMoleculeConcentration;
+import it.unibo.alchemist.model.implementations.conditions.MoleculeHasConcentration;
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+import it.unibo.alchemist.model.implementations.nodes.IntNode;
+import it.unibo.alchemist.model.implementations.reactions.Event;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Action;
+import it.unibo.alchemist.model.interfaces.Condition;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+
+/**
+ * Checks that the clones of a reaction share its configuration, and only get
+ * their own per node state.
+ */
+public class TestReactionClone {
+
+    private static final Molecule A = new SimpleMolecule("a");
+    private static final Molecule B = new SimpleMolecule("b");
+
+    /**
+     * Cloned reactions, conditions and actions share the molecules of the
+     * original, while belonging to the new node.
+     */
+    @Test
+    public void testSharedConfiguration() {
+        final Environment<Integer> env = new Continuous2DEnvironment<>();
+        final Node<Integer> node = new IntNode(env);
+        final Event<Integer> template = new Event<>(node, new DiracComb<>(1));
+        template.setConditions(Collections.<Condition<Integer>>singletonList(new MoleculeHasConcentration<>(node, A, 1)));
+        template.setActions(Collections.<Action<Integer>>singletonList(new SetLocalMoleculeConcentration<>(node, B, 1)));
+        final Node<Integer> other = new IntNode(env);
+        final Reaction<Integer> clone = template.cloneOnNewNode(other, new DoubleTime());
+        assertSame(other, clone.getNode());
+        assertSame(template.getInfluencingMolecules(), clone.getInfluencingMolecules());
+        assertSame(template.getInfluencedMolecules(), clone.getInfluencedMolecules());
+        assertEquals(template.getInputContext(), clone.getInputContext());
+        assertEquals(template.getOutputContext(), clone.getOutputContext());
+        assertFalse(clone.mayChangeEnvironment());
+        final Condition<Integer> condition = clone.getConditions().get(0);
+        assertNotSame(template.getConditions().get(0), condition);
+        assertSame(other, condition.getNode());
+        assertSame(template.getConditions().get(0).getInfluencingMolecules(), condition.getInfluencingMolecules());
+        final Action<Integer> action = clone.getActions().get(0);
+        assertSame(template.getActions().get(0).getModifiedMolecules(), action.getModifiedMolecules());
+        assertFalse(condition.isValid());
+        action.execute();
+        assertEquals(Integer.valueOf(1), other.getConcentration(B));
+        assertFalse(node.contains(B));
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+
+/**
+ * Checks the indexing of {@link SimpleMolecule}s.
+ */
+public class TestSimpleMolecule {
+
+    private static final int THREADS = 8;
+
+    /**
+     * Equal molecules share the index, different ones do not.
+     */
+    @Test
+    public void testIndex() {
+        final SimpleMolecule a = SimpleMolecule.of("a");
+        assertSame(a, SimpleMolecule.of("a"));
+        final SimpleMolecule copy = new SimpleMolecule("a");
+        assertTrue(a.getIndex() >= 0);
+        assertEquals(a, copy);
+        assertEquals(a.getIndex(), copy.getIndex());
+        assertEquals(a, copy);
+        final SimpleMolecule b = SimpleMolecule.of("b");
+        assertNotEquals(a.getIndex(), b.getIndex());
+        assertNotEquals(a, b);
+    }
+
+    /**
+     * The registry does not retain the molecules, but an indexed molecule
+     * keeps its index registered: equal molecules indexed later, even after
+     * a collection, get the same index.
+     */
+    @Test
+    public void testIndexKeptAlive() {
+        final SimpleMolecule first = new SimpleMolecule("alive");
+        final int index = first.getIndex();
+        System.gc();
+        assertEquals(index, new SimpleMolecule("alive").getIndex());
+        assertEquals(index, SimpleMolecule.of("alive").getIndex());
+        assertEquals(first, SimpleMolecule.of("alive"));
+    }
+
+    /**
+     * Molecules with the same name, indexed and canonicalized concurrently,
+     * get the same index and the same canonical instance.
+     *
+     * @throws InterruptedException
+     *             if interrupted
+     * @throws ExecutionException
+     *             if a registration fails
+     */
+    @Test
+    public void testConcurrentRegistration() throws InterruptedException, ExecutionException {
+        final String name = "concurrent";
+        final List<Callable<Integer>> indexes = new ArrayList<>();
+        final List<Callable<SimpleMolecule>> canonical = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            indexes.add(() -> new SimpleMolecule(name).getIndex());
+            canonical.add(() -> SimpleMolecule.of(name));
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        final List<Future<Integer>> indexResults;
+        final List<Future<SimpleMolecule>> canonicalResults;
+        try {
+            indexResults = executor.invokeAll(indexes);
+            canonicalResults = executor.invokeAll(canonical);
+        } finally {
+            executor.shutdown();
+        }
+        final SimpleMolecule expected = SimpleMolecule.of(name);
+        for (final Future<Integer> result : indexResults) {
+            assertEquals(expected.getIndex(), result.get().intValue());
+        }
+        for (final Future<SimpleMolecule> result : canonicalResults) {
+            assertSame(expected, result.get());
+        }
+    }
+
+}
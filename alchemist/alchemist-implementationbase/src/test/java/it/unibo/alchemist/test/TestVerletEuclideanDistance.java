@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.Test;
+
+import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.VerletEuclideanDistance;
+import it.unibo.alchemist.model.implementations.nodes.IntNode;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Position;
+
+/**
+ * Checks that Verlet lists never miss a neighbor.
+ */
+public class TestVerletEuclideanDistance {
+
+    private static final double RADIUS = 1;
+    private static final double SIDE = 5;
+    private static final int NODES = 100;
+    private static final int MOVES = 5000;
+    private static final double STEP = 0.2;
+
+    /**
+     * Random moves, removals and additions, checked against the euclidean
+     * distance.
+     */
+    @Test
+    public void testMobileNodes() {
+        final RandomGenerator rng = new MersenneTwister(0);
+        final Environment<Integer> env = new Continuous2DEnvironment<>();
+        env.setLinkingRule(new VerletEuclideanDistance<>(RADIUS, RADIUS / 2));
+        final List<Node<Integer>> nodes = new ArrayList<>(NODES);
+        for (int i = 0; i < NODES; i++) {
+            final Node<Integer> node = new IntNode(env);
+            nodes.add(node);
+            env.addNode(node, env.makePosition(rng.nextDouble() * SIDE, rng.nextDouble() * SIDE));
+        }
+        for (int i = 0; i < MOVES; i++) {
+            final Node<Integer> node = nodes.get(rng.nextInt(nodes.size()));
+            if (i % 100 == 0) {
+                env.removeNode(node);
+                env.addNode(node, env.makePosition(rng.nextDouble() * SIDE, rng.nextDouble() * SIDE));
+            } else {
+                env.moveNode(node, env.makePosition((rng.nextDouble() - 0.5) * STEP, (rng.nextDouble() - 0.5) * STEP));
+            }
+            if (i % 10 == 0) {
+                checkNeighborhoods(env);
+            }
+        }
+    }
+
+    private static void checkNeighborhoods(final Environment<Integer> env) {
+        for (final Node<Integer> node : env) {
+            final Position position = env.getPosition(node);
+            final Set<Node<Integer>> expected = env.getNodes().stream()
+                    .filter(other -> !other.equals(node) && env.getPosition(other).getDistanceTo(position) <= RADIUS)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, new HashSet<>(env.getNeighborhood(node).getNeighbors()));
+        }
+    }
+
+}
@@ -63,6 +63,11 @@ public class AddJunctionInNeighbor extends AbstractNeighborAction<Double> {
         throw new UnsupportedOperationException("A junction CAN NOT be created without a target node.");
     }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
     @Override
     public Context getContext() {
         return Context.NEIGHBORHOOD; // TODO try with local
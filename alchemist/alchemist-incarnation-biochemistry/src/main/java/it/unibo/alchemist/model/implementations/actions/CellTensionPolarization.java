@@ -138,6 +138,11 @@ public class CellTensionPolarization extends AbstractAction<Double> {
         }
     }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
     @Override
     public Context getContext() {
         return Context.LOCAL;
@@ -123,6 +123,11 @@ public class ChangeBiomolConcentrationInEnv extends AbstractRandomizableAction<D
         }
     }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
     @Override
     public Context getContext() {
         return Context.NEIGHBORHOOD;
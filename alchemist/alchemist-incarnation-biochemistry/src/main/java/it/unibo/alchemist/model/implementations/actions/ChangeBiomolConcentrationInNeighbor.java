@@ -90,4 +90,9 @@ public class ChangeBiomolConcentrationInNeighbor extends AbstractNeighborAction<
          }
     }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
 }
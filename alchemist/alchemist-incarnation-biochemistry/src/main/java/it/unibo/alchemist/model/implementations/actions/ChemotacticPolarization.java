@@ -126,6 +126,11 @@ public class ChemotacticPolarization extends AbstractAction<Double> {
         return res;
     }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
     @Override
     public Context getContext() {
         return Context.LOCAL;
@@ -59,6 +59,11 @@ public class RandomPolarization extends AbstractRandomizableAction<Double> {
     /**
      * 
      */
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
     @Override
     public Context getContext() {
         return Context.LOCAL;
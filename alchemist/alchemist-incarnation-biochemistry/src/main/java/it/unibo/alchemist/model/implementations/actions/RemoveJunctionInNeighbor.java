@@ -67,6 +67,11 @@ public class RemoveJunctionInNeighbor extends AbstractNeighborAction<Double> {
     @Override
     public void execute() { }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
     @Override
     public Context getContext() {
         return Context.NEIGHBORHOOD; // TODO try local
@@ -81,6 +81,16 @@ public class BiomolPresentInEnv extends GenericMoleculePresent<Double> {
         return Context.NEIGHBORHOOD;
     }
 
+    /**
+     * Layers are sampled at the node position.
+     * 
+     * @return true
+     */
+    @Override
+    public boolean isPositionDependent() {
+        return true;
+    }
+
     @Override
     public boolean isValid() {
         return getTotalQuantity() >= getQuantity();
@@ -8,6 +8,8 @@
  */
 package it.unibo.alchemist.model.implementations.conditions;
 
+import java.util.Arrays;
+
 import it.unibo.alchemist.model.interfaces.Context;
 import it.unibo.alchemist.model.interfaces.Molecule;
 import it.unibo.alchemist.model.interfaces.Node;
@@ -50,6 +52,22 @@ public class GenericMoleculePresent<T extends Number> extends
         return Context.LOCAL;
     }
 
+    /**
+     * Conditions of the same class on the same molecule and quantity are
+     * equivalent. Subclasses with further parameters must override.
+     * 
+     * @return the class, the molecule and the quantity
+     */
+    @Override
+    public Object getMemoizationKey() {
+        return Arrays.asList(getClass(), molecule, qty);
+    }
+
+    @Override
+    public boolean isPositionDependent() {
+        return false;
+    }
+
     /**
      * @return true if the concentration of the molecule is higher or equal the
      *         value.
@@ -80,16 +80,15 @@ public class BioRect2DEnvironmentNoOverlap extends BioRect2DEnvironment implemen
     }
 
     @Override
-    public void moveNodeToPosition(final Node<Double> node, final Position newPos) {
+    protected Position computeActualMovePosition(final Node<Double> node, final Position newPos) {
         final double[] cur = getPosition(node).getCartesianCoordinates();
         final double[] np = newPos.getCartesianCoordinates();
         final Position nextWithinLimts = super.next(cur[0], cur[1], np[0], np[1]);
         if (node instanceof CellWithCircularArea) {
             final Position nextPos = findNearestFreePosition((CellWithCircularArea) node, new Continuous2DEuclidean(cur[0], cur[1]), nextWithinLimts);
-            super.moveNodeToPosition(node, nextPos);
-        } else {
-            super.moveNodeToPosition(node, nextWithinLimts);
+            return super.computeActualMovePosition(node, nextPos);
         }
+        return super.computeActualMovePosition(node, nextWithinLimts);
     }
 
     /*
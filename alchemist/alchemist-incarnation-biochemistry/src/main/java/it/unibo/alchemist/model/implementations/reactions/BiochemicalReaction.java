@@ -94,6 +94,14 @@ public class BiochemicalReaction extends ChemicalReaction<Double> {
         super.updateInternalStatus(curTime, executed, env);
     }
 
+    /**
+     * Buffering is not supported: same as {@link #execute()}.
+     */
+    @Override
+    public void executeBuffered() {
+        execute();
+    }
+
     @Override 
     public void execute() {
         if (neighborConditionsPresent) {
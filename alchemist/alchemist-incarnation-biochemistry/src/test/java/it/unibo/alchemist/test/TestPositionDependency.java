@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.apache.commons.math3.random.MersenneTwister;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.Test;
+
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.core.interfaces.Simulation;
+import it.unibo.alchemist.model.BiochemistryIncarnation;
+import it.unibo.alchemist.model.implementations.actions.FakeMove;
+import it.unibo.alchemist.model.implementations.environments.BioRect2DEnvironment;
+import it.unibo.alchemist.model.implementations.linkingrules.EuclideanDistance;
+import it.unibo.alchemist.model.implementations.nodes.CellNodeImpl;
+import it.unibo.alchemist.model.implementations.reactions.Event;
+import it.unibo.alchemist.model.implementations.timedistributions.DiracComb;
+import it.unibo.alchemist.model.implementations.timedistributions.ExponentialTime;
+import it.unibo.alchemist.model.interfaces.Action;
+import it.unibo.alchemist.model.interfaces.CellNode;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Checks that the movement of a node only reschedules the reactions whose
+ * rate may depend on the position.
+ */
+public class TestPositionDependency {
+
+    /**
+     * A moving cell reschedules its reactions reading the surrounding
+     * environment (which includes the layers, sampled at the cell position),
+     * and does not reschedule the reactions reading only its own molecules.
+     */
+    @Test
+    public void testMovementUpdates() {
+        final Environment<Double> env = new BioRect2DEnvironment();
+        env.setLinkingRule(new EuclideanDistance<>(2));
+        final CellNode cell = new CellNodeImpl(env);
+        final RandomGenerator rand = new MersenneTwister(0);
+        final BiochemistryIncarnation incarnation = new BiochemistryIncarnation();
+        final CountingTime localTime = new CountingTime(rand);
+        final Reaction<Double> local = incarnation.createReaction(rand, env, cell, localTime, "[A] --> [B]");
+        final CountingTime surroundingTime = new CountingTime(rand);
+        final Reaction<Double> surrounding = incarnation.createReaction(rand, env, cell, surroundingTime, "[A in env] --> [B]");
+        assertFalse(local.isPositionDependent());
+        assertTrue(surrounding.isPositionDependent());
+        final Reaction<Double> move = new Event<>(cell, new DiracComb<>(1));
+        move.setActions(Collections.<Action<Double>>singletonList(new FakeMove<>(env, cell)));
+        cell.addReaction(local);
+        cell.addReaction(surrounding);
+        cell.addReaction(move);
+        env.addNode(cell, env.makePosition(0, 0));
+        /*
+         * The only reaction which can execute is the movement
+         */
+        final Simulation<Double> sim = new Engine<>(env, 1);
+        sim.play();
+        sim.run();
+        assertFalse(sim.getError().isPresent());
+        assertEquals(1, sim.getStep());
+        assertEquals(0, localTime.updates);
+        assertEquals(1, surroundingTime.updates);
+    }
+
+    /*
+     * Counts the updates not caused by the execution of the reaction
+     */
+    private static final class CountingTime extends ExponentialTime<Double> {
+        private static final long serialVersionUID = 1L;
+        private int updates;
+
+        CountingTime(final RandomGenerator rand) {
+            super(1, rand);
+        }
+
+        @Override
+        public void updateStatus(final Time curTime, final boolean executed, final double newpropensity,
+                final Environment<Double> env) {
+            if (!executed) {
+                updates++;
+            }
+            super.updateStatus(curTime, executed, newpropensity, env);
+        }
+    }
+
+}
@@ -165,7 +165,7 @@ public final class ProtelisIncarnation implements Incarnation<Object> {
 
     @Override
     public Molecule createMolecule(final String s) {
-        return new SimpleMolecule(Objects.requireNonNull(s));
+        return SimpleMolecule.of(Objects.requireNonNull(s));
     }
 
     @Override
@@ -354,7 +354,7 @@ public final class ProtelisIncarnation implements Incarnation<Object> {
         }
         @Override
         public Object get(final String id) {
-            return shadow.get(id, node.getConcentration(new SimpleMolecule(id)));
+            return shadow.get(id, node.getConcentration(SimpleMolecule.of(id)));
         }
         @Override
         public Object get(final String id, final Object defaultValue) {
@@ -362,7 +362,7 @@ public final class ProtelisIncarnation implements Incarnation<Object> {
         }
         @Override
         public boolean has(final String id) {
-            return shadow.has(id) || node.contains(new SimpleMolecule(id));
+            return shadow.has(id) || node.contains(SimpleMolecule.of(id));
         }
         @Override
         public boolean put(final String id, final Object v) {
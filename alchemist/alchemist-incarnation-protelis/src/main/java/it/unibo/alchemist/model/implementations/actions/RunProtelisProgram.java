@@ -161,6 +161,11 @@ public class RunProtelisProgram implements Action<Object> {
         computationalCycleComplete = true;
     }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
     @Override
     public Context getContext() {
         /*
@@ -24,6 +24,7 @@ public class SendToNeighbor extends AbstractLocalAction<Object> {
     private static final long serialVersionUID = -8826563176323247613L;
     private final RunProtelisProgram prog;
     private final Reaction<Object> reaction;
+    private transient Runnable pendingArrival;
 
     /**
      * @param node
@@ -55,12 +56,29 @@ public class SendToNeighbor extends AbstractLocalAction<Object> {
 
     @Override
     public void execute() {
+        executeBuffered();
+        commit();
+    }
+
+    /**
+     * Prepares the message, which reaches the neighbors upon {@link #commit()}.
+     */
+    @Override
+    public void executeBuffered() {
         final AlchemistNetworkManager mgr = getNode().getNetworkManager(prog);
         Objects.requireNonNull(mgr);
-        mgr.simulateMessageArrival(reaction.getTau().toDouble());
+        pendingArrival = mgr.prepareMessageArrival(reaction.getTau().toDouble());
         prog.prepareForComputationalCycle();
     }
 
+    @Override
+    public void commit() {
+        if (pendingArrival != null) {
+            pendingArrival.run();
+            pendingArrival = null;
+        }
+    }
+
     @Override
     public ProtelisNode getNode() {
         return (ProtelisNode) super.getNode();
@@ -73,4 +91,9 @@ public class SendToNeighbor extends AbstractLocalAction<Object> {
         return prog;
     }
 
+    @Override
+    public boolean mayChangeEnvironment() {
+        return false;
+    }
+
 }
@@ -146,24 +146,40 @@ public final class AlchemistNetworkManager implements NetworkManager, Serializab
      *            should get dropped).
      */
     public void simulateMessageArrival(final double currentTime) {
+        prepareMessageArrival(currentTime).run();
+    }
+
+    /**
+     * Prepares the message with the state shared in the last computation
+     * cycle, but delays its arrival to other nodes until the returned
+     * {@link Runnable} gets run. The neighborhood is computed upon arrival.
+     * 
+     * @param currentTime
+     *            the current simulation time (used to understand when a message
+     *            should get dropped).
+     * @return a {@link Runnable} delivering the message
+     */
+    public Runnable prepareMessageArrival(final double currentTime) {
         assert toBeSent != null;
         Objects.requireNonNull(toBeSent);
-        if (!toBeSent.isEmpty()) {
-            final MessageInfo msg = new MessageInfo(currentTime, node, toBeSent);
-            env.getNeighborhood(node).forEach(n -> {
-                if (n instanceof ProtelisNode) {
-                    final AlchemistNetworkManager destination = ((ProtelisNode) n).getNetworkManager(prog);
-                    if (destination != null) {
-                        /*
-                         * The node is running the program. Otherwise, the
-                         * program is discarded
-                         */
-                        destination.receiveMessage(msg);
-                    }
-                }
-            });
-        }
+        final Map<CodePath, Object> payload = toBeSent;
         toBeSent = null;
+        if (payload.isEmpty()) {
+            return () -> { };
+        }
+        final MessageInfo msg = new MessageInfo(currentTime, node, payload);
+        return () -> env.getNeighborhood(node).forEach(n -> {
+            if (n instanceof ProtelisNode) {
+                final AlchemistNetworkManager destination = ((ProtelisNode) n).getNetworkManager(prog);
+                if (destination != null) {
+                    /*
+                     * The node is running the program. Otherwise, the
+                     * program is discarded
+                     */
+                    destination.receiveMessage(msg);
+                }
+            }
+        });
     }
 
     private static class MessageInfo implements Serializable {
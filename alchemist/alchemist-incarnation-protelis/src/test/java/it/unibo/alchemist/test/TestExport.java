@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.core.interfaces.Simulation;
+import it.unibo.alchemist.loader.Loader;
+import it.unibo.alchemist.loader.YamlLoader;
+import it.unibo.alchemist.loader.export.Extractor;
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Checks the export of Protelis molecules.
+ */
+public class TestExport {
+
+    private static final String RESOURCE = "/export.yml";
+    private static final Molecule SOURCE = new SimpleMolecule("source");
+    private static final double END = 5;
+
+    /**
+     * Molecules are read through the incarnation, which runs a Protelis
+     * program on each node: they can not be exported from a snapshot of the
+     * environment, so the exporters must run on the simulation thread.
+     */
+    @Test
+    public void testMoleculesRequireLiveEnvironment() {
+        final List<Extractor> extractors = load().getDataExtractors();
+        assertEquals(1, extractors.size());
+        assertTrue(extractors.get(0).requiresLiveEnvironment());
+    }
+
+    /**
+     * The exported values are computed by Protelis on the nodes of the
+     * simulation.
+     */
+    @Test
+    public void testExportedValues() {
+        final Loader loader = load();
+        final Environment<Object> env = loader.getWith(Collections.emptyMap());
+        final Simulation<Object> sim = new Engine<>(env, Long.MAX_VALUE, new DoubleTime(END));
+        final ExtractingMonitor monitor = new ExtractingMonitor(loader.getDataExtractors().get(0));
+        sim.addOutputMonitor(monitor);
+        sim.play();
+        sim.run();
+        assertFalse(sim.getError().isPresent());
+        final double[] expected = env.getNodes().stream()
+                .mapToDouble(n -> (Boolean) n.getConcentration(SOURCE) ? 1 : 0)
+                .toArray();
+        assertEquals(1, Math.round(Arrays.stream(expected).sum()));
+        assertArrayEquals(expected, monitor.last, 0);
+    }
+
+    private static Loader load() {
+        final InputStream res = TestExport.class.getResourceAsStream(RESOURCE);
+        assertNotNull("Missing test resource " + RESOURCE, res);
+        return new YamlLoader(res);
+    }
+
+    /*
+     * Extracts the data when the simulation finishes
+     */
+    private static final class ExtractingMonitor implements OutputMonitor<Object> {
+        private static final long serialVersionUID = 1L;
+        private final Extractor extractor;
+        private double[] last;
+
+        ExtractingMonitor(final Extractor extractor) {
+            this.extractor = extractor;
+        }
+
+        @Override
+        public void finished(final Environment<Object> env, final Time time, final long step) {
+            last = extractor.extractData(env, null, time, step);
+        }
+
+        @Override
+        public void initialized(final Environment<Object> env) {
+        }
+
+        @Override
+        public void stepDone(final Environment<Object> env, final Reaction<Object> r, final Time time, final long step) {
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.core.implementations.Engine;
+import it.unibo.alchemist.core.implementations.SynchronousEngine;
+import it.unibo.alchemist.core.interfaces.Simulation;
+import it.unibo.alchemist.loader.Loader;
+import it.unibo.alchemist.loader.YamlLoader;
+import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule;
+import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.interfaces.Environment;
+import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Node;
+import it.unibo.alchemist.model.interfaces.Reaction;
+import it.unibo.alchemist.model.interfaces.Time;
+
+/**
+ * Checks that the rounds of {@link SynchronousEngine} deliver the same
+ * Protelis messages as the sequential execution of {@link Engine}.
+ */
+public class TestSynchronousRounds {
+
+    private static final String RESOURCE = "/rounds.yml";
+    private static final Molecule DATA = new SimpleMolecule("data");
+    private static final double SAMPLE = 10;
+    private static final double END = 12;
+
+    /**
+     * Programs executed in the same round read the messages sent in the
+     * previous ones, also while a node moves across the neighborhoods, so
+     * the computed gradient is the same as in a sequential execution.
+     */
+    @Test
+    public void testSameAsSequential() {
+        final InputStream res = TestSynchronousRounds.class.getResourceAsStream(RESOURCE);
+        assertNotNull("Missing test resource " + RESOURCE, res);
+        final Loader loader = new YamlLoader(res);
+        final Environment<Object> sequential = loader.getWith(Collections.emptyMap());
+        final Environment<Object> synchronous = loader.getWith(Collections.emptyMap());
+        final Map<Integer, String> expected = run(new Engine<>(sequential, Long.MAX_VALUE, new DoubleTime(END)));
+        final Map<Integer, String> actual = run(new SynchronousEngine<>(synchronous, Long.MAX_VALUE, new DoubleTime(END)));
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, actual);
+    }
+
+    private static Map<Integer, String> run(final Simulation<Object> sim) {
+        final StateMonitor monitor = new StateMonitor();
+        sim.addOutputMonitor(monitor);
+        sim.play();
+        sim.run();
+        assertFalse(sim.getError().isPresent());
+        return monitor.state;
+    }
+
+    /*
+     * Records the position and the gradient of each node, as they are after
+     * the last step before the sampling time
+     */
+    private static final class StateMonitor implements OutputMonitor<Object> {
+        private static final long serialVersionUID = 1L;
+        private final Map<Integer, String> state = new TreeMap<>();
+
+        @Override
+        public void finished(final Environment<Object> env, final Time time, final long step) {
+        }
+
+        @Override
+        public void initialized(final Environment<Object> env) {
+            record(env);
+        }
+
+        @Override
+        public void stepDone(final Environment<Object> env, final Reaction<Object> r, final Time time, final long step) {
+            if (time.toDouble() < SAMPLE) {
+                record(env);
+            }
+        }
+
+        private void record(final Environment<Object> env) {
+            for (final Node<Object> node : env) {
+                state.put(node.getId(), env.getPosition(node) + ": " + node.getConcentration(DATA));
+            }
+        }
+    }
+
+}
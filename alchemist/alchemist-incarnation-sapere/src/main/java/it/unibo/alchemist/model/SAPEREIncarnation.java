@@ -8,6 +8,8 @@
  */
 package it.unibo.alchemist.model;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -19,6 +21,9 @@ import org.apache.commons.math3.random.RandomGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import it.unibo.alchemist.expressions.implementations.Type;
 import it.unibo.alchemist.expressions.interfaces.IExpression;
@@ -59,9 +64,16 @@ public final class SAPEREIncarnation implements Incarnation<List<ILsaMolecule>>,
     private static final Pattern CONDITIONS_SEQUENCE;
     private static final Pattern ACTIONS_SEQUENCE;
     private static final String REACTION_REGEX;
+    private static final int MAX_PARSED = 1000;
     private int saperePropertyNumber = -1;
     private Molecule molCache;
     private String propCache;
+    /*
+     * LSA templates are immutable: parsing each of them once lets all the
+     * nodes share the same instances. Bounded, since molecules may also get
+     * created while the simulations run
+     */
+    private transient Cache<String, ILsaMolecule> parsed = newParsedCache();
 
     static {
         final String matchStart = "(?:\\s*(?<";
@@ -134,7 +146,12 @@ public final class SAPEREIncarnation implements Incarnation<List<ILsaMolecule>>,
     public ILsaMolecule createMolecule(final String s) {
         try {
             final String param = s.startsWith("{") && s.endsWith("}") ? s.substring(1, s.length() - 1) : s;
-            return new LsaMolecule(param);
+            ILsaMolecule result = parsed.getIfPresent(param);
+            if (result == null) {
+                result = new LsaMolecule(param);
+                parsed.put(param, result);
+            }
+            return result;
         } catch (RuntimeException e) {
             L.info("Unable to load the requested molecule:\n" + e);
         }
@@ -222,6 +239,17 @@ public final class SAPEREIncarnation implements Incarnation<List<ILsaMolecule>>,
         return result;
     }
 
+    private static Cache<String, ILsaMolecule> newParsedCache() {
+        return CacheBuilder.newBuilder()
+                .maximumSize(MAX_PARSED)
+                .build();
+    }
+
+    private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        parsed = newParsedCache();
+    }
+
     private static void illegalSpec(final String reason, final String origin) {
         throw new IllegalArgumentException("This is not a valid SAPERE reaction: " + reason
                 + ". Problematic specification part: " + origin);
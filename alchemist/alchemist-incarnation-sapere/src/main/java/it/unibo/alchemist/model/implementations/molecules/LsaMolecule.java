@@ -194,6 +194,16 @@ public final class LsaMolecule extends SimpleMolecule implements ILsaMolecule {
         }
     }
 
+    /**
+     * Molecules with a different number of arguments never match.
+     *
+     * @return the number of arguments
+     */
+    @Override
+    public Object getDependencyKey() {
+        return argsNumber();
+    }
+
     @Override
     public boolean equals(final Object o) {
         return o instanceof LsaMolecule && super.equals(o);
@@ -229,6 +229,14 @@ public class SAPEREGradient extends AReaction<List<ILsaMolecule>> {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Buffering is not supported: same as {@link #execute()}.
+     */
+    @Override
+    public void executeBuffered() {
+        execute();
+    }
+
     @Override
     public void execute() {
         if (sourceCache == null) {
@@ -324,6 +332,16 @@ public class SAPEREGradient extends AReaction<List<ILsaMolecule>> {
         return canRun ? getTimeDistribution().getRate() : 0;
     }
 
+    /**
+     * The gradient is computed on the distances from the neighbors.
+     * 
+     * @return true
+     */
+    @Override
+    public boolean isPositionDependent() {
+        return true;
+    }
+
     @Override
     protected void updateInternalStatus(final Time curTime, final boolean executed, final Environment<List<ILsaMolecule>> env) {
         /*
@@ -146,6 +146,14 @@ public class SAPEREReaction extends AReaction<List<ILsaMolecule>> {
         return (List<ILsaCondition>) ((List<? extends Condition<List<ILsaMolecule>>>) getConditions());
     }
 
+    /**
+     * Buffering is not supported: same as {@link #execute()}.
+     */
+    @Override
+    public void executeBuffered() {
+        execute();
+    }
+
     @Override
     public void execute() {
         if (possibleMatches.isEmpty()) {
@@ -258,6 +266,16 @@ public class SAPEREReaction extends AReaction<List<ILsaMolecule>> {
         return propensities;
     }
 
+    /**
+     * Matches may bind distances and positions.
+     * 
+     * @return true
+     */
+    @Override
+    public boolean isPositionDependent() {
+        return true;
+    }
+
     @Override
     protected void updateInternalStatus(final Time curTime, final boolean executed, final Environment<List<ILsaMolecule>> env) {
         if (emptyExecution) {
@@ -36,6 +36,7 @@ sealed class RunScafiProgram(
   import RunScafiProgram.NBRData
   private val program = Class.forName(programName).newInstance().asInstanceOf[AggregateProgram]
   private[this] var nbrData: Map[ID, NBRData] = Map()
+  private[this] var outgoing: Option[NBRData] = None
   addModifiedMolecule(programName)
 
   override def cloneAction(n: Node[Any], r: Reaction[Any]) = {
@@ -43,6 +44,14 @@ sealed class RunScafiProgram(
   }
 
   override def execute() {
+    executeBuffered()
+    commit()
+  }
+
+  /*
+   * Computes the round, the export reaches the neighbors upon commit
+   */
+  override def executeBuffered() {
     import collection.JavaConverters.mapAsScalaMapConverter
     val position = environment.getPosition(node)
     val currentTime = reaction.getTau
@@ -76,16 +85,24 @@ sealed class RunScafiProgram(
     node.setConcentration(programName, computed.root[Any]())
     val toSend = NBRData(computed, position, currentTime)
     nbrData = nbrData + (node.getId -> toSend)
+    outgoing = Some(toSend)
+  }
+
+  override def commit() {
     import collection.JavaConverters._
     import it.unibo.alchemist.model.interfaces.Action
-    for (nbr: Node[Any] <- environment.getNeighborhood(node).asScala;
+    for (toSend <- outgoing;
+        nbr: Node[Any] <- environment.getNeighborhood(node).asScala;
         reaction: Reaction[Any] <- nbr.getReactions().asScala;
         action: Action[Any] <- reaction.getActions().asScala;
         if action.isInstanceOf[RunScafiProgram] && action.asInstanceOf[RunScafiProgram].program.getClass == program.getClass) {
       action.asInstanceOf[RunScafiProgram].sendExport(node.getId, toSend)
     }
+    outgoing = None
   }
 
+  override def mayChangeEnvironment(): Boolean = false
+
   private def sendExport(id: ID, export: NBRData) { nbrData += id -> export }
 }
 
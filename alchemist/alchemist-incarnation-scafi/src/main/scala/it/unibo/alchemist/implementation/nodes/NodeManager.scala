@@ -8,7 +8,7 @@ trait NodeManager {
   def get[T](molecule: String): T
 }
 class SimpleNodeManager(val node: Node[Any]) extends NodeManager {
-  override def put[T](molecule: String, concentration: T): Unit = node.setConcentration(new SimpleMolecule(molecule), concentration)
+  override def put[T](molecule: String, concentration: T): Unit = node.setConcentration(SimpleMolecule.of(molecule), concentration)
 
-  override def get[T](molecule: String): T = node.getConcentration(new SimpleMolecule(molecule)).asInstanceOf[T]
+  override def get[T](molecule: String): T = node.getConcentration(SimpleMolecule.of(molecule)).asInstanceOf[T]
 }
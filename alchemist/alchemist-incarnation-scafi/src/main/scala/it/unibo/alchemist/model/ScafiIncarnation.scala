@@ -61,7 +61,7 @@ sealed class ScafiIncarnation extends Incarnation[Any]{
   }
 
   override def createMolecule(s: String ): SimpleMolecule = {
-    new SimpleMolecule(notNull(s))
+    SimpleMolecule.of(notNull(s))
   }
 
   override def createNode(rand: RandomGenerator, env: Environment[Any], param: String) = {
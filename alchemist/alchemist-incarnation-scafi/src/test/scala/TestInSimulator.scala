@@ -1,8 +1,10 @@
 import java.io.InputStream
 
-import it.unibo.alchemist.core.implementations.Engine
+import it.unibo.alchemist.core.implementations.{Engine, SynchronousEngine}
+import it.unibo.alchemist.core.interfaces.Simulation
 import it.unibo.alchemist.loader.YamlLoader
 import it.unibo.alchemist.model.implementations.molecules.SimpleMolecule
+import it.unibo.alchemist.model.implementations.times.DoubleTime
 import it.unibo.alchemist.model.interfaces.Environment
 import org.scalatest.{FunSuite, Matchers}
 import org.slf4j.event.Level
@@ -41,6 +43,25 @@ class TestInSimulator extends FunSuite with Matchers {
     })
   }
 
+  test("Rounds deliver the same exports as sequential execution"){
+    val gradient = new SimpleMolecule("test.scafiprograms.ScafiGradientProgram")
+    def gradientOf(newSim: Environment[Any] => Simulation[Any]): Map[Int, Any] = {
+      val res: InputStream = classOf[TestInSimulator].getResourceAsStream("/test_rounds.yml")
+      res shouldNot be(null)
+      val env: Environment[Any] = new YamlLoader(res).getWith(new java.util.HashMap[String, java.lang.Double]())
+      val sim = newSim(env)
+      sim.play()
+      sim.run()
+      sim.getError.isPresent shouldBe false
+      env.getNodes.asScala.map(node => node.getId -> node.getConcentration(gradient)).toMap
+    }
+    val end = new DoubleTime(20)
+    val sequential = gradientOf(new Engine[Any](_, Long.MaxValue, end))
+    val synchronous = gradientOf(new SynchronousEngine[Any](_, Long.MaxValue, end))
+    sequential should not be empty
+    synchronous shouldBe sequential
+  }
+
   private def testNoVar[T](resource: String, maxSteps: Long = 1000): Environment[T] = {
     testLoading(resource, Map(), maxSteps)
   }
@@ -71,4 +71,18 @@ public interface OutputMonitor<T> extends Serializable {
      */
     void stepDone(Environment<T> env, Reaction<T> r, Time time, long step);
 
+    /**
+     * Declares which steps this monitor is interested in. Simulations may
+     * skip the calls to
+     * {@link #stepDone(Environment, Reaction, Time, long)} for the other
+     * steps, but are not required to: monitors that need a specific sampling
+     * must still check it. Called once, when the monitor gets added to the
+     * simulation. The default implementation requires every step.
+     * 
+     * @return the {@link Sampling} of this monitor
+     */
+    default Sampling getSampling() {
+        return Sampling.EVERY_STEP;
+    }
+
 }
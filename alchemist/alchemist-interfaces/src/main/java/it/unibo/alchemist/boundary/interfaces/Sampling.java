@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.boundary.interfaces;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Declares which simulation steps an {@link OutputMonitor} is interested in:
+ * every step, every N steps, or the first step at or after some simulation
+ * times. Instances are immutable.
+ */
+public final class Sampling implements Serializable {
+
+    /**
+     * Every single step.
+     */
+    public static final Sampling EVERY_STEP = new Sampling(1, null, 0);
+    private static final long serialVersionUID = 1L;
+    private final long steps;
+    private final double[] times;
+    private final double interval;
+
+    private Sampling(final long steps, final double[] times, final double interval) {
+        this.steps = steps;
+        this.times = times;
+        this.interval = interval;
+    }
+
+    /**
+     * @param n
+     *            the number of steps between two notifications
+     * @return a {@link Sampling} notifying the steps which are multiples of n
+     */
+    public static Sampling everySteps(final long n) {
+        if (n < 1) {
+            throw new IllegalArgumentException("The number of steps must be positive, " + n + " was provided.");
+        }
+        return n == 1 ? EVERY_STEP : new Sampling(n, null, 0);
+    }
+
+    /**
+     * @param dt
+     *            the interval of simulated time between two notifications
+     * @return a {@link Sampling} notifying the first step at or after each
+     *         multiple of dt
+     */
+    public static Sampling everyTime(final double dt) {
+        if (!(dt > 0) || Double.isInfinite(dt)) {
+            throw new IllegalArgumentException("The interval must be positive and finite, " + dt + " was provided.");
+        }
+        return new Sampling(0, null, dt);
+    }
+
+    /**
+     * @param t
+     *            the simulation times
+     * @return a {@link Sampling} notifying the first step at or after each of
+     *         the provided times
+     */
+    public static Sampling atTimes(final double... t) {
+        final double[] sorted = Arrays.copyOf(t, t.length);
+        Arrays.sort(sorted);
+        return new Sampling(0, sorted, 0);
+    }
+
+    /**
+     * @return true if every step must be notified
+     */
+    public boolean isEveryStep() {
+        return steps == 1;
+    }
+
+    /**
+     * @param step
+     *            a step
+     * @return the first step after the provided one that must be notified
+     *         regardless of the time, or {@link Long#MAX_VALUE} if there is
+     *         none
+     */
+    public long nextStep(final long step) {
+        if (steps == 0) {
+            return Long.MAX_VALUE;
+        }
+        return (Math.floorDiv(step, steps) + 1) * steps;
+    }
+
+    /**
+     * @param time
+     *            a simulation time
+     * @return the first sampling time after the provided one: the first step
+     *         at or after it must be notified. If there is none,
+     *         {@link Double#POSITIVE_INFINITY}
+     */
+    public double nextTime(final double time) {
+        if (interval > 0) {
+            return (Math.floor(time / interval) + 1) * interval;
+        }
+        if (times != null) {
+            int index = Arrays.binarySearch(times, time);
+            index = index >= 0 ? index + 1 : -index - 1;
+            /*
+             * Skip duplicates
+             */
+            while (index < times.length && times[index] <= time) {
+                index++;
+            }
+            return index < times.length ? times[index] : Double.POSITIVE_INFINITY;
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    @Override
+    public String toString() {
+        if (steps > 0) {
+            return "every " + steps + " steps";
+        }
+        return interval > 0 ? "every " + interval : "at " + Arrays.toString(times);
+    }
+
+}
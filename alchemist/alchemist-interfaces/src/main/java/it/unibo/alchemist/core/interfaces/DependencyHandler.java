@@ -42,6 +42,26 @@ public interface DependencyHandler<T> extends Serializable, Comparable<Dependenc
      */
     List<DependencyHandler<T>> dependsOn();
 
+    /**
+     * @return the index assigned to this handler by the {@link DependencyGraph}
+     *         it belongs to, or a negative number if the graph does not use
+     *         indexes. The default implementation does not store indexes, and
+     *         always returns -1.
+     */
+    default int getGraphIndex() {
+        return -1;
+    }
+
+    /**
+     * @return the index assigned to this handler by the {@link ReactionManager}
+     *         currently scheduling its reaction, or a negative number if the
+     *         reaction is not scheduled by any index-aware manager. The default
+     *         implementation does not store indexes, and always returns -1.
+     */
+    default int getQueueIndex() {
+        return -1;
+    }
+
     /**
      * @return The reaction.
      */
@@ -81,6 +101,23 @@ public interface DependencyHandler<T> extends Serializable, Comparable<Dependenc
      */
     void removeOutDependency(DependencyHandler<T> rh);
 
+    /**
+     * Stores the index of the reaction inside the {@link DependencyGraph}.
+     * This method is meant to be called by {@link DependencyGraph}
+     * implementations only.
+     * 
+     * @param index
+     *            the index, or a negative number if the reaction has been
+     *            removed from the graph
+     * @throws UnsupportedOperationException
+     *             if this handler can not store indexes, which is the default:
+     *             such handlers can only be used with graphs that do not rely
+     *             on indexes
+     */
+    default void setGraphIndex(final int index) {
+        throw new UnsupportedOperationException(getClass().getName() + " can not store graph indexes");
+    }
+
     /**
      * Allows to change the in dependencies for this handler. No soundness is
      * guaranteed for this change. Be careful.
@@ -99,6 +136,22 @@ public interface DependencyHandler<T> extends Serializable, Comparable<Dependenc
      */
     void setOutDependencies(List<DependencyHandler<T>> dep);
 
-
+    /**
+     * Stores the index of the reaction inside the {@link ReactionManager}.
+     * This method is meant to be called by {@link ReactionManager}
+     * implementations only, which can use it to find their reactions without
+     * any lookup structure.
+     * 
+     * @param index
+     *            the index, or a negative number if the reaction has been
+     *            removed from the manager
+     * @throws UnsupportedOperationException
+     *             if this handler can not store indexes, which is the default:
+     *             such handlers can only be used with managers that do not
+     *             rely on indexes
+     */
+    default void setQueueIndex(final int index) {
+        throw new UnsupportedOperationException(getClass().getName() + " can not store queue indexes");
+    }
 
 }
@@ -33,6 +33,19 @@ public interface ReactionManager<T> extends Serializable {
      */
     void addReaction(Reaction<T> r);
 
+    /**
+     * Adds a reaction to the data structure, given its handler. Implementations
+     * may store bookkeeping information inside the handler (see
+     * {@link DependencyHandler#setQueueIndex(int)}), and in such case the same
+     * handler must be used for any subsequent operation on the reaction.
+     * 
+     * @param rh
+     *            the handler of the reaction to be added
+     */
+    default void addReaction(final DependencyHandler<T> rh) {
+        addReaction(rh.getReaction());
+    }
+
     /**
      * Allows to access the next reaction to be executed.
      * 
@@ -49,6 +62,16 @@ public interface ReactionManager<T> extends Serializable {
      */
     void removeReaction(Reaction<T> r);
 
+    /**
+     * Removes a reaction from the structure, given its handler.
+     * 
+     * @param rh
+     *            the handler of the reaction to be removed
+     */
+    default void removeReaction(final DependencyHandler<T> rh) {
+        removeReaction(rh.getReaction());
+    }
+
     /**
      * Notifies the structure that the reaction r has changed. The whole
      * structure will be rearranged to ensure consistency.
@@ -58,4 +81,15 @@ public interface ReactionManager<T> extends Serializable {
      */
     void updateReaction(Reaction<T> r);
 
+    /**
+     * Notifies the structure that the reaction handled by rh has changed. If
+     * the reaction is no longer in the structure, nothing is done.
+     * 
+     * @param rh
+     *            the handler of the reaction which has changed
+     */
+    default void updateReaction(final DependencyHandler<T> rh) {
+        updateReaction(rh.getReaction());
+    }
+
 }
@@ -71,6 +71,20 @@ public interface Simulation<T> extends Runnable {
      */
     Status getStatus();
 
+    /**
+     * Allows the reactions to memoize what they compute from the environment:
+     * the returned value is guaranteed to change whenever the environment may
+     * have changed since the last call. The default implementation returns a
+     * negative value, meaning that changes are not tracked and nothing can be
+     * memoized.
+     *
+     * @return the current version of the environment, or a negative value if
+     *         not tracked
+     */
+    default long getEnvironmentVersion() {
+        return -1;
+    }
+
     /**
      * Allows to access the current simulation step.
      *
@@ -40,6 +40,24 @@ public interface Action<T> extends Serializable {
      */
     void execute();
 
+    /**
+     * Executes this action, buffering the changes it makes visible to other
+     * nodes (e.g. outgoing messages) until {@link #commit()} gets called.
+     * Engines executing many reactions concurrently use it to double buffer
+     * the state shared among neighbors. The default implementation does not
+     * buffer anything and just calls {@link #execute()}.
+     */
+    default void executeBuffered() {
+        execute();
+    }
+
+    /**
+     * Makes visible the changes buffered by the last call to
+     * {@link #executeBuffered()}. The default implementation does nothing.
+     */
+    default void commit() {
+    }
+
     /**
      * @return The context for this action.
      */
@@ -51,4 +69,17 @@ public interface Action<T> extends Serializable {
      */
     ListSet<? extends Molecule> getModifiedMolecules();
 
+    /**
+     * Declares whether this action may change the structure of the
+     * environment, namely add, remove or move nodes. Actions that only change
+     * the content of nodes should override it. Engines executing reactions
+     * concurrently never run actions that declare so in parallel. The default
+     * implementation conservatively returns true.
+     * 
+     * @return true if executing this action may add, remove or move nodes
+     */
+    default boolean mayChangeEnvironment() {
+        return true;
+    }
+
 }
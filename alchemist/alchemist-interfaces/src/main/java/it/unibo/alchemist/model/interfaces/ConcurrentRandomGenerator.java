@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.model.interfaces;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+/**
+ * A {@link RandomGenerator} that can be shared by reactions executed
+ * concurrently. The engines executing reactions concurrently make each of
+ * their threads draw from a stream, until the thread is released: any other
+ * thread keeps drawing from the sequential stream of the generator.
+ */
+public interface ConcurrentRandomGenerator extends RandomGenerator {
+
+    /**
+     * Stream of the threads that must share the sequential stream, under a
+     * lock.
+     */
+    int SHARED = -1;
+
+    /**
+     * Makes the current thread draw from the provided stream, until
+     * {@link #release()} is called.
+     *
+     * @param stream
+     *            a non negative index, the same for the threads that must
+     *            draw the same sequence (e.g. the same region of the
+     *            environment), or {@link #SHARED}
+     */
+    void use(int stream);
+
+    /**
+     * Makes the current thread draw from the sequential stream again.
+     */
+    void release();
+
+}
@@ -66,4 +66,32 @@ public interface Condition<T> extends Serializable {
      */
     boolean isValid();
 
+    /**
+     * Declares whether the validity or the propensity conditioning of this
+     * condition may change when a node moves, even if no neighbor is gained
+     * or lost (e.g. because it reads positions, distances, or layers). The
+     * default implementation conservatively returns true: conditions that
+     * only read molecules should override it.
+     * 
+     * @return true if this condition reads spatial information
+     */
+    default boolean isPositionDependent() {
+        return true;
+    }
+
+    /**
+     * Allows the reactions of a node to share the evaluation of equivalent
+     * conditions. Two conditions of the same node returning equal keys must
+     * have the same validity and propensity conditioning in any state of the
+     * environment: typically, the key is made of the condition class and its
+     * parameters. Conditions keeping internal state across evaluations must
+     * not share. The default implementation returns null, meaning that the
+     * condition can not be shared.
+     * 
+     * @return a key identifying the equivalent conditions, or null
+     */
+    default Object getMemoizationKey() {
+        return null;
+    }
+
 }
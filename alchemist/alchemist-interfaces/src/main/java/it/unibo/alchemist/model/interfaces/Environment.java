@@ -13,6 +13,7 @@ package it.unibo.alchemist.model.interfaces;
 
 import java.io.Serializable;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 
@@ -244,6 +245,30 @@ public interface Environment<T> extends Serializable, Iterable<Node<T>> {
      */
     void moveNodeToPosition(Node<T> node, Position position);
 
+    /**
+     * Moves several nodes at once, as if they all moved at the same time.
+     * Implementations can update the neighborhoods once, against the final
+     * positions, rather than after each single movement. The default
+     * implementation moves the nodes one by one.
+     *
+     * @param positions
+     *            the absolute positions in which the nodes will be moved
+     */
+    default void moveNodes(final Map<Node<T>, Position> positions) {
+        positions.forEach(this::moveNodeToPosition);
+    }
+
+    /**
+     * Environments may defer the update of the neighborhoods after a
+     * movement until they get read. This method brings them up to date,
+     * notifying the simulation about the resulting topology changes. The
+     * simulation calls it before reading the neighborhoods in bulk, or from
+     * several threads. The default implementation does nothing, as
+     * neighborhoods are kept up to date by default.
+     */
+    default void refreshNeighborhoods() {
+    }
+
     /**
      * This method allows to remove a node. If node removal is unsupported, it
      * does nothing.
@@ -253,6 +278,23 @@ public interface Environment<T> extends Serializable, Iterable<Node<T>> {
      */
     void removeNode(Node<T> node);
 
+    /**
+     * Starts or stops deferring the effects of the movements: while they are
+     * deferred, the moved nodes get their new position immediately, but the
+     * update of their neighborhoods and the notification of the simulation
+     * are postponed until the movements stop being deferred, and then happen
+     * once per moved node, as for {@link #moveNodes(Map)}. The simulation
+     * uses it to apply as a batch the movements of the reactions it executes
+     * together. The default implementation does nothing, as movements are
+     * applied immediately.
+     *
+     * @param deferred
+     *            true to defer the movements, false to apply the deferred
+     *            ones and stop deferring
+     */
+    default void setDeferredMovements(final boolean deferred) {
+    }
+
     /**
      * @param incarnation
      *            the {@link Incarnation} that will be used for creating the
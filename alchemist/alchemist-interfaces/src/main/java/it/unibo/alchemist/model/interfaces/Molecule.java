@@ -28,6 +28,18 @@ public interface Molecule extends Serializable {
      */
     long getId();
 
+    /**
+     * Equal molecules may share a dense, non negative index, which allows to
+     * compare them without hashing and to keep per molecule data in arrays.
+     * Unequal molecules never share it. The default implementation returns a
+     * negative value, meaning that this molecule is not indexed.
+     * 
+     * @return the index of this molecule, or a negative value
+     */
+    default int getIndex() {
+        return -1;
+    }
+
     /**
      * Calculates the dependency of an {@link Molecule} against another.
      * 
@@ -36,4 +48,19 @@ public interface Molecule extends Serializable {
      */
     boolean dependsOn(Molecule mol);
 
+    /**
+     * Groups molecules in classes that can be indexed: if
+     * {@link #dependsOn(Molecule)} holds for two molecules, their keys must be
+     * equal. Molecules with equal keys are not required to depend on each
+     * other. A null key means that this molecule may depend on, and be
+     * depended on by, any other molecule.
+     *
+     * The default implementation returns null, which is always correct.
+     *
+     * @return the dependency key of this molecule, or null
+     */
+    default Object getDependencyKey() {
+        return null;
+    }
+
 }
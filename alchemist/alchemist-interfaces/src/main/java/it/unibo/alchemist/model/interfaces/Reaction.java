@@ -46,6 +46,23 @@ public interface Reaction<T> extends Comparable<Reaction<T>>, Serializable {
      */
     void execute();
 
+    /**
+     * Executes the reaction, buffering the changes visible to other nodes
+     * until {@link #commit()} gets called (see
+     * {@link Action#executeBuffered()}). The default implementation just
+     * calls {@link #execute()}.
+     */
+    default void executeBuffered() {
+        execute();
+    }
+
+    /**
+     * Makes visible the changes buffered by the last call to
+     * {@link #executeBuffered()}. The default implementation does nothing.
+     */
+    default void commit() {
+    }
+
     /**
      * This method is called when the environment has completed its
      * initialization. Can be used by this reaction to compute its next
@@ -127,6 +144,40 @@ public interface Reaction<T> extends Comparable<Reaction<T>>, Serializable {
      */
     Time getTau();
 
+    /**
+     * Same as {@link #getTau()}, but does not require any {@link Time} object
+     * to be built. Used by the simulation engine on its hot path.
+     * 
+     * @return The global time at which this reaction is scheduled to be
+     *         executed, as double
+     */
+    default double getTauAsDouble() {
+        return getTau().toDouble();
+    }
+
+    /**
+     * Declares whether the putative time of this reaction may change when its
+     * node moves. The simulation engine updates the reactions of a moving
+     * node only if they declare so. The default implementation
+     * conservatively returns true.
+     * 
+     * @return true if this reaction must be updated when its node moves
+     */
+    default boolean isPositionDependent() {
+        return true;
+    }
+
+    /**
+     * Declares whether executing this reaction may add, remove or move nodes.
+     * The default implementation conservatively returns true.
+     * 
+     * @return true if executing this reaction may change the structure of
+     *         the environment
+     */
+    default boolean mayChangeEnvironment() {
+        return true;
+    }
+
     /**
      * @return the {@link TimeDistribution} for this {@link Reaction}
      */
@@ -32,11 +32,34 @@ public interface TimeDistribution<T> extends Cloneable, Serializable {
      */
     Time getNextOccurence();
 
+    /**
+     * Same as {@link #getNextOccurence()}, but does not require any
+     * {@link Time} object to be built. Implementations should override it if
+     * they store the next occurrence as a primitive value.
+     * 
+     * @return the next time at which the event will occur, as double
+     */
+    default double getNextOccurenceAsDouble() {
+        return getNextOccurence().toDouble();
+    }
+
     /**
      * @return how many times per time unit the event will happen on average
      */
     double getRate();
 
+    /**
+     * Periodic distributions trigger their events at fixed intervals of
+     * 1 / {@link #getRate()} time units, and many of them tend to share the
+     * same putative times. The simulation engine may use this information
+     * to pick a suitable scheduler.
+     * 
+     * @return true if this distribution is periodic
+     */
+    default boolean isPeriodic() {
+        return false;
+    }
+
     /**
      * @param currentTime
      *            the time at which the cloning operation happened
@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2010-2016, Danilo Pianini and contributors
+ * listed in the project's pom.xml file.
+ *
+ * This file is part of Alchemist, and is distributed under the terms of
+ * the GNU General Public License, with a linking exception, as described
+ * in the file LICENSE in the Alchemist distribution's top directory.
+ */
+package it.unibo.alchemist.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import it.unibo.alchemist.boundary.interfaces.Sampling;
+
+/**
+ * Checks the sampling points computed by {@link Sampling}.
+ */
+public class TestSampling {
+
+    private static final double DELTA = 1e-12;
+
+    /**
+     * Steps sampling.
+     */
+    @Test
+    public void testSteps() {
+        final Sampling s = Sampling.everySteps(10);
+        assertEquals(0, s.nextStep(-1));
+        assertEquals(10, s.nextStep(0));
+        assertEquals(20, s.nextStep(10));
+        assertEquals(Double.POSITIVE_INFINITY, s.nextTime(0), DELTA);
+        assertTrue(Sampling.everySteps(1).isEveryStep());
+    }
+
+    /**
+     * Periodic time sampling.
+     */
+    @Test
+    public void testInterval() {
+        final Sampling s = Sampling.everyTime(0.5);
+        assertEquals(0, s.nextTime(Math.nextDown(0d)), DELTA);
+        assertEquals(0.5, s.nextTime(0), DELTA);
+        assertEquals(1.5, s.nextTime(1.2), DELTA);
+        assertEquals(Long.MAX_VALUE, s.nextStep(0));
+    }
+
+    /**
+     * Explicit time sampling.
+     */
+    @Test
+    public void testTimes() {
+        final Sampling s = Sampling.atTimes(3, 1, 1, 2);
+        assertEquals(1, s.nextTime(0), DELTA);
+        assertEquals(2, s.nextTime(1), DELTA);
+        assertEquals(3, s.nextTime(2.5), DELTA);
+        assertEquals(Double.POSITIVE_INFINITY, s.nextTime(3), DELTA);
+    }
+
+}
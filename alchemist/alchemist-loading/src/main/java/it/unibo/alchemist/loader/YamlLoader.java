@@ -37,6 +37,7 @@ import org.apache.commons.math3.random.MersenneTwister;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.danilopianini.jirf.Factory;
 import org.danilopianini.jirf.FactoryBuilder;
+import org.danilopianini.util.SpatialIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.yaml.snakeyaml.Yaml;
@@ -70,6 +71,7 @@ import it.unibo.alchemist.loader.variables.Variable;
 import it.unibo.alchemist.model.implementations.environments.Continuous2DEnvironment;
 import it.unibo.alchemist.model.implementations.linkingrules.NoLinks;
 import it.unibo.alchemist.model.implementations.times.DoubleTime;
+import it.unibo.alchemist.model.implementations.utils.SplittableRandomGenerator;
 import it.unibo.alchemist.model.interfaces.Action;
 import it.unibo.alchemist.model.interfaces.Concentration;
 import it.unibo.alchemist.model.interfaces.Condition;
@@ -174,6 +176,7 @@ public class YamlLoader implements Loader {
             .put(Variable.class, ALCHEMIST_PACKAGE_ROOT + "loader.variables.")
             .put(DependentVariable.class, ALCHEMIST_PACKAGE_ROOT + "loader.variables.")
             .put(Environment.class, MODEL_PACKAGE_ROOT + "environments.")
+            .put(SpatialIndex.class, MODEL_PACKAGE_ROOT + "environments.")
             .put(FilteringPolicy.class, ALCHEMIST_PACKAGE_ROOT + "loader.export.filters")
             .put(Layer.class, MODEL_PACKAGE_ROOT + "layers.")
             .put(Displacement.class, ALCHEMIST_PACKAGE_ROOT + "loader.displacements.")
@@ -422,12 +425,25 @@ public class YamlLoader implements Loader {
          */
         final Object seedObj = contents.get(SEEDS);
         final RandomGenerator scenarioRng = rngBuilder(factory, SCENARIO_SEED).build(seedObj);
-        final RandomGenerator simRng = rngBuilder(factory, SIMULATION_SEED).build(seedObj);
+        /*
+         * The simulation generator is shared by all the reactions, which
+         * engines may execute concurrently. The seeds of the random streams
+         * of the concurrent regions are split from the simulation seed
+         */
+        final RandomGenerator simRng = new SplittableRandomGenerator(
+                rngBuilder(factory, SIMULATION_SEED).build(seedObj),
+                seedValue(seedObj, SIMULATION_SEED));
         /*
          * Environment
          */
         final BuilderConfiguration<Environment<T>> envDefaultConfig = emptyConfig(factory, Continuous2DEnvironment::new);
         final Builder<Environment<T>> envBuilder = new Builder<>(Environment.class, ImmutableSet.of(envDefaultConfig), factory);
+        /*
+         * Spatial indexes can be passed to the environment constructors, e.g.
+         * parameters: [{type: CellListIndex, parameters: [1]}]
+         */
+        final Builder<SpatialIndex<Node<T>>> indexBuilder = new Builder<SpatialIndex<Node<T>>>(SpatialIndex.class, ImmutableSet.of(), factory);
+        factory.registerImplicit(Map.class, SpatialIndex.class, indexBuilder::build);
         factory.registerSingleton(RandomGenerator.class, simRng);
         final Environment<T> env = envBuilder.build(contents.get(ENVIRONMENT));
         env.setIncarnation(incarnation);
@@ -669,6 +685,16 @@ public class YamlLoader implements Loader {
                 .orElse(new MersenneTwister(0));
     }
 
+    private static long seedValue(final Object seeds, final String seed) {
+        if (seeds instanceof Map) {
+            final Object value = ((Map<?, ?>) seeds).get(seed);
+            if (value instanceof Number) {
+                return ((Number) value).longValue();
+            }
+        }
+        return 0;
+    }
+
     private static <T> BuilderConfiguration<T> singleParamConfig(final Factory factory, final Function<Object, T> supplier) {
         return new BuilderConfiguration<>(ImmutableMap.of(PARAMETER, Object.class), emptyMap(), factory, m -> supplier.apply(m.get(PARAMETER)));
     }
@@ -34,4 +34,9 @@ public class EnvPerformanceStats implements Extractor {
         return COLNAME;
     }
 
+    @Override
+    public boolean requiresLiveEnvironment() {
+        return true;
+    }
+
 }
@@ -41,4 +41,9 @@ public class ExecutionTime implements Extractor {
     public List<String> getNames() {
         return COLNAME;
     }
+
+    @Override
+    public boolean requiresLiveEnvironment() {
+        return true;
+    }
 }
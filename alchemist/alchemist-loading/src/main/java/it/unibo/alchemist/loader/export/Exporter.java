@@ -15,6 +15,7 @@ import com.google.common.base.Charsets;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.boundary.interfaces.Sampling;
 import it.unibo.alchemist.model.implementations.times.DoubleTime;
 import it.unibo.alchemist.model.interfaces.Environment;
 import it.unibo.alchemist.model.interfaces.Reaction;
@@ -103,6 +104,11 @@ public class Exporter<T> implements OutputMonitor<T> {
         }
     }
 
+    @Override
+    public Sampling getSampling() {
+        return sampleSpace > 0 && !Double.isInfinite(sampleSpace) ? Sampling.everyTime(sampleSpace) : Sampling.EVERY_STEP;
+    }
+
     private void printDatum(final double datum) {
         out.print(datum);
         out.print(' ');
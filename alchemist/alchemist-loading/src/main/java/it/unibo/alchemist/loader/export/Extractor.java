@@ -35,4 +35,14 @@ public interface Extractor {
      */
     List<String> getNames();
 
+    /**
+     * @return true if this {@link Extractor} needs the environment actually
+     *         running the simulation, e.g. because it measures wall clock
+     *         time or queries environment specific interfaces, and can not
+     *         work on a copy of it taken at the sampling point
+     */
+    default boolean requiresLiveEnvironment() {
+        return false;
+    }
+
 }
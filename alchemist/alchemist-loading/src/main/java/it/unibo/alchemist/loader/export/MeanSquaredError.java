@@ -99,4 +99,13 @@ public class MeanSquaredError<T> implements Extractor {
         return name;
     }
 
+    /*
+     * The properties are computed by the incarnation, which may need its own
+     * node implementation (e.g. Protelis runs a program on the node)
+     */
+    @Override
+    public boolean requiresLiveEnvironment() {
+        return true;
+    }
+
 }
@@ -96,4 +96,13 @@ public class MoleculeReader<T> implements Extractor {
         return columns;
     }
 
+    /*
+     * The properties are computed by the incarnation, which may need its own
+     * node implementation (e.g. Protelis runs a program on the node)
+     */
+    @Override
+    public boolean requiresLiveEnvironment() {
+        return true;
+    }
+
 }
@@ -28,6 +28,7 @@ import it.unibo.alchemist.model.interfaces.Environment;
 import it.unibo.alchemist.model.interfaces.Incarnation;
 import it.unibo.alchemist.model.interfaces.Layer;
 import it.unibo.alchemist.model.interfaces.Molecule;
+import it.unibo.alchemist.model.interfaces.Position;
 import it.unibo.alchemist.test.util.TestNode;
 
 /**
@@ -54,6 +55,22 @@ public class TestYAMLLoader {
         });
     }
 
+    /**
+     * Tests plugging a custom spatial index into the environment.
+     */
+    @Test
+    public void testCellListIndex() {
+        final Environment<Object> env = testNoVar("/synthetic/celllist.yml");
+        assertFalse(env.getNodes().isEmpty());
+        env.forEach(n -> {
+            final Position p = env.getPosition(n);
+            final long expected = env.getNodes().stream()
+                    .filter(o -> !o.equals(n) && env.getPosition(o).getDistanceTo(p) <= 1)
+                    .count();
+            assertEquals(expected, env.getNeighborhood(n).size());
+        });
+    }
+
     /**
      * Test loading a custom node class.
      */
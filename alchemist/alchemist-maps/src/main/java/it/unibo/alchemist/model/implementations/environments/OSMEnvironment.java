@@ -407,10 +407,36 @@ public class OSMEnvironment<T> extends Continuous2DEnvironment<T> implements Map
         return Optional.empty();
     }
 
+    /**
+     * Positions are rebuilt as {@link LatLongPosition}s, with the default
+     * distance formula.
+     */
+    @Override
+    protected GeoPosition buildPosition(final double[] coordinates) {
+        return new LatLongPosition(coordinates[1], coordinates[0]);
+    }
+
+    /**
+     * Geographic distance, computed by the positions.
+     */
+    @Override
+    protected double getDistance(final Node<T> node, final Position position) {
+        return getPosition(node).getDistanceTo(position);
+    }
+
+    /**
+     * Geographic distance, computed by the positions.
+     */
+    @Override
+    public double getDistanceBetweenNodes(final Node<T> n1, final Node<T> n2) {
+        return getPosition(n1).getDistanceTo(getPosition(n2));
+    }
+
     @Override
     public GeoPosition getPosition(final Node<T> node) {
-        if (super.getPosition(node) instanceof GeoPosition) {
-            return (GeoPosition) super.getPosition(node);
+        final Position position = super.getPosition(node);
+        if (position instanceof GeoPosition) {
+            return (GeoPosition) position;
         }
         throw new IllegalStateException("the position isn't a GeoPosition");
     }
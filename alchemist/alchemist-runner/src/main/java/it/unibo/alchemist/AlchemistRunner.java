@@ -38,6 +38,7 @@ import com.google.common.util.concurrent.ThreadFactoryBuilder;
 
 import it.unibo.alchemist.boundary.gui.SingleRunGUI;
 import it.unibo.alchemist.boundary.interfaces.OutputMonitor;
+import it.unibo.alchemist.core.implementations.AsyncOutputMonitor;
 import it.unibo.alchemist.core.implementations.Engine;
 import it.unibo.alchemist.core.interfaces.Simulation;
 import it.unibo.alchemist.loader.Loader;
@@ -61,6 +62,11 @@ public final class AlchemistRunner<T> {
     private static final ThreadFactory THREAD_FACTORY = new ThreadFactoryBuilder()
             .setNameFormat("alchemist-batch-%d")
             .build();
+    /*
+     * Rows an asynchronous exporter may lag behind the simulation
+     */
+    private static final int EXPORT_BACKLOG = 64;
+    private final boolean asyncExport;
     private final int closeOperation;
     private final boolean doBenchmark;
     private final Optional<String> effectsFile;
@@ -83,6 +89,7 @@ public final class AlchemistRunner<T> {
             final boolean headless,
             final int closeOperation,
             final boolean benchmark,
+            final boolean asyncExport,
             final ImmutableCollection<Supplier<OutputMonitor<T>>> outputMonitors) {
         this.effectsFile = effectsFile;
         this.endTime = endTime;
@@ -94,6 +101,7 @@ public final class AlchemistRunner<T> {
         this.samplingInterval = sampling;
         this.closeOperation = closeOperation;
         this.doBenchmark = benchmark;
+        this.asyncExport = asyncExport;
         this.outputMonitors = outputMonitors;
     }
 
@@ -132,7 +140,14 @@ public final class AlchemistRunner<T> {
                                 }
                             }
                         }
-                        sim.play();
+                        if (headless && sim instanceof Engine) {
+                            /*
+                             * Nobody interacts with headless batch runs
+                             */
+                            ((Engine<T>) sim).setHeadless();
+                        } else {
+                            sim.play();
+                        }
                         sim.run();
                         return sim.getError();
                     }, variables)
@@ -224,8 +239,16 @@ public final class AlchemistRunner<T> {
                             .map(e -> e.getKey() + " = " + e.getValue())
                             .collect(Collectors.joining(", "));
                     try {
-                        final Exporter<T> exp = new Exporter<>(filename, samplingInterval, header, loader.getDataExtractors());
-                        sim.addOutputMonitor(exp);
+                        final List<Extractor> extractors = loader.getDataExtractors();
+                        final Exporter<T> exp = new Exporter<>(filename, samplingInterval, header, extractors);
+                        /*
+                         * If requested, rows get written on a thread of their
+                         * own, unless some column must be read from the live
+                         * environment
+                         */
+                        sim.addOutputMonitor(!asyncExport || extractors.stream().anyMatch(Extractor::requiresLiveEnvironment)
+                                ? exp
+                                : new AsyncOutputMonitor<>(exp, EXPORT_BACKLOG));
                     } catch (FileNotFoundException e) {
                         throw new IllegalStateException(e);
                     }
@@ -239,6 +262,7 @@ public final class AlchemistRunner<T> {
      * @param <T> concentration type
      */
     public static class Builder<T> {
+        private boolean asyncExport;
         private boolean benchmark;
         private int closeOperation;
         private Optional<String> effectsFile = Optional.empty();
@@ -276,7 +300,21 @@ public final class AlchemistRunner<T> {
         public AlchemistRunner<T> build() {
             return new AlchemistRunner<>(this.loader, this.endTime, this.endStep, this.exportFileRoot, this.effectsFile,
                     this.samplingInt, this.parallelism, this.headless, this.closeOperation, this.benchmark,
-                    ImmutableList.copyOf(outputMonitors));
+                    this.asyncExport, ImmutableList.copyOf(outputMonitors));
+        }
+
+        /**
+         * @param async
+         *            set true to write the exported rows on a thread of their
+         *            own, from snapshots of the environment. Ignored if any
+         *            exported column requires the live environment (see
+         *            {@link Extractor#requiresLiveEnvironment()}). Defaults to
+         *            false
+         * @return builder
+         */
+        public Builder<T> setAsyncExport(final boolean async) {
+            this.asyncExport = async;
+            return this;
         }
 
         /**
@@ -44,6 +44,7 @@ public final class Alchemist {
     private static final String HEADLESS = "hl";
     private static final String VARIABLES = "var";
     private static final String BENCHMARK = "bmk";
+    private static final String ASYNC_EXPORT = "ae";
     private static final char PARALLELISM = 'p';
     private static final char BATCH = 'b';
     private static final char EXPORT = 'e';
@@ -94,6 +95,7 @@ public final class Alchemist {
             if (loader.isPresent()) {
                 final Builder<?> simBuilder = new Builder<>(loader.get())
                         .setHeadless(cmd.hasOption(HEADLESS))
+                        .setAsyncExport(cmd.hasOption(ASYNC_EXPORT))
                         .setGUICloseOperation(JFrame.EXIT_ON_CLOSE);
                 ifPresent(cmd, EXPORT, simBuilder::setOutputFile);
                 ifPresent(cmd, GRAPHICS, simBuilder::setEffects);